@@ -1,5 +1,6 @@
 package analytics;
 
+import context.StudentRegistry;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -30,7 +31,7 @@ public class StatisticsDashboard {
     private final AtomicBoolean dashboardRunning;
     private volatile int displayRefreshCount;
     
-    public StatisticsDashboard(GradeManager gradeManager, ArrayList<Student> students, Scanner scanner) {
+    public StatisticsDashboard(GradeManager gradeManager, StudentRegistry students, Scanner scanner) {
         this.calculator = new StatsCalculator(gradeManager, students);
         this.scanner = scanner;
         this.dashboardRunning = new AtomicBoolean(false);
@@ -237,6 +238,9 @@ public class StatisticsDashboard {
         System.out.printf(" %-30s: %8.2f   |", "Class Average GPA", calculator.getClassGPA());
         System.out.printf(" %-30s: %8d   |", "Total Grades", calculator.getTotalGrades());
         System.out.printf(" %-30s: %8d%s\n", "Total Students", calculator.getTotalStudents(), " ".repeat(5));
+        System.out.printf(ANSI_CYAN + "║" + ANSI_RESET);
+        System.out.printf(" %-30s: %8d   |", "Passing Students", calculator.getPassingStudents());
+        System.out.printf(" %-30s: %8d%s\n", "Honors Students", calculator.getHonorsStudents(), " ".repeat(5));
     }
     
     /**
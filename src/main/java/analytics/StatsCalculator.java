@@ -1,13 +1,16 @@
 package analytics;
 
+import context.StudentRegistry;
 import manager.GradeManager;
 import core.Grade;
 import core.Student;
 import context.ApplicationContext;
+import context.StudentColumns;
+import storage.IntList;
+import storage.IntObjectMap;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -28,7 +31,7 @@ public class StatsCalculator extends Thread {
     private static final int CALC_INTERVAL_MS = 5000; // 5 seconds
     
     private final GradeManager gradeManager;
-    private final ArrayList<Student> students;
+    private final StudentRegistry students;
     private final ConcurrentHashMap<String, Object> statsCache;
     private final AtomicBoolean running;
     private final AtomicBoolean paused;
@@ -45,6 +48,8 @@ public class StatsCalculator extends Thread {
     private volatile double classGPA;
     private volatile int totalGrades;
     private volatile int totalStudents;
+    private volatile int passingStudents;
+    private volatile int honorsStudents;
     
     // Thread management
     private final Thread calculatorThread;
@@ -71,7 +76,7 @@ public class StatsCalculator extends Thread {
         }
     }
     
-    public StatsCalculator(GradeManager gradeManager, ArrayList<Student> students) {
+    public StatsCalculator(GradeManager gradeManager, StudentRegistry students) {
         this.gradeManager = gradeManager;
         this.students = students;
         this.statsCache = new ConcurrentHashMap<>();
@@ -147,67 +152,53 @@ public class StatsCalculator extends Thread {
     }
     
     /**
-     * Perform actual statistics calculations - using Stream API exclusively
+     * Perform actual statistics calculations.
+     * One pass over the grade columns of a snapshot builds the per-student
+     * totals, the distribution and the class totals without materializing Grade
+     * objects; the student breakdown comes from byte scans over StudentColumns.
      */
     private synchronized void performStatsCalculation() {
         try {
-            if (gradeManager.getGradeCount() == 0) {
+            // single snapshot so all figures below describe the same grades
+            GradeSnapshot grades = gradeManager.snapshot();
+            if (grades.isEmpty()) {
                 resetStats();
                 return;
             }
             
-            // Use Stream API to build student stats map
-            Map<String, StudentStats> studentStatsMap = Arrays.stream(gradeManager.grades)
-                    .limit(gradeManager.getGradeCount())
-                    .filter(g -> g != null)
-                    .collect(Collectors.toMap(
-                            grade -> {
-                                Student student = findStudentById(grade.getStudentId());
-                                return student != null ? student.getName() : "Unknown-" + grade.getStudentId();
-                            },
-                            grade -> {
-                                StudentStats stats = new StudentStats();
-                                stats.addGrade(grade);
-                                return stats;
-                            },
-                            (existing, newStats) -> {
-                                // Merge: add all grades from newStats to existing
-                                newStats.totalGrade = existing.totalGrade + newStats.totalGrade;
-                                newStats.totalGPA = existing.totalGPA + newStats.totalGPA;
-                                newStats.count = existing.count + newStats.count;
-                                return newStats;
-                            },
-                            ConcurrentHashMap::new
-                    ));
+            IntObjectMap<StudentStats> byStudent = new IntObjectMap<>();
+            IntList studentOrder = new IntList();
+            Map<String, Integer> distribution = new ConcurrentHashMap<>();
+            double[] totals = new double[3];  // [totalAverage, totalGPA, count]
+            for (int i = 0; i < grades.size(); i++) {
+                int studentId = grades.getStudentId(i);
+                double grade = grades.getGradeValue(i);
+                StudentStats stats = byStudent.get(studentId);
+                if (stats == null) {
+                    stats = new StudentStats();
+                    byStudent.put(studentId, stats);
+                    studentOrder.add(studentId);
+                }
+                stats.addGrade(grade);
+                distribution.merge(getGradeRange(grade), 1, Integer::sum);
+                totals[0] += grade;
+                totals[1] += convertGradeToGPA(grade);
+                totals[2]++;
+            }
             
-            // Calculate distribution using Stream API
-            Map<String, Integer> distribution = Arrays.stream(gradeManager.grades)
-                    .limit(gradeManager.getGradeCount())
-                    .filter(g -> g != null)
-                    .collect(Collectors.toMap(
-                            g -> getGradeRange(g.getGrade()),
-                            g -> 1,
-                            Integer::sum,
-                            ConcurrentHashMap::new
-                    ));
+            // Entries are keyed by name; students sharing a name are merged as before
+            Map<String, StudentStats> studentStatsMap = new ConcurrentHashMap<>();
+            for (int k = 0; k < studentOrder.size(); k++) {
+                int studentId = studentOrder.get(k);
+                Student student = findStudentById(studentId);
+                String name = student != null ? student.getName() : "Unknown-" + studentId;
+                studentStatsMap.merge(name, byStudent.get(studentId), StudentStats::merge);
+            }
             
-            // Calculate totals using Stream API
-            double[] totals = Arrays.stream(gradeManager.grades)
-                    .limit(gradeManager.getGradeCount())
-                    .filter(g -> g != null)
-                    .collect(
-                            () -> new double[3],  // [totalAverage, totalGPA, count]
-                            (acc, grade) -> {
-                                acc[0] += grade.getGrade();
-                                acc[1] += convertGradeToGPA(grade.getGrade());
-                                acc[2]++;
-                            },
-                            (acc1, acc2) -> {
-                                acc1[0] += acc2[0];
-                                acc1[1] += acc2[1];
-                                acc1[2] += acc2[2];
-                            }
-                    );
+            // Type/status breakdown over the student attribute columns
+            StudentColumns.Snapshot columns = ApplicationContext.getInstance().getStudentColumns().snapshot();
+            this.passingStudents = columns.countStatus(StudentColumns.STATUS_PASSING);
+            this.honorsStudents = columns.countType(StudentColumns.TYPE_HONORS);
             
             // Update thread-safe fields
             this.totalGrades = (int) totals[2];
@@ -235,6 +226,8 @@ public class StatsCalculator extends Thread {
             statsCache.put("class_gpa", classGPA);
             statsCache.put("total_grades", totalGrades);
             statsCache.put("total_students", totalStudents);
+            statsCache.put("passing_students", passingStudents);
+            statsCache.put("honors_students", honorsStudents);
             statsCache.put("grade_distribution", new ConcurrentHashMap<>(distribution));
             statsCache.put("update_time", lastUpdateTime.format(TIME_FORMAT));
             
@@ -245,12 +238,12 @@ public class StatsCalculator extends Thread {
     
     /**
      * Find student by ID.
-     * Big-O: O(1) average using HashMap-backed index (ApplicationContext.getInstance().getStudentIndex()),
+     * Big-O: O(1) expected using the int-keyed index in ApplicationContext,
      * instead of O(n) linear scan from the original lab implementation.
      */
     private Student findStudentById(int studentId) {
         if (students == null) return null;
-        return ApplicationContext.getInstance().getStudentIndex().get(String.valueOf(studentId));
+        return ApplicationContext.getInstance().getStudentById(studentId);
     }
     
     /**
@@ -285,6 +278,8 @@ public class StatsCalculator extends Thread {
         this.classGPA = 0;
         this.totalGrades = 0;
         this.totalStudents = 0;
+        this.passingStudents = 0;
+        this.honorsStudents = 0;
         statsCache.clear();
     }
     
@@ -362,6 +357,16 @@ public class StatsCalculator extends Thread {
         return totalStudents;
     }
     
+    public int getPassingStudents() {
+        cacheMisses.incrementAndGet();
+        return passingStudents;
+    }
+    
+    public int getHonorsStudents() {
+        cacheMisses.incrementAndGet();
+        return honorsStudents;
+    }
+    
     public LocalDateTime getLastUpdateTime() {
         return lastUpdateTime;
     }
@@ -419,17 +424,25 @@ public class StatsCalculator extends Thread {
         double totalGPA = 0;
         int count = 0;
         
-        void addGrade(Grade grade) {
-            totalGrade += grade.getGrade();
+        void addGrade(double grade) {
+            totalGrade += grade;
             // Convert numeric grade to GPA
-            double gpa = grade.getGrade() >= 90 ? 4.0 :
-                        grade.getGrade() >= 80 ? 3.0 :
-                        grade.getGrade() >= 70 ? 2.0 :
-                        grade.getGrade() >= 60 ? 1.0 : 0.0;
+            double gpa = grade >= 90 ? 4.0 :
+                        grade >= 80 ? 3.0 :
+                        grade >= 70 ? 2.0 :
+                        grade >= 60 ? 1.0 : 0.0;
             totalGPA += gpa;
             count++;
         }
         
+        StudentStats merge(StudentStats other) {
+            StudentStats merged = new StudentStats();
+            merged.totalGrade = totalGrade + other.totalGrade;
+            merged.totalGPA = totalGPA + other.totalGPA;
+            merged.count = count + other.count;
+            return merged;
+        }
+        
         double getAverageGrade() {
             return count > 0 ? totalGrade / count : 0;
         }
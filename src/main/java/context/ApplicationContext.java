@@ -4,10 +4,13 @@ import core.Student;
 import core.Grade;
 import manager.GradeManager;
 import models.StudentService;
+import persistence.StudentArchive;
+import persistence.WriteAheadLog;
 import scheduler.TaskScheduler;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Application Context - Holds all shared application state and components
@@ -22,8 +25,10 @@ public class ApplicationContext {
     private static ApplicationContext instance;
     
     // Data storage
-    private ArrayList<Student> students;
-    private HashMap<String, Student> studentIndex;
+    // shared with background jobs; holds the one id -> student index
+    private StudentRegistry students;
+    // column copy of student attributes for scans (search, statistics)
+    private StudentColumns studentColumns;
     private ArrayList<Grade> grades;
     
     // Managers and services
@@ -31,9 +36,13 @@ public class ApplicationContext {
     private StudentService studentService;
     private TaskScheduler taskScheduler;
     private Scanner scanner;
+    // durable log of accepted students and grades; null until attached after replay
+    private volatile WriteAheadLog writeAheadLog;
+    // on-disk students and grades beyond the in-memory ones; null when not attached
+    private volatile StudentArchive archive;
     
     // Counters
-    private int studentIdCounter;
+    private final AtomicInteger studentIdCounter;
     private static final int INITIAL_STUDENT_ID = 1000;
     
     /**
@@ -41,12 +50,14 @@ public class ApplicationContext {
      * Also sets the static instance for Service Locator pattern
      */
     public ApplicationContext() {
-        this.students = new ArrayList<>();
-        this.studentIndex = new HashMap<>();
+        this.students = new StudentRegistry();
         this.grades = new ArrayList<>();
         this.gradeManager = new GradeManager();
-        this.studentService = new StudentService(students, INITIAL_STUDENT_ID);
-        this.studentIdCounter = INITIAL_STUDENT_ID;
+        this.studentColumns = new StudentColumns();
+        this.students.addListener(studentColumns);
+        this.studentIdCounter = new AtomicInteger(INITIAL_STUDENT_ID);
+        this.studentService = new StudentService(students, studentIdCounter::getAndIncrement);
+        this.students.addListener(studentService);
         this.scanner = new Scanner(System.in);
         
         // Set static instance for Service Locator pattern
@@ -66,14 +77,10 @@ public class ApplicationContext {
     
     // ========== Getters and Setters ==========
     
-    public ArrayList<Student> getStudents() {
+    public StudentRegistry getStudents() {
         return students;
     }
     
-    public HashMap<String, Student> getStudentIndex() {
-        return studentIndex;
-    }
-    
     public ArrayList<Grade> getGrades() {
         return grades;
     }
@@ -82,6 +89,10 @@ public class ApplicationContext {
         return gradeManager;
     }
     
+    public StudentColumns getStudentColumns() {
+        return studentColumns;
+    }
+    
     public StudentService getStudentService() {
         return studentService;
     }
@@ -94,46 +105,91 @@ public class ApplicationContext {
         this.taskScheduler = taskScheduler;
     }
     
+    public WriteAheadLog getWriteAheadLog() {
+        return writeAheadLog;
+    }
+    
+    /**
+     * Start logging students (here) and grades (in the GradeManager) to the
+     * given log. Attach only after the log has been replayed, so replayed
+     * records are not written a second time. Pass null to stop logging.
+     */
+    public void setWriteAheadLog(WriteAheadLog writeAheadLog) {
+        this.writeAheadLog = writeAheadLog;
+        gradeManager.setWriteAheadLog(writeAheadLog);
+    }
+    
+    public StudentArchive getArchive() {
+        return archive;
+    }
+
+    /**
+     * Serve students that are not registered in memory, and their grades,
+     * from a disk archive (GradeManager and StudentService fall back to it).
+     * getStudentById stays memory-only. Pass null to detach.
+     * New student and grade ids start above the archive's highest ones.
+     */
+    public void setArchive(StudentArchive archive) {
+        if (archive != null) {
+            studentIdCounter.accumulateAndGet(archive.getMaxStudentId() + 1, Math::max);
+            Grade.reserveIdsThrough(archive.getMaxGradeId());
+        }
+        this.archive = archive;
+        gradeManager.setArchive(archive);
+        studentService.setArchive(archive);
+    }
+    
     public Scanner getScanner() {
         return scanner;
     }
     
     public int getStudentIdCounter() {
-        return studentIdCounter;
+        return studentIdCounter.get();
     }
     
     public void setStudentIdCounter(int counter) {
-        this.studentIdCounter = counter;
+        this.studentIdCounter.set(counter);
     }
     
     /**
-     * Generate next student ID
+     * Generate next student ID (safe to call from several threads)
      */
     public int generateStudentId() {
-        return studentIdCounter++;
+        return studentIdCounter.getAndIncrement();
     }
     
     /**
-     * Get a student by ID from the index (O(1) lookup)
+     * Get a student by ID from the index (O(1) lookup, no allocation)
      */
     public Student getStudentById(int id) {
-        Student fromIndex = studentIndex.get(String.valueOf(id));
-        if (fromIndex != null) {
-            return fromIndex;
-        }
-        // Fallback: search in students list
-        return students.stream()
-                .filter(s -> s.getId() == id)
-                .findFirst()
-                .orElse(null);
+        return students.findById(id);
     }
     
     /**
-     * Add a student to the context
+     * Add a student to the context (registry and index together) and,
+     * once accepted, to the write-ahead log if one is attached
      */
     public void addStudent(Student student) {
-        students.add(student);
-        studentIndex.put(String.valueOf(student.getId()), student);
+        WriteAheadLog log = writeAheadLog;
+        if (log == null) {
+            students.add(student);
+            return;
+        }
+        Lock guard = log.updateLock();
+        guard.lock();
+        try {
+            students.add(student);
+            log.logStudent(student);
+        } finally {
+            guard.unlock();
+        }
+    }
+    
+    /**
+     * Remove all students from the registry and the index
+     */
+    public void clearStudents() {
+        students.clear();
     }
     
     /**
@@ -146,5 +202,21 @@ public class ApplicationContext {
         if (taskScheduler != null) {
             taskScheduler.shutdown();
         }
+        WriteAheadLog log = writeAheadLog;
+        if (log != null) {
+            try {
+                log.close();
+            } catch (Exception e) {
+                System.err.println("Warning: could not close write-ahead log: " + e.getMessage());
+            }
+        }
+        StudentArchive archived = archive;
+        if (archived != null) {
+            try {
+                archived.close();
+            } catch (Exception e) {
+                System.err.println("Warning: could not close student archive: " + e.getMessage());
+            }
+        }
     }
 }
@@ -0,0 +1,215 @@
+package context;
+
+import core.Student;
+import storage.IntIntMap;
+import java.util.Arrays;
+
+/**
+ * Column-oriented copy of the student attributes that searches and bulk
+ * statistics scan: ids, names, email domains, phone area codes, and type and
+ * status as one-byte codes, each in its own parallel array. A scan over one
+ * attribute walks one dense array instead of chasing Student objects across
+ * the heap; the Student itself is only needed for the rows that match.
+ *
+ * Kept in step with a StudentRegistry as a listener: rows are appended in
+ * registry order and the status code is rewritten when a student's average
+ * changes. Readers take a Snapshot (O(1), never locks) whose row count is
+ * fixed; status codes are the one column that may change under a snapshot.
+ */
+public class StudentColumns implements StudentRegistry.Listener {
+
+    public static final byte TYPE_REGULAR = 0;
+    public static final byte TYPE_HONORS = 1;
+    public static final byte TYPE_OTHER = 2;
+
+    public static final byte STATUS_PASSING = 0;
+    public static final byte STATUS_FAILING = 1;
+    public static final byte STATUS_OTHER = 2;
+
+    /**
+     * Fixed-size view of the columns.
+     */
+    public static final class Snapshot {
+        private final int size;
+        private final Student[] students;
+        private final int[] ids;
+        private final String[] names;
+        private final String[] emailDomains;
+        private final String[] areaCodes;
+        private final byte[] typeCodes;
+        private final byte[] statusCodes;
+
+        private Snapshot(int size, Student[] students, int[] ids, String[] names, String[] emailDomains,
+                         String[] areaCodes, byte[] typeCodes, byte[] statusCodes) {
+            this.size = size;
+            this.students = students;
+            this.ids = ids;
+            this.names = names;
+            this.emailDomains = emailDomains;
+            this.areaCodes = areaCodes;
+            this.typeCodes = typeCodes;
+            this.statusCodes = statusCodes;
+        }
+
+        public int size() { return size; }
+
+        public Student student(int row) { return students[check(row)]; }
+
+        public int id(int row) { return ids[check(row)]; }
+
+        public String name(int row) { return names[check(row)]; }
+
+        public String emailDomain(int row) { return emailDomains[check(row)]; }
+
+        public String areaCode(int row) { return areaCodes[check(row)]; }
+
+        public byte typeCode(int row) { return typeCodes[check(row)]; }
+
+        public byte statusCode(int row) { return statusCodes[check(row)]; }
+
+        /**
+         * Number of rows with the given type code. Big-O: O(n) over one byte array.
+         */
+        public int countType(byte code) {
+            return count(typeCodes, code);
+        }
+
+        /**
+         * Number of rows with the given status code. Big-O: O(n) over one byte array.
+         */
+        public int countStatus(byte code) {
+            return count(statusCodes, code);
+        }
+
+        private int count(byte[] column, byte code) {
+            int n = 0;
+            for (int i = 0; i < size; i++) {
+                if (column[i] == code) n++;
+            }
+            return n;
+        }
+
+        private int check(int row) {
+            if (row < 0 || row >= size) {
+                throw new IndexOutOfBoundsException("Row " + row + " out of range [0, " + size + ")");
+            }
+            return row;
+        }
+    }
+
+    // written only under the registry's write lock (listener callbacks)
+    private final IntIntMap rowOf = new IntIntMap();
+    private int size;
+    private Student[] students;
+    private int[] ids;
+    private String[] names;
+    private String[] emailDomains;
+    private String[] areaCodes;
+    private byte[] typeCodes;
+    private byte[] statusCodes;
+
+    private volatile Snapshot current;
+
+    public StudentColumns() {
+        allocate(64);
+        publish();
+    }
+
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    @Override
+    public synchronized void studentAdded(Student s) {
+        if (size == ids.length) {
+            grow(size * 2);
+        }
+        students[size] = s;
+        ids[size] = s.getId();
+        names[size] = s.getName();
+        emailDomains[size] = extractDomain(s.getEmail());
+        areaCodes[size] = extractAreaCode(s.getPhone());
+        typeCodes[size] = typeCode(s.getType());
+        statusCodes[size] = statusCode(s.getStatus());
+        rowOf.put(s.getId(), size);
+        size++;
+        publish();
+    }
+
+    @Override
+    public synchronized void studentChanged(Student s) {
+        int row = rowOf.get(s.getId(), -1);
+        if (row >= 0) {
+            statusCodes[row] = statusCode(s.getStatus());
+        }
+    }
+
+    @Override
+    public synchronized void cleared() {
+        rowOf.clear();
+        size = 0;
+        allocate(64);
+        publish();
+    }
+
+    /**
+     * Domain part of an email address ("" if there is none).
+     */
+    public static String extractDomain(String email) {
+        if (email == null || !email.contains("@")) return "";
+        return email.substring(email.indexOf("@") + 1);
+    }
+
+    /**
+     * Area code of a phone number: the digits in "(123) ..." or else the first three digits.
+     */
+    public static String extractAreaCode(String phone) {
+        if (phone == null || phone.isEmpty()) return "";
+        int start = phone.indexOf('(');
+        int end = phone.indexOf(')');
+        if (start >= 0 && end > start) {
+            return phone.substring(start + 1, end);
+        }
+        String digits = phone.replaceAll("[^0-9]", "");
+        return digits.substring(0, Math.min(3, digits.length()));
+    }
+
+    public static byte typeCode(String type) {
+        if ("Regular".equals(type)) return TYPE_REGULAR;
+        if ("Honors".equals(type)) return TYPE_HONORS;
+        return TYPE_OTHER;
+    }
+
+    public static byte statusCode(String status) {
+        if (status == null) return STATUS_OTHER;
+        // HonorsStudent pads its status with spaces
+        String trimmed = status.trim();
+        if (trimmed.equals("Passing")) return STATUS_PASSING;
+        if (trimmed.equals("Failing")) return STATUS_FAILING;
+        return STATUS_OTHER;
+    }
+
+    private void allocate(int capacity) {
+        students = new Student[capacity];
+        ids = new int[capacity];
+        names = new String[capacity];
+        emailDomains = new String[capacity];
+        areaCodes = new String[capacity];
+        typeCodes = new byte[capacity];
+        statusCodes = new byte[capacity];
+    }
+
+    private void grow(int capacity) {
+        students = Arrays.copyOf(students, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        emailDomains = Arrays.copyOf(emailDomains, capacity);
+        areaCodes = Arrays.copyOf(areaCodes, capacity);
+        typeCodes = Arrays.copyOf(typeCodes, capacity);
+        statusCodes = Arrays.copyOf(statusCodes, capacity);
+    }
+
+    private void publish() {
+        current = new Snapshot(size, students, ids, names, emailDomains, areaCodes, typeCodes, statusCodes);
+    }
+}
@@ -0,0 +1,149 @@
+package context;
+
+import core.Student;
+import storage.IntObjectMap;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Shared, thread-safe registry of all students: insertion order plus the
+ * int id index. It is also a read-only live List view, so existing code that
+ * iterates "the students" keeps working.
+ *
+ * Writers (UI, imports) are serialized by a lock; readers never lock.
+ * Every change publishes a new immutable StudentSnapshot through a volatile
+ * field, and students are only appended, so a snapshot can share the array.
+ * Iterating the registry iterates the snapshot current at that moment, which
+ * lets background jobs walk a consistent set while inserts carry on.
+ * Big-O: add -> O(1) amortized, findById -> O(1), snapshot -> O(1).
+ */
+public class StudentRegistry extends AbstractList<Student> implements RandomAccess {
+
+    /**
+     * Told about every change, in order, while the registry's write lock is
+     * held; used by secondary indexes (e.g. StudentService buckets).
+     * Implementations must be quick and must not write to the registry.
+     */
+    public interface Listener {
+        void studentAdded(Student student);
+        // a registered student's average (and so possibly status) changed
+        void studentChanged(Student student);
+        void cleared();
+    }
+
+    private final Object writeLock = new Object();
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final IntObjectMap<Student> index = new IntObjectMap<>();
+
+    private Student[] students = new Student[64];
+    private volatile StudentSnapshot current = new StudentSnapshot(students, 0, 0);
+
+    /**
+     * Register a student.
+     * @throws IllegalArgumentException if a student with the same id exists
+     */
+    @Override
+    public boolean add(Student student) {
+        synchronized (writeLock) {
+            if (index.containsKey(student.getId())) {
+                throw new IllegalArgumentException("Student " + student.getId() + " is already registered");
+            }
+            StudentSnapshot before = current;
+            int size = before.size();
+            if (size == students.length) {
+                // older snapshots keep the old array, which no one writes to again
+                students = Arrays.copyOf(students, size * 2);
+            }
+            students[size] = student;
+            index.put(student.getId(), student);
+            current = new StudentSnapshot(students, size + 1, before.getVersion() + 1);
+            for (Listener listener : listeners) {
+                listener.studentAdded(student);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Register a listener and replay the students already present to it,
+     * so it starts out in step with the registry.
+     */
+    public void addListener(Listener listener) {
+        synchronized (writeLock) {
+            for (Student student : current) {
+                listener.studentAdded(student);
+            }
+            listeners.add(listener);
+        }
+    }
+
+    /**
+     * Tell listeners that a registered student's average grade changed.
+     * Ignored for students that are not (or no longer) registered.
+     */
+    public void notifyChanged(Student student) {
+        synchronized (writeLock) {
+            if (index.get(student.getId()) != student) {
+                return;
+            }
+            for (Listener listener : listeners) {
+                listener.studentChanged(student);
+            }
+        }
+    }
+
+    /**
+     * Student with the given id, or null. Never locks, never allocates.
+     */
+    public Student findById(int id) {
+        return index.get(id);
+    }
+
+    /**
+     * Consistent view of all students registered so far.
+     */
+    public StudentSnapshot snapshot() {
+        return current;
+    }
+
+    public long getVersion() {
+        return current.getVersion();
+    }
+
+    @Override
+    public Student get(int position) {
+        return current.get(position);
+    }
+
+    @Override
+    public int size() {
+        return current.size();
+    }
+
+    @Override
+    public Iterator<Student> iterator() {
+        return current.iterator();
+    }
+
+    @Override
+    public Spliterator<Student> spliterator() {
+        return current.spliterator();
+    }
+
+    @Override
+    public void clear() {
+        synchronized (writeLock) {
+            long version = current.getVersion() + 1;
+            students = new Student[64];
+            index.clear();
+            current = new StudentSnapshot(students, 0, version);
+            for (Listener listener : listeners) {
+                listener.cleared();
+            }
+        }
+    }
+}
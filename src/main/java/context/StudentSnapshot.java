@@ -0,0 +1,45 @@
+package context;
+
+import core.Student;
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * Read-only, point-in-time list of the students in a StudentRegistry.
+ * The registry only ever appends, so a snapshot shares the registry's array
+ * and simply stops at the size it was taken with; students added later are
+ * not visible and iteration can never throw ConcurrentModificationException.
+ * Taking a snapshot is O(1).
+ */
+public class StudentSnapshot extends AbstractList<Student> implements RandomAccess {
+
+    private final Student[] students;
+    private final int size;
+    private final long version;
+
+    StudentSnapshot(Student[] students, int size, long version) {
+        this.students = students;
+        this.size = size;
+        this.version = version;
+    }
+
+    @Override
+    public Student get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of range [0, " + size + ")");
+        }
+        return students[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Registry version this snapshot was taken at; it goes up with every change.
+     */
+    public long getVersion() {
+        return version;
+    }
+}
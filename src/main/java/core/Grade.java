@@ -1,23 +1,61 @@
 package core;
 
 import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * One recorded grade. Kept compact because millions of these are
+ * materialized from GradeStore: the date is held as an epoch day and only
+ * turned into a LocalDate when asked for, and the subject is expected to be
+ * the shared canonical instance from SubjectRegistry.
+ */
 public class Grade {
 
-    private static int gradeCounter = 5000;
+    // Atomic so grades can be created from parallel import threads without duplicate ids
+    private static final AtomicInteger gradeCounter = new AtomicInteger(5000);
 
     private int gradeId;
     private int studentId;
     private Subject subject;
     private double grade;
-    private LocalDate date;
+    private int epochDay;
 
     public Grade(int studentId, Subject subject, double grade) {
-        this.gradeId = gradeCounter++;
+        this.gradeId = gradeCounter.getAndIncrement();
         this.studentId = studentId;
         this.subject = subject;
         this.grade = grade;
-        this.date = LocalDate.now();
+        this.epochDay = (int) LocalDate.now().toEpochDay();
+    }
+
+    // Rebuild a grade that was already recorded (keeps its original id and date)
+    public Grade(int gradeId, int studentId, Subject subject, double grade, LocalDate date) {
+        this(gradeId, studentId, subject, grade, (int) date.toEpochDay());
+    }
+
+    // Same, straight from packed storage without building a LocalDate
+    public Grade(int gradeId, int studentId, Subject subject, double grade, int epochDay) {
+        this.gradeId = gradeId;
+        this.studentId = studentId;
+        this.subject = subject;
+        this.grade = grade;
+        this.epochDay = epochDay;
+    }
+
+    /**
+     * Make sure ids handed out from now on are above the given one,
+     * e.g. after grades with their original ids were restored from disk.
+     */
+    public static void reserveIdsThrough(int gradeId) {
+        gradeCounter.accumulateAndGet(gradeId + 1, Math::max);
+    }
+
+    /**
+     * Hand out count consecutive ids in one step, for grades recorded without
+     * a Grade object (e.g. a parallel import), and return the first.
+     */
+    public static int allocateIds(int count) {
+        return gradeCounter.getAndAdd(count);
     }
 
     public int getGradeId() { return gradeId; }
@@ -28,7 +66,9 @@ public class Grade {
 
     public double getGrade() { return grade; }
 
-    public LocalDate getDate() { return date; }
+    public LocalDate getDate() { return LocalDate.ofEpochDay(epochDay); }
+
+    public int getEpochDay() { return epochDay; }
 
     public String getLetterGrade() {
         if (grade >= 80) return "A";
@@ -44,6 +84,6 @@ public class Grade {
         System.out.println("Subject: " + subject.getSubjectName());
         System.out.println("Numeric Grade: " + grade);
         System.out.println("Letter Grade: " + getLetterGrade());
-        System.out.println("Date: " + date);
+        System.out.println("Date: " + getDate());
     }
 }
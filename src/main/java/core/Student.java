@@ -4,6 +4,7 @@ import context.IStudentInfo;
 import context.IStudentAcademic;
 import context.IStudentEligibility;
 import context.ApplicationContext;
+import java.util.concurrent.atomic.AtomicLong;
 
 public abstract class Student implements IStudentInfo, IStudentAcademic, IStudentEligibility {
     public int id;
@@ -12,7 +13,24 @@ public abstract class Student implements IStudentInfo, IStudentAcademic, IStuden
     public String email;
     public String phone;
     public String status = "Active";
-    public double averageGrade;
+    public volatile double averageGrade;
+
+    // Bumped by GradeManager for every change to this student's grades;
+    // the GPA and subject count below are recomputed only when it moves.
+    private final AtomicLong gradeVersion = new AtomicLong();
+    private volatile GradeSummary cachedSummary;
+
+    private static final class GradeSummary {
+        final long version;
+        final double gpa;
+        final int subjects;
+
+        GradeSummary(long version, double gpa, int subjects) {
+            this.version = version;
+            this.gpa = gpa;
+            this.subjects = subjects;
+        }
+    }
 
     public Student(int id, String name, int age, String email, String phone) {
         this.id = id;
@@ -33,19 +51,33 @@ public abstract class Student implements IStudentInfo, IStudentAcademic, IStuden
     // IStudentAcademic
     public double getAverageGrade() { return averageGrade; }
     public void setAverageGrade(double grade) { this.averageGrade = grade; }
-    public int getEnrolledSubjects() { return ApplicationContext.getInstance().getGradeManager().getSubjectCountForStudent(this.id); }
-    public double computeGPA() {
-        int subjectCount = getEnrolledSubjects();
-        if (subjectCount == 0) return 0.0;
-
-        double totalGPA = 0.0;
-        for (int grade : ApplicationContext.getInstance().getGradeManager().getGradesForStudent(this.id)) {
-            totalGPA += gradeToGPA(grade);
+    public int getEnrolledSubjects() { return summary().subjects; }
+    public double computeGPA() { return summary().gpa; }
+    public void updateAverageGPA() { this.averageGrade = computeGPA(); }
+    public double gradeToGPA(int grade) { return gpaPoints(grade); }
+    public long getGradeVersion() { return gradeVersion.get(); }
+
+    /**
+     * Called whenever a grade of this student is recorded or dropped.
+     */
+    public void markGradesChanged() { gradeVersion.incrementAndGet(); }
+
+    // Cached GPA and subject count, reloaded from the GradeManager after a version change
+    private GradeSummary summary() {
+        long version = gradeVersion.get();
+        GradeSummary cached = cachedSummary;
+        if (cached != null && cached.version == version) {
+            return cached;
         }
-        return totalGPA / subjectCount;
+        // read the version first: a grade added meanwhile leaves this entry stale, not wrong
+        var gradeManager = ApplicationContext.getInstance().getGradeManager();
+        GradeSummary fresh = new GradeSummary(version, gradeManager.calculateGPA(this.id),
+                gradeManager.getSubjectCountForStudent(this.id));
+        cachedSummary = fresh;
+        return fresh;
     }
-    public void updateAverageGPA() { this.averageGrade = computeGPA(); }
-    public double gradeToGPA(int grade) {
+
+    public static double gpaPoints(int grade) {
         if (grade >= 80) return 4.0;
         if (grade >= 70) return 3.0;
         if (grade >= 60) return 2.0;
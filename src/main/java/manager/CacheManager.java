@@ -1,24 +1,64 @@
 package manager;
 
 import core.Student;
-import java.io.ByteArrayOutputStream;
-import java.io.ObjectOutputStream;
+import storage.FrequencySketch;
 import java.io.Serializable;
-import java.time.Instant;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 /**
- * Thread-safe generic cache with LRU eviction and background refresh.
+ * Thread-safe generic cache with size-bounded eviction, per-prefix expiry
+ * and refresh-ahead (see setPolicy).
+ *
+ * Capacity is a byte budget. Each entry is weighed once when it is put (see
+ * estimateBytes) and the policy evicts until the total weight fits, so one
+ * large report costs as much room as the many small entries it displaces.
+ *
+ * Eviction follows W-TinyLFU. New entries go into a small LRU window (1% of
+ * capacity); entries pushed out of the window compete for the main space,
+ * split into a probation and a protected LRU segment (80% protected); the
+ * shares are of the budget, not of the entry count. A window entry only
+ * displaces probation victims if a frequency sketch has seen it more often
+ * recently than each of them, so a one-off scan (a search that walks
+ * every student, a report over the whole registry) cannot flush the hot set.
+ * A hit on a probation entry promotes it to protected.
+ *
+ * The segments are intrusive doubly-linked lists, so every policy step is
+ * O(1). They are guarded by one lock that readers never wait for: a hit is
+ * recorded into a small striped ring buffer and the buffers are replayed in
+ * batches by whichever thread gets the lock (lossy: when a stripe is full
+ * the access is dropped, which only makes the recency order approximate).
+ * Adds and removals go through a queue that is always replayed in full.
+ * Entries can be put under tags (e.g. studentTag(id)); a reverse index from
+ * tag to entries makes invalidateTag cost only the entries it removes.
+ * Big-O: get -> O(1) expected; put / invalidate -> O(1) amortized;
+ * invalidateTag -> O(entries with the tag).
  */
 public class CacheManager {
 
@@ -26,11 +66,51 @@ public class CacheManager {
 
     public static CacheManager getInstance() { return INSTANCE; }
 
-    public static final int DEFAULT_MAX_ENTRIES = 150;
+    public static final String MAX_BYTES_PROPERTY = "cache.maxBytes";
+    public static final long DEFAULT_MAX_BYTES = 4L << 20;
+
+    // How long getOrLoad remembers that a key has no value; 0 turns it off
+    public static final String NEGATIVE_MILLIS_PROPERTY = "cache.negativeMillis";
+    public static final long DEFAULT_NEGATIVE_MILLIS = 1000;
+    private static final int MAX_MISSING_KEYS = 10_000;
+
+    private static final int REFRESH_THREADS = 2;
+    private static final int REFRESH_QUEUE = 256;
+
+    // Map node, entry object and policy links, on top of key and value
+    private static final int ENTRY_OVERHEAD = 96;
+    // Typical weight, used only for the first size of the frequency sketch
+    private static final int AVERAGE_ENTRY_BYTES = 512;
+
+    /**
+     * Estimated bytes an entry occupies; computed once per put.
+     */
+    @FunctionalInterface
+    public interface Weigher {
+        int weigh(String key, Object value);
+    }
+
+    private static final int WINDOW_PERCENT = 1;
+    private static final int PROTECTED_PERCENT = 80;
 
     private final ConcurrentHashMap<String, CacheEntry> map = new ConcurrentHashMap<>();
-    private final ConcurrentLinkedDeque<String> accessOrder = new ConcurrentLinkedDeque<>();
-    private final int maxEntries;
+    private final long maxBytes;
+    private final Weigher weigher;
+    // total weight of linked entries, written under evictionLock
+    private final AtomicLong weightedSize = new AtomicLong();
+
+    // Eviction policy, guarded by evictionLock
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private final AccessQueue window = new AccessQueue();
+    private final AccessQueue probation = new AccessQueue();
+    private final AccessQueue protectedQueue = new AccessQueue();
+    private final FrequencySketch sketch;
+    private final long windowMax;
+    private final long mainMax;
+    private final long protectedMax;
+
+    private final ReadBuffer readBuffer = new ReadBuffer();
+    private final ConcurrentLinkedQueue<Runnable> writeBuffer = new ConcurrentLinkedQueue<>();
 
     // Stats
     private final AtomicLong hits = new AtomicLong();
@@ -38,39 +118,307 @@ public class CacheManager {
     private final AtomicLong totalHitTimeNs = new AtomicLong();
     private final AtomicLong totalMissTimeNs = new AtomicLong();
     private final AtomicLong evictionCount = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong coalescedLoads = new AtomicLong();
+    private final AtomicLong negativeHits = new AtomicLong();
+
+    // Entries by tag, so invalidating a tag only touches its own entries
+    private final ConcurrentHashMap<String, Set<CacheEntry>> tagIndex = new ConcurrentHashMap<>();
+    private static final String[] NO_TAGS = new String[0];
+    // Invalidations per tag stripe, for loads that finish after one
+    private static final int TAG_STRIPES = 64;
+    private final AtomicLongArray tagGenerations = new AtomicLongArray(TAG_STRIPES);
+
+    // Loads in progress, so concurrent misses on a key share one
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    // Keys whose load found nothing, with the time the answer expires
+    private final ConcurrentHashMap<String, Long> missing = new ConcurrentHashMap<>();
+    private final long negativeMillis = Long.getLong(NEGATIVE_MILLIS_PROPERTY, DEFAULT_NEGATIVE_MILLIS);
+
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+    private final AtomicLong refreshesDropped = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+    private volatile String lastRefreshError;
+
+    // Refresher and lifetimes for keys with a given prefix
+    private static final class Group {
+        final String prefix;
+        volatile Function<String, Object> refresher;
+        volatile long expireMillis;
+        volatile long refreshMillis;
+
+        Group(String prefix) {
+            this.prefix = prefix;
+        }
+    }
 
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
-        Thread t = new Thread(r, "cache-refresher");
-        t.setDaemon(true);
-        return t;
-    });
+    private final ConcurrentHashMap<String, Group> groups = new ConcurrentHashMap<>();
 
-    // registered refreshers by key prefix
-    private final ConcurrentHashMap<String, Function<String, Object>> refreshers = new ConcurrentHashMap<>();
+    /**
+     * Periodic expiry sweep of one cache. All caches share one daemon
+     * thread, and each sweep holds its cache only weakly, so a cache that is
+     * no longer used is collected and its sweep cancels itself.
+     */
+    private static final class ExpirySweep implements Runnable {
+        private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cache-expiry");
+            t.setDaemon(true);
+            return t;
+        });
 
-    private CacheManager() { this(DEFAULT_MAX_ENTRIES); }
+        private final WeakReference<CacheManager> cache;
+        private volatile ScheduledFuture<?> future;
 
-    private CacheManager(int maxEntries) {
-        this.maxEntries = maxEntries;
-        // refresh stale entries every 5 minutes
-        scheduler.scheduleAtFixedRate(this::refreshStaleEntries, 5, 5, TimeUnit.MINUTES);
+        private ExpirySweep(CacheManager cache) {
+            this.cache = new WeakReference<>(cache);
+        }
+
+        static void start(CacheManager cache) {
+            ExpirySweep sweep = new ExpirySweep(cache);
+            sweep.future = SCHEDULER.scheduleAtFixedRate(sweep, 1, 1, TimeUnit.MINUTES);
+        }
+
+        @Override
+        public void run() {
+            CacheManager target = cache.get();
+            if (target != null) {
+                target.expireEntries();
+            } else if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    // Bounded, so a burst of due refreshes is dropped rather than queued without limit
+    private final ThreadPoolExecutor refreshPool;
+    // set once the expiry sweep is scheduled, by the first policy with an expiry
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private CacheManager() { this(Long.getLong(MAX_BYTES_PROPERTY, DEFAULT_MAX_BYTES)); }
+
+    /**
+     * A separate cache of at most maxBytes, weighing entries with
+     * estimateBytes; the application shares getInstance().
+     */
+    public CacheManager(long maxBytes) {
+        this(maxBytes, CacheManager::estimateBytes);
+    }
+
+    public CacheManager(long maxBytes, Weigher weigher) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Cache capacity must be positive: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        this.weigher = weigher;
+        this.windowMax = Math.max(1, maxBytes * WINDOW_PERCENT / 100);
+        this.mainMax = maxBytes - windowMax;
+        this.protectedMax = mainMax * PROTECTED_PERCENT / 100;
+        this.sketch = new FrequencySketch((int) Math.min(1 << 20, Math.max(16, maxBytes / AVERAGE_ENTRY_BYTES)));
+        AtomicInteger refreshThreads = new AtomicInteger();
+        this.refreshPool = new ThreadPoolExecutor(REFRESH_THREADS, REFRESH_THREADS, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(REFRESH_QUEUE), r -> {
+                    Thread t = new Thread(r, "cache-refresh-" + refreshThreads.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        refreshPool.allowCoreThreadTimeOut(true);
     }
 
-    private static class CacheEntry implements Serializable {
-        Object value;
-        long createdAt;
-        long lastAccessAt;
-        long accessCount;
+    // Which policy list an entry is on
+    private static final int UNLINKED = 0;
+    private static final int WINDOW = 1;
+    private static final int PROBATION = 2;
+    private static final int PROTECTED = 3;
 
-        CacheEntry(Object value) {
+    private static class CacheEntry {
+        final String key;
+        final int hash;
+        volatile Object value;
+        volatile long createdAt;
+        volatile long lastAccessAt;
+        volatile long accessCount;
+        // set once the entry has left the map; it is never linked again
+        volatile boolean retired;
+        // expiry and refresh settings for the key, resolved at put
+        volatile Group group;
+        // after a failed refresh, when to try again
+        volatile long refreshRetryAt;
+        // tags the entry is indexed under; replaced inside the map's compute
+        volatile String[] tags = NO_TAGS;
+
+        // weight of the current value, set when the write is replayed
+        volatile int pendingWeight;
+
+        // guarded by evictionLock
+        CacheEntry prev;
+        CacheEntry next;
+        int queue = UNLINKED;
+        int weight;
+
+        CacheEntry(String key, Object value, int weight) {
+            this.key = key;
+            this.hash = key.hashCode();
             this.value = value;
-            long now = Instant.now().toEpochMilli();
+            this.pendingWeight = weight;
+            long now = System.currentTimeMillis();
             this.createdAt = now;
             this.lastAccessAt = now;
             this.accessCount = 0;
         }
     }
 
+    // LRU list over CacheEntry links: head is the eviction end
+    private static final class AccessQueue {
+        CacheEntry head;
+        CacheEntry tail;
+        long weight;
+
+        void addLast(CacheEntry e, int queue) {
+            e.queue = queue;
+            e.prev = tail;
+            e.next = null;
+            if (tail == null) {
+                head = e;
+            } else {
+                tail.next = e;
+            }
+            tail = e;
+            weight += e.weight;
+        }
+
+        void remove(CacheEntry e) {
+            if (e.prev == null) {
+                head = e.next;
+            } else {
+                e.prev.next = e.next;
+            }
+            if (e.next == null) {
+                tail = e.prev;
+            } else {
+                e.next.prev = e.prev;
+            }
+            e.prev = null;
+            e.next = null;
+            e.queue = UNLINKED;
+            weight -= e.weight;
+        }
+
+        void moveToBack(CacheEntry e) {
+            if (e != tail) {
+                int queue = e.queue;
+                remove(e);
+                addLast(e, queue);
+            }
+        }
+
+        CacheEntry pollFirst() {
+            CacheEntry e = head;
+            if (e != null) {
+                remove(e);
+            }
+            return e;
+        }
+
+        void clear() {
+            for (CacheEntry e = head; e != null; ) {
+                CacheEntry next = e.next;
+                e.prev = null;
+                e.next = null;
+                e.queue = UNLINKED;
+                e = next;
+            }
+            head = null;
+            tail = null;
+            weight = 0;
+        }
+    }
+
+    /**
+     * Striped ring buffers of recent hits. Each stripe is written by CAS on
+     * its write counter and read only under evictionLock; a full stripe
+     * drops the access rather than making the reader wait.
+     */
+    private static final class ReadBuffer {
+        static final int STRIPE_SIZE = 16;
+        static final int STRIPE_MASK = STRIPE_SIZE - 1;
+
+        // One ring and the count of slots claimed in it
+        private static final class ReadStripe {
+            final AtomicReferenceArray<CacheEntry> ring = new AtomicReferenceArray<>(STRIPE_SIZE);
+            final AtomicLong writes = new AtomicLong();
+        }
+
+        private final ReadStripe[] stripes;
+        private final long[] reads;
+        private final int stripeMask;
+
+        ReadBuffer() {
+            int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 4 - 1)) << 1;
+            count = Math.min(count, 64);
+            this.stripes = new ReadStripe[count];
+            this.reads = new long[count];
+            for (int i = 0; i < count; i++) {
+                stripes[i] = new ReadStripe();
+            }
+            this.stripeMask = count - 1;
+        }
+
+        /**
+         * @return true if the stripe is full and should be drained
+         */
+        boolean offer(CacheEntry e) {
+            int stripe = (int) mix(Thread.currentThread().threadId()) & stripeMask;
+            ReadStripe target = stripes[stripe];
+            AtomicLong counter = target.writes;
+            long w = counter.get();
+            long pending = w - readsOf(stripe);
+            if (pending >= STRIPE_SIZE) {
+                return true;
+            }
+            if (counter.compareAndSet(w, w + 1)) {
+                target.ring.lazySet((int) (w & STRIPE_MASK), e);
+                return pending + 1 >= STRIPE_SIZE;
+            }
+            return false;
+        }
+
+        // Caller holds evictionLock
+        void drainTo(Consumer<CacheEntry> consumer) {
+            for (int stripe = 0; stripe < reads.length; stripe++) {
+                long r = reads[stripe];
+                long w = stripes[stripe].writes.get();
+                AtomicReferenceArray<CacheEntry> ring = stripes[stripe].ring;
+                while (r < w) {
+                    int index = (int) (r & STRIPE_MASK);
+                    CacheEntry e = ring.get(index);
+                    if (e == null) {
+                        break; // claimed but not yet published
+                    }
+                    ring.lazySet(index, null);
+                    consumer.accept(e);
+                    r++;
+                }
+                setReads(stripe, r);
+            }
+        }
+
+        private long readsOf(int stripe) {
+            return (long) READS.getVolatile(reads, stripe);
+        }
+
+        private void setReads(int stripe, long value) {
+            READS.setRelease(reads, stripe, value);
+        }
+
+        private static long mix(long x) {
+            x = (x ^ (x >>> 33)) * 0xff51afd7ed558ccdL;
+            return x ^ (x >>> 33);
+        }
+
+        private static final VarHandle READS = MethodHandles.arrayElementVarHandle(long[].class);
+    }
+
     public Object get(String key) {
         long start = System.nanoTime();
         CacheEntry e = map.get(key);
@@ -79,47 +427,224 @@ public class CacheManager {
             totalMissTimeNs.addAndGet(System.nanoTime() - start);
             return null;
         }
-        // update access metadata
-        e.lastAccessAt = Instant.now().toEpochMilli();
+        long now = System.currentTimeMillis();
+        Group group = e.group;
+        if (group != null) {
+            long age = now - e.createdAt;
+            if (group.expireMillis > 0 && age >= group.expireMillis) {
+                expire(e);
+                misses.incrementAndGet();
+                totalMissTimeNs.addAndGet(System.nanoTime() - start);
+                return null;
+            }
+            Function<String, Object> refresher = group.refresher;
+            if (group.refreshMillis > 0 && age >= group.refreshMillis && refresher != null
+                    && now >= e.refreshRetryAt) {
+                refreshAhead(e, refresher);
+            }
+        }
+        // update access metadata; the policy sees the hit when the buffer drains
+        e.lastAccessAt = now;
         e.accessCount++;
-        // move to tail
-        accessOrder.remove(key);
-        accessOrder.addLast(key);
+        if (readBuffer.offer(e)) {
+            tryDrain();
+        }
         hits.incrementAndGet();
         totalHitTimeNs.addAndGet(System.nanoTime() - start);
         return e.value;
     }
 
-    public void put(String key, Object value) {
-        CacheEntry entry = new CacheEntry(value);
-        map.put(key, entry);
-        accessOrder.remove(key);
-        accessOrder.addLast(key);
-        // evict if needed
-        while (map.size() > maxEntries) {
-            String oldest = accessOrder.pollFirst();
-            if (oldest == null) break;
-            map.remove(oldest);
-            evictionCount.incrementAndGet();
+    /**
+     * Cache the value under key and the given tags (see invalidateTag).
+     * Replacing a value keeps the tags the entry already had.
+     */
+    public void put(String key, Object value, String... tags) {
+        // a load still running for this key would overwrite newer data
+        inFlight.remove(key);
+        store(key, value, tags);
+    }
+
+    private void store(String key, Object value, String[] tags) {
+        if (!missing.isEmpty()) {
+            missing.remove(key);
+        }
+        int weight = Math.max(1, weigher.weigh(key, value));
+        Group group = groups.isEmpty() ? null : resolveGroup(key);
+        CacheEntry[] added = new CacheEntry[1];
+        // tagged inside compute, so invalidateTag either sees the entry or ran before it existed
+        CacheEntry entry = map.compute(key, (k, old) -> {
+            if (old != null) {
+                old.value = value;
+                old.pendingWeight = weight;
+                old.group = group;
+                old.createdAt = System.currentTimeMillis();
+                addTags(old, tags);
+                return old;
+            }
+            added[0] = new CacheEntry(k, value, weight);
+            added[0].group = group;
+            String namespace = namespaceOf(k);
+            if (namespace != null) {
+                addTags(added[0], new String[] {namespace});
+            }
+            addTags(added[0], tags);
+            return added[0];
+        });
+        if (added[0] != null) {
+            afterWrite(() -> onAdd(entry));
+        } else {
+            afterWrite(() -> onUpdate(entry));
         }
     }
 
-    public Object getOrLoad(String key, Function<String, Object> loader) {
+    /**
+     * The cached value, or the loader's result for it. Concurrent misses on
+     * one key share a single load: the first caller runs the loader and the
+     * others wait for its future, so an expensive aggregation runs once and
+     * its result is put once. A loader failure reaches every waiter.
+     *
+     * A null result is remembered for the negative-cache window (see
+     * NEGATIVE_MILLIS_PROPERTY) so repeated lookups of a missing key do not
+     * rerun the loader; put or invalidate ends the window early.
+     */
+    public Object getOrLoad(String key, Function<String, Object> loader, String... tags) {
         Object v = get(key);
         if (v != null) return v;
-        long start = System.nanoTime();
-        Object loaded = loader.apply(key);
-        totalMissTimeNs.addAndGet(System.nanoTime() - start);
-        if (loaded != null) put(key, loaded);
-        return loaded;
+        if (isKnownMissing(key)) return null;
+
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, load);
+        if (running != null) {
+            coalescedLoads.incrementAndGet();
+            return await(running);
+        }
+        try {
+            // another load may have finished between the miss and the claim
+            CacheEntry e = map.get(key);
+            Object loaded;
+            if (e != null) {
+                loaded = e.value;
+            } else {
+                long stamp = tagStamp(tags);
+                long start = System.nanoTime();
+                loaded = loader.apply(key);
+                totalMissTimeNs.addAndGet(System.nanoTime() - start);
+                loads.incrementAndGet();
+                publish(key, load, loaded, tags, stamp);
+            }
+            load.complete(loaded);
+            return loaded;
+        } catch (RuntimeException | Error ex) {
+            load.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    // Store the result unless the key was put or invalidated while it
+    // loaded (both drop the in-flight future under the same bin lock) or
+    // one of its tags was invalidated (the tag stamp moved)
+    private void publish(String key, CompletableFuture<Object> load, Object loaded, String[] tags, long stamp) {
+        inFlight.computeIfPresent(key, (k, running) -> {
+            if (running == load && tagStamp(tags) == stamp) {
+                if (loaded != null) {
+                    store(key, loaded, tags);
+                } else {
+                    // a refresh that finds nothing drops the old value too
+                    removeEntry(key);
+                    rememberMissing(key);
+                }
+            }
+            return running;
+        });
+    }
+
+    private static Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw ex;
+        }
+    }
+
+    private boolean isKnownMissing(String key) {
+        if (negativeMillis <= 0 || missing.isEmpty()) {
+            return false;
+        }
+        Long until = missing.get(key);
+        if (until == null) {
+            return false;
+        }
+        if (until > System.currentTimeMillis()) {
+            negativeHits.incrementAndGet();
+            return true;
+        }
+        missing.remove(key, until);
+        return false;
+    }
+
+    private void rememberMissing(String key) {
+        if (negativeMillis <= 0) {
+            return;
+        }
+        // entries only live for the window, so dropping them all is cheap
+        if (missing.size() >= MAX_MISSING_KEYS) {
+            missing.clear();
+        }
+        missing.put(key, System.currentTimeMillis() + negativeMillis);
     }
 
     public void invalidate(String key) {
-        map.remove(key);
-        accessOrder.remove(key);
+        inFlight.remove(key);
+        if (!missing.isEmpty()) {
+            missing.remove(key);
+        }
+        removeEntry(key);
     }
 
+    private void removeEntry(String key) {
+        CacheEntry e = map.remove(key);
+        if (e != null) {
+            retire(e);
+            afterWrite(() -> onRemove(e));
+        }
+    }
+
+    /**
+     * Remove every entry put under the tag, e.g. studentTag(id) for all
+     * cached data about one student.
+     * Big-O: O(entries with the tag); O(1) when there are none.
+     */
+    public void invalidateTag(String tag) {
+        // first, so loads of untagged-yet keys started before now are not stored
+        tagGenerations.incrementAndGet(tagStripe(tag));
+        Set<CacheEntry> tagged = tagIndex.remove(tag);
+        if (tagged == null) {
+            return;
+        }
+        for (CacheEntry e : tagged) {
+            inFlight.remove(e.key);
+            if (map.remove(e.key, e)) {
+                retire(e);
+                afterWrite(() -> onRemove(e));
+            }
+        }
+    }
+
+    /**
+     * Every key is tagged with its namespace (the text up to and including
+     * its first ':'), so a namespace prefix like "report:" costs
+     * O(entries removed); any other prefix scans the keys.
+     */
     public void invalidateByPrefix(String prefix) {
+        if (prefix.indexOf(':') == prefix.length() - 1) {
+            invalidateTag(prefix);
+            return;
+        }
         Set<String> keys = map.keySet();
         for (String k : keys) {
             if (k.startsWith(prefix)) {
@@ -128,45 +653,416 @@ public class CacheManager {
         }
     }
 
+    /**
+     * The tag for everything cached about one student.
+     */
+    public static String studentTag(int studentId) {
+        return "student:" + studentId;
+    }
+
+    public int getTagCount() { return tagIndex.size(); }
+
+    // Sum of the invalidation counts of the tags' stripes; only ever grows
+    private long tagStamp(String[] tags) {
+        long stamp = 0;
+        if (tags != null) {
+            for (String tag : tags) {
+                stamp += tagGenerations.get(tagStripe(tag));
+            }
+        }
+        return stamp;
+    }
+
+    private static int tagStripe(String tag) {
+        int h = tag.hashCode();
+        return (h ^ (h >>> 16)) & (TAG_STRIPES - 1);
+    }
+
+    private static String namespaceOf(String key) {
+        int colon = key.indexOf(':');
+        return colon < 0 ? null : key.substring(0, colon + 1);
+    }
+
+    // Called inside the map's compute for the entry's key
+    private void addTags(CacheEntry e, String[] tags) {
+        if (tags == null || tags.length == 0) {
+            return;
+        }
+        String[] current = e.tags;
+        List<String> merged = new ArrayList<>(List.of(current));
+        for (String tag : tags) {
+            if (!merged.contains(tag)) {
+                merged.add(tag);
+                tagIndex.compute(tag, (t, set) -> {
+                    if (set == null) {
+                        set = ConcurrentHashMap.newKeySet();
+                    }
+                    set.add(e);
+                    return set;
+                });
+            }
+        }
+        e.tags = merged.toArray(new String[0]);
+    }
+
+    // The entry has left the map: drop it from its tags, and empty tags with it
+    private void retire(CacheEntry e) {
+        e.retired = true;
+        for (String tag : e.tags) {
+            tagIndex.computeIfPresent(tag, (t, set) -> {
+                set.remove(e);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
     public void clear() {
-        map.clear();
-        accessOrder.clear();
+        evictionLock.lock();
+        try {
+            drainBuffers();
+            inFlight.clear();
+            missing.clear();
+            tagIndex.clear();
+            for (CacheEntry e : map.values()) {
+                e.retired = true;
+            }
+            map.clear();
+            window.clear();
+            probation.clear();
+            protectedQueue.clear();
+            weightedSize.set(0);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    public int size() { return map.size(); }
+
+    public long getEvictionCount() { return evictionCount.get(); }
+
+    public long getLoadCount() { return loads.get(); }
+
+    public long getCoalescedLoadCount() { return coalescedLoads.get(); }
+
+    /**
+     * Estimated bytes held by the cache, kept as a running total.
+     */
+    public long getWeightedSize() { return weightedSize.get(); }
+
+    public long getMaxBytes() { return maxBytes; }
+
+    /**
+     * The default weigher: a rough heap footprint of the entry, key and
+     * value from their shapes (string lengths, list sizes) rather than by
+     * serializing them. Unknown types count as 256 bytes.
+     */
+    public static int estimateBytes(String key, Object value) {
+        return ENTRY_OVERHEAD + stringBytes(key) + valueBytes(value);
+    }
+
+    private static int valueBytes(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String) {
+            return stringBytes((String) value);
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return 16;
+        }
+        if (value instanceof Student) {
+            Student s = (Student) value;
+            return 96 + stringBytes(s.getName()) + stringBytes(s.getEmail()) + stringBytes(s.getPhone());
+        }
+        if (value instanceof CacheReport) {
+            CacheReport report = (CacheReport) value;
+            return 32 + listBytes(report.grades == null ? 0 : report.grades.size());
+        }
+        if (value instanceof Collection) {
+            return listBytes(((Collection<?>) value).size());
+        }
+        return 256;
+    }
+
+    private static int stringBytes(String s) {
+        return s == null ? 0 : 40 + 2 * s.length();
+    }
+
+    // ArrayList of boxed values: header and array plus ~20 bytes per element
+    private static int listBytes(int size) {
+        return 40 + 20 * size;
+    }
+
+    /**
+     * Replay pending accesses and writes into the eviction policy now
+     * instead of on a later cache operation.
+     */
+    public void cleanUp() {
+        evictionLock.lock();
+        try {
+            drainBuffers();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    // ==================== Eviction policy ====================
+
+    // Writes must reach the policy, so they wait for the lock
+    private void afterWrite(Runnable task) {
+        writeBuffer.add(task);
+        evictionLock.lock();
+        try {
+            drainBuffers();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    // Reads may skip the drain when another thread is already doing it
+    private void tryDrain() {
+        if (evictionLock.tryLock()) {
+            try {
+                drainBuffers();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+
+    private void drainBuffers() {
+        readBuffer.drainTo(this::onAccess);
+        Runnable task;
+        while ((task = writeBuffer.poll()) != null) {
+            task.run();
+        }
+    }
+
+    private void onAdd(CacheEntry e) {
+        if (e.retired) {
+            return; // removed before its add was replayed
+        }
+        e.weight = e.pendingWeight;
+        sketch.ensureCapacity(map.size());
+        sketch.increment(e.hash);
+        window.addLast(e, WINDOW);
+        weightedSize.addAndGet(e.weight);
+        evictEntries();
+    }
+
+    // A put that replaced the value: charge the new weight and count a hit
+    private void onUpdate(CacheEntry e) {
+        int weight = e.pendingWeight;
+        if (e.retired || e.queue == UNLINKED || weight == e.weight) {
+            onAccess(e);
+            return;
+        }
+        AccessQueue queue = queueOf(e);
+        queue.weight += weight - e.weight;
+        weightedSize.addAndGet(weight - e.weight);
+        e.weight = weight;
+        onAccess(e);
+        evictEntries();
+    }
+
+    private void onRemove(CacheEntry e) {
+        if (e.queue != UNLINKED) {
+            unlink(e);
+            weightedSize.addAndGet(-e.weight);
+        }
+    }
+
+    private void onAccess(CacheEntry e) {
+        if (e.retired || e.queue == UNLINKED) {
+            return;
+        }
+        sketch.increment(e.hash);
+        switch (e.queue) {
+            case WINDOW:
+                window.moveToBack(e);
+                break;
+            case PROBATION:
+                probation.remove(e);
+                protectedQueue.addLast(e, PROTECTED);
+                // keep protected within its share by demoting its LRU end
+                while (protectedQueue.weight > protectedMax) {
+                    probation.addLast(protectedQueue.pollFirst(), PROBATION);
+                }
+                break;
+            case PROTECTED:
+                protectedQueue.moveToBack(e);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Move window overflow into the main space. While the candidate from the
+     * window does not fit, it is compared with the probation victim by
+     * estimated frequency and the less popular one is evicted.
+     */
+    private void evictEntries() {
+        while (window.weight > windowMax) {
+            CacheEntry candidate = window.pollFirst();
+            boolean admit = true;
+            while (probation.weight + protectedQueue.weight + candidate.weight > mainMax) {
+                CacheEntry victim = probation.head != null ? probation.head : protectedQueue.head;
+                if (victim == null || sketch.frequency(candidate.hash) <= sketch.frequency(victim.hash)) {
+                    admit = false;
+                    break;
+                }
+                evict(victim);
+            }
+            if (admit) {
+                probation.addLast(candidate, PROBATION);
+            } else {
+                evict(candidate);
+            }
+        }
+        // a value that grew in place can push the main space over budget
+        while (probation.weight + protectedQueue.weight > mainMax) {
+            evict(probation.head != null ? probation.head : protectedQueue.head);
+        }
     }
 
+    private void evict(CacheEntry e) {
+        unlink(e);
+        weightedSize.addAndGet(-e.weight);
+        if (map.remove(e.key, e)) {
+            evictionCount.incrementAndGet();
+            retire(e);
+        }
+        e.retired = true;
+    }
+
+    private void unlink(CacheEntry e) {
+        AccessQueue queue = queueOf(e);
+        if (queue != null) {
+            queue.remove(e);
+        }
+    }
+
+    private AccessQueue queueOf(CacheEntry e) {
+        switch (e.queue) {
+            case WINDOW:
+                return window;
+            case PROBATION:
+                return probation;
+            case PROTECTED:
+                return protectedQueue;
+            default:
+                return null;
+        }
+    }
+
+    // ==================== Expiry and refresh ====================
+
+    /**
+     * Register how to reload keys starting with keyPrefix. Entries are only
+     * reloaded once the prefix has a refresh interval (see setPolicy).
+     */
     public void registerRefresher(String keyPrefix, Function<String, Object> refresher) {
-        refreshers.put(keyPrefix, refresher);
+        groupFor(keyPrefix).refresher = refresher;
+    }
+
+    /**
+     * Lifetimes for keys starting with keyPrefix, counted from the last put
+     * or refresh (null means never). An entry read after refreshAfterWrite
+     * is reloaded in the background while readers keep getting the current
+     * value; one not read again before expireAfterWrite is dropped. So hot
+     * entries stay fresh without a reader ever waiting, and cold ones leave.
+     * Applies to entries put from now on.
+     */
+    public void setPolicy(String keyPrefix, Duration expireAfterWrite, Duration refreshAfterWrite) {
+        Group group = groupFor(keyPrefix);
+        group.expireMillis = expireAfterWrite == null ? 0 : expireAfterWrite.toMillis();
+        group.refreshMillis = refreshAfterWrite == null ? 0 : refreshAfterWrite.toMillis();
+        // drop expired entries that are no longer read; only caches with an expiry sweep
+        if (group.expireMillis > 0 && !sweeping.get() && sweeping.compareAndSet(false, true)) {
+            ExpirySweep.start(this);
+        }
+    }
+
+    private Group groupFor(String keyPrefix) {
+        return groups.computeIfAbsent(keyPrefix, Group::new);
     }
 
-    private void refreshStaleEntries() {
-        long now = Instant.now().toEpochMilli();
-        long staleThreshold = TimeUnit.MINUTES.toMillis(10); // entries older than 10 minutes
+    // The group whose prefix the key starts with; looked up once per put
+    private Group resolveGroup(String key) {
+        for (Group group : groups.values()) {
+            if (key.startsWith(group.prefix)) {
+                return group;
+            }
+        }
+        return null;
+    }
+
+    // Hand the entry's reload to the refresh pool unless one is running
+    private void refreshAhead(CacheEntry e, Function<String, Object> refresher) {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(e.key, load) != null) {
+            return;
+        }
         try {
-            for (Map.Entry<String, CacheEntry> e : map.entrySet()) {
-                String key = e.getKey();
-                CacheEntry entry = e.getValue();
-                if (now - entry.lastAccessAt > staleThreshold) {
-                    // find a refresher by prefix
-                    for (Map.Entry<String, Function<String, Object>> r : refreshers.entrySet()) {
-                        String prefix = r.getKey();
-                        if (key.startsWith(prefix)) {
-                            try {
-                                Object refreshed = r.getValue().apply(key);
-                                if (refreshed != null) {
-                                    put(key, refreshed);
-                                }
-                            } catch (Exception ex) {
-                                // ignore individual refresh failures
-                            }
-                            break;
-                        }
-                    }
+            refreshPool.execute(() -> refresh(e, refresher, load));
+        } catch (RejectedExecutionException ex) {
+            // pool saturated: keep serving the current value and retry on a later read
+            refreshesDropped.incrementAndGet();
+            inFlight.remove(e.key, load);
+            load.complete(e.value);
+        }
+    }
+
+    private void refresh(CacheEntry e, Function<String, Object> refresher, CompletableFuture<Object> load) {
+        String key = e.key;
+        try {
+            Object refreshed = refresher.apply(key);
+            refreshes.incrementAndGet();
+            publish(key, load, refreshed, null, 0);
+            load.complete(refreshed);
+        } catch (RuntimeException ex) {
+            refreshFailures.incrementAndGet();
+            lastRefreshError = key + ": " + ex;
+            System.err.println("Cache refresh failed for " + key + ": " + ex.getMessage());
+            // serve the current value until it expires; retry one interval later
+            Group group = e.group;
+            e.refreshRetryAt = System.currentTimeMillis() + (group == null ? 0 : group.refreshMillis);
+            load.completeExceptionally(ex);
+        } finally {
+            inFlight.remove(key, load);
+        }
+    }
+
+    // Drop the entry if it is still the one that expired
+    private void expire(CacheEntry e) {
+        if (map.remove(e.key, e)) {
+            retire(e);
+            expirations.incrementAndGet();
+            afterWrite(() -> onRemove(e));
+        }
+    }
+
+    // Background sweep for expired entries nobody reads any more
+    private void expireEntries() {
+        try {
+            long now = System.currentTimeMillis();
+            for (CacheEntry e : map.values()) {
+                Group group = e.group;
+                if (group != null && group.expireMillis > 0 && now - e.createdAt >= group.expireMillis) {
+                    expire(e);
                 }
             }
-        } catch (Exception ex) {
-            // swallow to keep scheduler alive
+        } catch (RuntimeException ex) {
+            // a periodic task that throws is never run again, so report and carry on
+            System.err.println("Cache expiry sweep failed: " + ex);
         }
     }
 
+    public long getRefreshCount() { return refreshes.get(); }
+
+    public long getRefreshFailureCount() { return refreshFailures.get(); }
+
     // Stats display
     public void displayStats() {
         long h = hits.get();
@@ -184,26 +1080,14 @@ public class CacheManager {
         System.out.println("Average Miss Time: " + String.format("%.2f ms", avgMissNs / 1_000_000.0));
         System.out.println("Total Entries: " + map.size());
         System.out.println("Eviction Count: " + evictionCount.get());
-        System.out.println("Approx Memory Usage: " + approximateMemoryUsage() + " bytes");
-    }
-
-    private long approximateMemoryUsage() {
-        long total = 0;
-        for (Map.Entry<String, CacheEntry> e : map.entrySet()) {
-            Object v = e.getValue().value;
-            if (v instanceof Serializable) {
-                try (ByteArrayOutputStream bos = new ByteArrayOutputStream(); ObjectOutputStream oos = new ObjectOutputStream(bos)) {
-                    oos.writeObject(v);
-                    oos.flush();
-                    total += bos.size();
-                } catch (Exception ex) {
-                    total += 1024; // fallback 1KB
-                }
-            } else {
-                total += 1024; // fallback
-            }
+        System.out.println("Refreshes: " + refreshes.get() + " (" + refreshFailures.get() + " failed, "
+                + refreshesDropped.get() + " dropped), Expired: " + expirations.get());
+        if (lastRefreshError != null) {
+            System.out.println("Last Refresh Error: " + lastRefreshError);
         }
-        return total;
+        System.out.println("Loads: " + loads.get() + " (" + coalescedLoads.get() + " coalesced, "
+                + negativeHits.get() + " answered by the negative cache)");
+        System.out.println("Approx Memory Usage: " + weightedSize.get() + " of " + maxBytes + " bytes");
     }
 
     public void displayContents() {
@@ -223,11 +1107,12 @@ public class CacheManager {
         for (Student s : students) {
             if (count++ >= limit) break;
             String sk = "student:" + s.getId();
-            put(sk, s);
+            String tag = studentTag(s.getId());
+            put(sk, s, tag);
             String rk = "report:" + s.getId();
             // create a lightweight report object
             CacheReport rep = new CacheReport(s.getId(), gradeManager.getGradesForStudent(s.getId()), gradeManager.calculateOverallAverageSafe(s.getId()));
-            put(rk, rep);
+            put(rk, rep, tag);
         }
     }
 
@@ -2,8 +2,6 @@ package manager;
 
 import core.Grade;
 import core.Student;
-import core.CoreSubject;
-import core.ElectiveSubject;
 import context.ApplicationContext;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
@@ -48,6 +46,9 @@ public class FileFormatManager {
     
     private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
+    // Parsed rows are handed to GradeManager.addGrades in batches of this size
+    private static final int IMPORT_BATCH_SIZE = 1024;
+
     public static class FileStats {
         public String fileName;
         public String format;
@@ -111,18 +112,24 @@ public class FileFormatManager {
             
             long startTime = System.currentTimeMillis();
 
+            List<Grade> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
             try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
                 String line;
                 while ((line = reader.readLine()) != null) {
                     stats.recordsProcessed++;
                     try {
-                        processCSVLine(line);
-                        stats.successCount++;
+                        batch.add(parseCSVLine(line));
                     } catch (Exception e) {
                         stats.failureCount++;
                         System.out.println("  ⚠ Row " + stats.recordsProcessed + ": " + e.getMessage());
                     }
+                    if (batch.size() >= IMPORT_BATCH_SIZE) {
+                        flushBatch(batch, stats);
+                    }
                 }
+            } finally {
+                // keep the rows read so far even if the stream fails part way
+                flushBatch(batch, stats);
             }
 
             stats.readTime = System.currentTimeMillis() - startTime;
@@ -203,16 +210,20 @@ public class FileFormatManager {
             List<Map<String, Object>> grades = mapper.readValue(jsonContent,
                     mapper.getTypeFactory().constructCollectionType(List.class, Map.class));
 
+            List<Grade> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
             for (Map<String, Object> gradeMap : grades) {
                 stats.recordsProcessed++;
                 try {
-                    processJSONGrade(gradeMap);
-                    stats.successCount++;
+                    batch.add(parseJSONGrade(gradeMap));
                 } catch (Exception e) {
                     stats.failureCount++;
                     System.out.println("  ⚠ Record " + stats.recordsProcessed + ": " + e.getMessage());
                 }
+                if (batch.size() >= IMPORT_BATCH_SIZE) {
+                    flushBatch(batch, stats);
+                }
             }
+            flushBatch(batch, stats);
 
             stats.readTime = System.currentTimeMillis() - startTime;
 
@@ -288,19 +299,24 @@ public class FileFormatManager {
             
             long startTime = System.currentTimeMillis();
 
+            List<Grade> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
             try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(path))) {
                 int count = ois.readInt();
                 for (int i = 0; i < count; i++) {
                     try {
                         GradeData gradeData = (GradeData) ois.readObject();
-                        processBinaryGrade(gradeData);
-                        stats.successCount++;
+                        batch.add(parseBinaryGrade(gradeData));
                     } catch (Exception e) {
                         stats.failureCount++;
                         System.out.println("  ⚠ Record " + (i + 1) + ": " + e.getMessage());
                     }
                     stats.recordsProcessed++;
+                    if (batch.size() >= IMPORT_BATCH_SIZE) {
+                        flushBatch(batch, stats);
+                    }
                 }
+            } finally {
+                flushBatch(batch, stats);
             }
 
             stats.readTime = System.currentTimeMillis() - startTime;
@@ -530,7 +546,26 @@ public class FileFormatManager {
         throw new FileNotFoundException("File not found in any expected location: " + filePath);
     }
 
-    private void processCSVLine(String line) throws Exception {
+    /**
+     * Hand a batch of parsed grades to the grade manager in one call and record the outcome.
+     * Every parser checks the grade (checkGrade) and the student of each row, so a bad
+     * row fails on its own; a failure here (e.g. the write-ahead log) rejects the batch.
+     */
+    private void flushBatch(List<Grade> batch, FileStats stats) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            ApplicationContext.getInstance().getGradeManager().addGrades(batch);
+            stats.successCount += batch.size();
+        } catch (Exception e) {
+            stats.failureCount += batch.size();
+            System.out.println("  ⚠ Batch of " + batch.size() + " records rejected: " + e.getMessage());
+        }
+        batch.clear();
+    }
+
+    private Grade parseCSVLine(String line) throws Exception {
         String[] parts = line.split(",");
         if (parts.length != 4) {
             throw new IllegalArgumentException("Invalid column count (expected 4)");
@@ -541,66 +576,62 @@ public class FileFormatManager {
         String subjectType = parts[2].trim();
         double grade = Double.parseDouble(parts[3].trim());
 
-        if (grade < 0 || grade > 100) {
-            throw new IllegalArgumentException("Grade out of range: " + grade);
-        }
+        checkGrade(grade);
 
         Student student = findStudentById(studentId);
         if (student == null) {
             throw new IllegalArgumentException("Student not found: " + studentId);
         }
 
-        Subject subject = subjectType.equalsIgnoreCase("Core") ?
-                new CoreSubject(subjectName, "C-" + subjectName.substring(0, Math.min(3, subjectName.length())).toUpperCase()) :
-                new ElectiveSubject(subjectName, "E-" + subjectName.substring(0, Math.min(3, subjectName.length())).toUpperCase());
+        Subject subject = SubjectRegistry.getInstance().intern(subjectName, subjectType);
 
-        Grade newGrade = new Grade(studentId, subject, grade);
-        ApplicationContext.getInstance().getGradeManager().addGrade(newGrade);
+        return new Grade(studentId, subject, grade);
     }
 
-    private void processJSONGrade(Map<String, Object> gradeMap) throws Exception {
+    private Grade parseJSONGrade(Map<String, Object> gradeMap) throws Exception {
         int studentId = ((Number) gradeMap.get("studentId")).intValue();
         String subjectName = (String) gradeMap.get("subjectName");
         String subjectType = (String) gradeMap.get("subjectType");
         double grade = ((Number) gradeMap.get("grade")).doubleValue();
 
-        if (grade < 0 || grade > 100) {
-            throw new IllegalArgumentException("Grade out of range: " + grade);
-        }
+        checkGrade(grade);
 
         Student student = findStudentById(studentId);
         if (student == null) {
             throw new IllegalArgumentException("Student not found: " + studentId);
         }
 
-        Subject subject = subjectType.equalsIgnoreCase("Core") ?
-                new CoreSubject(subjectName, "C-" + subjectName.substring(0, Math.min(3, subjectName.length())).toUpperCase()) :
-                new ElectiveSubject(subjectName, "E-" + subjectName.substring(0, Math.min(3, subjectName.length())).toUpperCase());
+        Subject subject = SubjectRegistry.getInstance().intern(subjectName, subjectType);
 
-        Grade newGrade = new Grade(studentId, subject, grade);
-        ApplicationContext.getInstance().getGradeManager().addGrade(newGrade);
+        return new Grade(studentId, subject, grade);
     }
 
-    private void processBinaryGrade(GradeData gradeData) throws Exception {
+    private Grade parseBinaryGrade(GradeData gradeData) throws Exception {
+        checkGrade(gradeData.grade);
+
         Student student = findStudentById(gradeData.studentId);
         if (student == null) {
             throw new IllegalArgumentException("Student not found: " + gradeData.studentId);
         }
 
-        Subject subject = gradeData.subjectType.equalsIgnoreCase("Core") ?
-                new CoreSubject(gradeData.subjectName, "C-" + gradeData.subjectName.substring(0, Math.min(3, gradeData.subjectName.length())).toUpperCase()) :
-                new ElectiveSubject(gradeData.subjectName, "E-" + gradeData.subjectName.substring(0, Math.min(3, gradeData.subjectName.length())).toUpperCase());
+        Subject subject = SubjectRegistry.getInstance().intern(gradeData.subjectName, gradeData.subjectType);
+
+        return new Grade(gradeData.studentId, subject, gradeData.grade);
+    }
 
-        Grade newGrade = new Grade(gradeData.studentId, subject, gradeData.grade);
-        ApplicationContext.getInstance().getGradeManager().addGrade(newGrade);
+    // Same rule for CSV, JSON and binary rows, applied per row before batching
+    private static void checkGrade(double grade) {
+        if (!Double.isFinite(grade) || grade < 0 || grade > 100) {
+            throw new IllegalArgumentException("Grade out of range: " + grade);
+        }
     }
 
     /**
      * Optimized student lookup.
-     * Big-O: O(1) average using HashMap-backed index (ApplicationContext.getInstance().getStudentIndex()).
+     * Big-O: O(1) expected using the int-keyed index in ApplicationContext, no allocation per row.
      */
     private Student findStudentById(int studentId) {
-        return ApplicationContext.getInstance().getStudentIndex().get(String.valueOf(studentId));
+        return ApplicationContext.getInstance().getStudentById(studentId);
     }
 
     private String formatBytes(long bytes) {
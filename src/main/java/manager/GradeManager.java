@@ -2,55 +2,369 @@ package manager;
 
 import core.Grade;
 import core.Student;
+import core.Subject;
 import context.ApplicationContext;
 import audit.AuditLogger;
+import persistence.StudentArchive;
+import persistence.WriteAheadLog;
+import storage.DateIndex;
+import storage.FenwickTree;
+import storage.GradeValueIndex;
+import storage.GradeStore;
+import storage.IntList;
+import storage.StudentGrades;
+import storage.SubjectAggregate;
+import storage.SubjectGrades;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import exception.GradeStorageFullException;
 import exception.StudentNotFoundException;
 
 public class GradeManager implements IGradeManager {
 
-    public Grade[] grades = new Grade[200];
-    private int gradeCount = 0;
+    // Columnar grade storage; grows in chunks instead of a fixed Grade[200].
+    // Appends are lock-free, so parallel imports can call addGrade from many threads.
+    private volatile GradeStore store = new GradeStore();
 
+    // Canonical subjects; the store keeps only their small dense id
+    private final SubjectRegistry subjects = SubjectRegistry.getInstance();
+
+    // Per-student index: posting list of grade slots plus running aggregates.
+    // Each entry is its own lock, so writers only contend when adding grades for the same student.
+    // Big-O: averages/GPA -> O(1), per-student listings -> O(grades of that student).
+    private final Map<Integer, StudentGrades> studentGrades = new ConcurrentHashMap<>();
+
+    // Per-subject index addressed by SubjectRegistry id: posting list plus count / sum /
+    // sum of squares / min / max / histogram. Big-O: subject-level statistics -> O(#subjects).
+    private final Object subjectTableLock = new Object();
+    private volatile SubjectGrades[] subjectGrades = new SubjectGrades[16];
+
+    // Slots ordered by grade date (epoch days). Big-O: date-range lookup -> O(log d + k).
+    private volatile DateIndex dateIndex = new DateIndex();
+
+    // Order statistics over grade values and over student averages (hundredth-point buckets).
+    // Big-O: range counts, median, percentiles, percentile rank -> O(log 10001).
+    private volatile GradeValueIndex valueIndex = new GradeValueIndex();
+    private volatile FenwickTree averageRanks = new FenwickTree(GradeValueIndex.BUCKETS);
+
+    // Accepted grades are logged here before they are stored; null when not durable
+    private volatile WriteAheadLog wal;
+
+    public void setWriteAheadLog(WriteAheadLog wal) {
+        this.wal = wal;
+    }
+
+    // Students not registered in memory are looked up here; null without an archive
+    private volatile StudentArchive archive;
+    // aggregates of recently queried archived students, most recently used last
+    private static final int ARCHIVED_SUMMARIES = 4096;
+    private final Map<Integer, StudentGrades> archivedSummaries = Collections.synchronizedMap(
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, StudentGrades> eldest) {
+                    return size() > ARCHIVED_SUMMARIES;
+                }
+            });
+
+    /**
+     * Serve students that are not in memory from a disk archive: their
+     * averages, GPA and grade lists are computed from the archived postings
+     * (the aggregates of the most recently queried ones are kept in memory).
+     * The archive is read-only here; adding a grade for an archived student
+     * is refused. Pass null to detach.
+     */
+    public void setArchive(StudentArchive archive) {
+        this.archive = archive;
+        archivedSummaries.clear();
+    }
+
+    /**
+     * Drop all grades. Snapshots taken earlier keep their view of the old store.
+     * Not meant to run concurrently with addGrade.
+     */
     public void clear() {
-        Arrays.fill(grades, null);
-        gradeCount = 0;
+        store = new GradeStore();
+        studentGrades.clear();
+        subjectGrades = new SubjectGrades[16];
+        dateIndex = new DateIndex();
+        valueIndex = new GradeValueIndex();
+        averageRanks = new FenwickTree(GradeValueIndex.BUCKETS);
+        // cached GPAs of registered students refer to the dropped grades
+        for (Student s : ApplicationContext.getInstance().getStudents()) {
+            s.markGradesChanged();
+        }
     }
 
     @Override
     public void addGrade(Grade grade) throws StudentNotFoundException, GradeStorageFullException {
         Student s = findStudentById(grade.getStudentId());
         if (s == null) {
+            if (isArchived(grade.getStudentId())) {
+                throw new StudentNotFoundException("Student with ID " + grade.getStudentId()
+                        + " is archived; archived students are read-only.");
+            }
             throw new StudentNotFoundException("Student with ID " + grade.getStudentId() + " not found.");
         }
 
         long start = System.currentTimeMillis();
-        if (gradeCount < grades.length) {
+        try {
+            // resolve and check everything the store would reject before logging,
+            // so a rejected grade never reaches the log
+            int subjectId = subjects.idOf(grade.getSubject());
+            GradeStore.toHundredths(grade.getGrade());
             try {
-                grades[gradeCount++] = grade;
-                updateStudentAverage(grade.getStudentId());
-                // invalidate cache entries related to this student
-                try {
-                    CacheManager.getInstance().invalidate("student:" + grade.getStudentId());
-                    CacheManager.getInstance().invalidate("report:" + grade.getStudentId());
-                } catch (Exception ex) {
-                    // ignore cache errors
+                GradeStore target = store;
+                int epochDay = grade.getEpochDay();
+                int slot;
+                WriteAheadLog log = wal;
+                if (log == null) {
+                    slot = target.append(grade.getGradeId(), grade.getStudentId(), subjectId,
+                            grade.getGrade(), epochDay);
+                } else {
+                    // logged and stored together, so a checkpoint never sees only one of the two
+                    Lock guard = log.updateLock();
+                    guard.lock();
+                    try {
+                        log.logGrade(grade.getGradeId(), grade.getStudentId(), subjectId, subjects.get(subjectId),
+                                grade.getGrade(), epochDay);
+                        slot = target.append(grade.getGradeId(), grade.getStudentId(), subjectId,
+                                grade.getGrade(), epochDay);
+                    } finally {
+                        guard.unlock();
+                    }
                 }
+                double stored = target.grade(slot);
+                subjectGradesFor(subjectId).add(slot, stored);
+                dateIndex.add(epochDay, slot);
+                valueIndex.add(target.gradeHundredths(slot), slot);
+                StudentGrades sg = studentGrades.computeIfAbsent(grade.getStudentId(), id -> new StudentGrades());
+                // hold the student's lock so the cached average follows the aggregate in order
+                synchronized (sg) {
+                    sg.add(slot, stored, isCore(grade.getSubject()), Student.gpaPoints((int) stored));
+                    updateStudentAverage(s, sg);
+                }
+            } catch (IllegalStateException full) {
                 long exec = System.currentTimeMillis() - start;
-                try { AuditLogger.getInstance().log("ADD_GRADE", "studentId=" + grade.getStudentId() + ",subject=" + grade.getSubject().getSubjectName(), exec, true, ""); } catch (Exception ex) { }
-            } catch (RuntimeException rex) {
+                try { AuditLogger.getInstance().log("ADD_GRADE", "studentId=" + grade.getStudentId(), exec, false, "Storage full"); } catch (Exception ex) { }
+                throw new GradeStorageFullException("Cannot add grade. " + full.getMessage(), full);
+            }
+            // invalidate cache entries related to this student
+            try {
+                CacheManager.getInstance().invalidateTag(CacheManager.studentTag(grade.getStudentId()));
+            } catch (Exception ex) {
+                // ignore cache errors
+            }
+            long exec = System.currentTimeMillis() - start;
+            try { AuditLogger.getInstance().log("ADD_GRADE", "studentId=" + grade.getStudentId() + ",subject=" + grade.getSubject().getSubjectName(), exec, true, ""); } catch (Exception ex) { }
+        } catch (RuntimeException rex) {
+            long exec = System.currentTimeMillis() - start;
+            try { AuditLogger.getInstance().log("ADD_GRADE", "studentId=" + grade.getStudentId(), exec, false, rex.getMessage()); } catch (Exception ex) { }
+            throw rex;
+        }
+    }
+
+    /**
+     * Add many grades at once, e.g. from a file import.
+     * Students are resolved in one pass and the batch is rejected before anything
+     * is stored if any of them is unknown. Records are appended as one contiguous
+     * range, each student's aggregates are updated under a single lock, cache
+     * entries are invalidated once per student and one audit record covers the batch.
+     * Big-O: O(n + distinct students) instead of n separate addGrade calls.
+     */
+    @Override
+    public void addGrades(Collection<Grade> grades) throws StudentNotFoundException, GradeStorageFullException {
+        if (grades.isEmpty()) {
+            return;
+        }
+        int n = grades.size();
+        int[] gradeIds = new int[n];
+        int[] studentIds = new int[n];
+        int[] subjectIdColumn = new int[n];
+        double[] values = new double[n];
+        int[] epochDays = new int[n];
+        int i = 0;
+        for (Grade g : grades) {
+            gradeIds[i] = g.getGradeId();
+            studentIds[i] = g.getStudentId();
+            subjectIdColumn[i] = subjects.idOf(g.getSubject());
+            values[i] = g.getGrade();
+            epochDays[i] = g.getEpochDay();
+            i++;
+        }
+        addGrades(gradeIds, studentIds, subjectIdColumn, values, epochDays, n);
+    }
+
+    /**
+     * Same as addGrades(Collection), for grades already laid out column by column
+     * (e.g. restored from a snapshot), so no Grade objects are created.
+     * subjectIds are SubjectRegistry ids. Only the first count entries are used.
+     */
+    public void addGrades(int[] gradeIds, int[] studentIds, int[] subjectIdColumn, double[] values,
+                          int[] epochDays, int n) throws StudentNotFoundException, GradeStorageFullException {
+        addGrades(gradeIds, studentIds, subjectIdColumn, values, epochDays, n, false);
+    }
+
+    /**
+     * Bulk-load path for startup (see persistence.ParallelLoader): like the
+     * column addGrades, and safe to call from several threads at once, but
+     * nothing is logged, audited or invalidated and student averages, statuses
+     * and percentile ranks are left as they are. Call refreshAverages() once
+     * every batch is in. Only for state that is already durable, e.g. a backup.
+     */
+    public void loadGrades(int[] gradeIds, int[] studentIds, int[] subjectIdColumn, double[] values,
+                           int[] epochDays, int n) throws StudentNotFoundException, GradeStorageFullException {
+        addGrades(gradeIds, studentIds, subjectIdColumn, values, epochDays, n, true);
+    }
+
+    /**
+     * Recompute the cached average, status and rank bucket of every student
+     * with grades, once; the finishing step after loadGrades.
+     * Big-O: O(students with grades).
+     */
+    public void refreshAverages() {
+        for (Map.Entry<Integer, StudentGrades> e : studentGrades.entrySet()) {
+            Student s = findStudentById(e.getKey());
+            if (s == null) {
+                continue;
+            }
+            StudentGrades sg = e.getValue();
+            synchronized (sg) {
+                updateStudentAverage(s, sg);
+            }
+        }
+    }
+
+    private void addGrades(int[] gradeIds, int[] studentIds, int[] subjectIdColumn, double[] values,
+                           int[] epochDays, int n, boolean bulk) throws StudentNotFoundException, GradeStorageFullException {
+        if (n == 0) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+
+        HashMap<Integer, Student> students = new HashMap<>();
+        for (int k = 0; k < n; k++) {
+            if (!students.containsKey(studentIds[k])) {
+                Student s = findStudentById(studentIds[k]);
+                if (s == null) {
+                    long exec = System.currentTimeMillis() - start;
+                    try { AuditLogger.getInstance().log("ADD_GRADES", "count=" + n, exec, false, "Student " + studentIds[k] + " not found"); } catch (Exception ex) { }
+                    throw new StudentNotFoundException("Student with ID " + studentIds[k] + " not found.");
+                }
+                students.put(studentIds[k], s);
+            }
+        }
+
+        boolean[] core = new boolean[n];
+        try {
+            // reject the batch on a bad subject or value before anything is logged
+            for (int k = 0; k < n; k++) {
+                core[k] = isCore(subjects.get(subjectIdColumn[k]));
+                GradeStore.toHundredths(values[k]);
+            }
+        } catch (RuntimeException invalid) {
+            long exec = System.currentTimeMillis() - start;
+            try { AuditLogger.getInstance().log("ADD_GRADES", "count=" + n, exec, false, invalid.getMessage()); } catch (Exception ex) { }
+            throw invalid;
+        }
+
+        try {
+            int first;
+            GradeStore target = store;
+            WriteAheadLog log = bulk ? null : wal;
+            Lock guard = log != null ? log.updateLock() : null;
+            if (guard != null) {
+                guard.lock();
+            }
+            try {
+                if (log != null) {
+                    Subject[] subjectColumn = new Subject[n];
+                    for (int k = 0; k < n; k++) {
+                        subjectColumn[k] = subjects.get(subjectIdColumn[k]);
+                    }
+                    log.logGrades(gradeIds, studentIds, subjectIdColumn, subjectColumn, values, epochDays, n);
+                }
+                first = target.appendAll(gradeIds, studentIds, subjectIdColumn, values, epochDays, n);
+            } catch (IllegalStateException full) {
                 long exec = System.currentTimeMillis() - start;
-                try { AuditLogger.getInstance().log("ADD_GRADE", "studentId=" + grade.getStudentId(), exec, false, rex.getMessage()); } catch (Exception ex) { }
-                throw rex;
+                try { AuditLogger.getInstance().log("ADD_GRADES", "count=" + n, exec, false, "Storage full"); } catch (Exception ex) { }
+                throw new GradeStorageFullException("Cannot add grades. " + full.getMessage(), full);
+            } finally {
+                if (guard != null) {
+                    guard.unlock();
+                }
+            }
+
+            // group the new slots by student and by subject so each lock is taken once
+            HashMap<Integer, IntList> slotsByStudent = new HashMap<>();
+            HashMap<Integer, IntList> slotsBySubject = new HashMap<>();
+            for (int k = 0; k < n; k++) {
+                slotsByStudent.computeIfAbsent(studentIds[k], id -> new IntList()).add(k);
+                slotsBySubject.computeIfAbsent(subjectIdColumn[k], id -> new IntList()).add(k);
             }
-        } else {
+            dateIndex.addAll(epochDays, first, n);
+            GradeValueIndex byValue = valueIndex;
+            synchronized (byValue) {
+                for (int k = 0; k < n; k++) {
+                    byValue.add(target.gradeHundredths(first + k), first + k);
+                }
+            }
+            for (Map.Entry<Integer, IntList> e : slotsBySubject.entrySet()) {
+                SubjectGrades subjectEntry = subjectGradesFor(e.getKey());
+                IntList rows = e.getValue();
+                synchronized (subjectEntry) {
+                    for (int r = 0; r < rows.size(); r++) {
+                        int k = rows.get(r);
+                        subjectEntry.add(first + k, target.grade(first + k));
+                    }
+                }
+            }
+            for (Map.Entry<Integer, IntList> e : slotsByStudent.entrySet()) {
+                StudentGrades sg = studentGrades.computeIfAbsent(e.getKey(), id -> new StudentGrades());
+                IntList rows = e.getValue();
+                synchronized (sg) {
+                    for (int r = 0; r < rows.size(); r++) {
+                        int k = rows.get(r);
+                        double stored = target.grade(first + k);
+                        sg.add(first + k, stored, core[k], Student.gpaPoints((int) stored));
+                    }
+                    if (!bulk) {
+                        updateStudentAverage(students.get(e.getKey()), sg);
+                    }
+                }
+            }
+            if (bulk) {
+                return;
+            }
+
+            try {
+                CacheManager cache = CacheManager.getInstance();
+                for (Integer studentId : slotsByStudent.keySet()) {
+                    cache.invalidateTag(CacheManager.studentTag(studentId));
+                }
+            } catch (Exception ex) {
+                // ignore cache errors
+            }
+            long exec = System.currentTimeMillis() - start;
+            try { AuditLogger.getInstance().log("ADD_GRADES", "count=" + n + ",students=" + slotsByStudent.size(), exec, true, ""); } catch (Exception ex) { }
+        } catch (RuntimeException rex) {
             long exec = System.currentTimeMillis() - start;
-            try { AuditLogger.getInstance().log("ADD_GRADE", "studentId=" + grade.getStudentId(), exec, false, "Storage full"); } catch (Exception ex) { }
-            throw new GradeStorageFullException("Cannot add grade. Storage limit of " + grades.length + " reached.");
+            try { AuditLogger.getInstance().log("ADD_GRADES", "count=" + n, exec, false, rex.getMessage()); } catch (Exception ex) { }
+            throw rex;
         }
     }
 
@@ -61,13 +375,9 @@ public class GradeManager implements IGradeManager {
         if (s == null) {
             throw new StudentNotFoundException("Student with ID " + studentId + " does not exist.");
         }
-        
-        // Use Stream API to collect and sort grades
-        ArrayList<Grade> studentGrades = Arrays.stream(grades)
-                .limit(gradeCount)
-                .filter(g -> g.getStudentId() == studentId)
-                .sorted(Comparator.comparing(Grade::getDate).reversed())
-                .collect(ArrayList::new, List::add, List::addAll);
+
+        List<Grade> studentGrades = getStudentGrades(studentId);
+        studentGrades.sort(Comparator.comparing(Grade::getDate).reversed());
 
         if (studentGrades.isEmpty()) {
             System.out.println("No grades recorded for this student.");
@@ -79,23 +389,17 @@ public class GradeManager implements IGradeManager {
                 "GradeID", "Date", "Subject", "Type", "Grade");
         System.out.println("-------------------------------------------------------------");
 
-        // Use Stream API to display grades
-        Arrays.stream(grades)
-                .limit(gradeCount)
-                .filter(g -> g.getStudentId() == studentId)
-                .sorted(Comparator.comparing(Grade::getDate).reversed())
-                .forEach(g -> {
-                    Student student = findStudentById(g.getStudentId());
-                    String status = (student != null) ? student.getStatus() : "N/A";
-                    System.out.printf("%-8d %-12s %-20s %-10s %-8.2f %-8s\n",
-                            g.getGradeId(),
-                            g.getDate(),
-                            g.getSubject().getSubjectName(),
-                            g.getSubject().getSubjectType(),
-                            g.getGrade(),
-                            status
-                    );
-                });
+        String status = s.getStatus();
+        for (Grade g : studentGrades) {
+            System.out.printf("%-8d %-12s %-20s %-10s %-8.2f %-8s\n",
+                    g.getGradeId(),
+                    g.getDate(),
+                    g.getSubject().getSubjectName(),
+                    g.getSubject().getSubjectType(),
+                    g.getGrade(),
+                    status
+            );
+        }
 
         System.out.println("-------------------------------------------------------------");
 
@@ -117,58 +421,177 @@ public class GradeManager implements IGradeManager {
 
     @Override
     public double calculateCoreAverage(int studentId) {
-        return Arrays.stream(grades)
-                .limit(gradeCount)
-                .filter(g -> g.getStudentId() == studentId && g.getSubject().getSubjectType().equals("Core"))
-                .mapToDouble(Grade::getGrade)
-                .average()
-                .orElse(-1);
+        StudentGrades sg = summaryOf(studentId);
+        return sg == null ? -1 : sg.getCoreMean();
     }
 
     @Override
     public double calculateElectiveAverage(int studentId) {
-        return Arrays.stream(grades)
-                .limit(gradeCount)
-                .filter(g -> g.getStudentId() == studentId && g.getSubject().getSubjectType().equals("Elective"))
-                .mapToDouble(Grade::getGrade)
-                .average()
-                .orElse(-1);
+        StudentGrades sg = summaryOf(studentId);
+        return sg == null ? -1 : sg.getElectiveMean();
     }
 
     @Override
     public double calculateOverallAverage(int studentId) throws StudentNotFoundException {
-        if (findStudentById(studentId) == null) {
+        if (findStudentById(studentId) == null && !isArchived(studentId)) {
             throw new StudentNotFoundException("Student with ID " + studentId + " not found.");
         }
 
-        return Arrays.stream(grades)
-                .limit(gradeCount)
-                .filter(g -> g.getStudentId() == studentId)
-                .mapToDouble(Grade::getGrade)
-                .average()
-                .orElse(-1);
+        StudentGrades sg = summaryOf(studentId);
+        return sg == null ? -1 : sg.getOverallMean();
+    }
+
+    @Override
+    public double calculateGPA(int studentId) {
+        StudentGrades sg = summaryOf(studentId);
+        return sg == null ? 0.0 : sg.getGpa();
     }
 
     @Override
     public int getGradeCount() {
-        return gradeCount;
+        return store.size();
     }
 
     @Override
     public int getSubjectCountForStudent(int studentId) {
-        return (int) Arrays.stream(grades)
-                .limit(gradeCount)
-                .filter(g -> g.getStudentId() == studentId)
-                .count();
+        StudentGrades sg = summaryOf(studentId);
+        return sg == null ? 0 : sg.getCount();
     }
 
     @Override
     public ArrayList<Integer> getGradesForStudent(int studentId) {
-        return Arrays.stream(grades)
-                .limit(gradeCount)
-                .filter(g -> g.getStudentId() == studentId)
-                .map(g -> (int) g.getGrade())
-                .collect(ArrayList::new, List::add, List::addAll);
+        GradeSnapshot snapshot = snapshot();
+        int[] slots = slotsOf(studentId);
+        ArrayList<Integer> result = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            if (slot < snapshot.size()) result.add((int) snapshot.getGradeValue(slot));
+        }
+        return result;
+    }
+
+    /**
+     * All grades of one student, in the order they were recorded.
+     * Big-O: O(grades of that student) via the posting list.
+     */
+    public List<Grade> getStudentGrades(int studentId) {
+        GradeSnapshot snapshot = snapshot();
+        int[] slots = slotsOf(studentId);
+        if (slots.length == 0 && isArchived(studentId)) {
+            try {
+                return archive.getGrades(studentId);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read archived grades of student " + studentId, e);
+            }
+        }
+        List<Grade> result = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            if (slot < snapshot.size()) result.add(snapshot.get(slot));
+        }
+        return result;
+    }
+
+    /**
+     * Consistent point-in-time view of all recorded grades, safe to read while
+     * other threads keep adding. Use this instead of indexing by getGradeCount().
+     * Big-O: O(1) to take.
+     */
+    public GradeSnapshot snapshot() {
+        return new GradeSnapshot(store, subjects);
+    }
+
+    /**
+     * Grades dated between from and to (inclusive), ordered by date.
+     * Big-O: O(log d + k) via the date index, d = distinct dates, k = matches.
+     */
+    public List<Grade> getGradesBetween(LocalDate from, LocalDate to) {
+        return streamGradesBetween(from, to).collect(Collectors.toList());
+    }
+
+    /**
+     * Lazily stream the grades in a date window, oldest first, without touching
+     * grades outside it. Useful for term-level reporting.
+     */
+    public Stream<Grade> streamGradesBetween(LocalDate from, LocalDate to) {
+        GradeSnapshot snapshot = snapshot();
+        int[] slots = dateIndex.slotsBetween((int) from.toEpochDay(), (int) to.toEpochDay());
+        return Arrays.stream(slots)
+                .filter(slot -> slot < snapshot.size())
+                .mapToObj(snapshot::get);
+    }
+
+    /**
+     * Number of grades dated between from and to (inclusive).
+     */
+    public int countGradesBetween(LocalDate from, LocalDate to) {
+        return dateIndex.countBetween((int) from.toEpochDay(), (int) to.toEpochDay());
+    }
+
+    /**
+     * Grades between min and max (inclusive), lowest first.
+     * Big-O: O(distinct values in range * log B + k) via the value index.
+     */
+    public List<Grade> getGradesInRange(double min, double max) {
+        GradeSnapshot snapshot = snapshot();
+        int[] slots = valueIndex.slotsBetween(hundredthsCeil(min), hundredthsFloor(max));
+        List<Grade> result = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            if (slot < snapshot.size()) result.add(snapshot.get(slot));
+        }
+        return result;
+    }
+
+    /**
+     * Number of grades between min and max (inclusive). Big-O: O(log B).
+     */
+    public int countGradesInRange(double min, double max) {
+        return valueIndex.countBetween(hundredthsCeil(min), hundredthsFloor(max));
+    }
+
+    /**
+     * Median of all grades, -1 if none. Big-O: O(log B).
+     */
+    public double getMedianGrade() {
+        return valueIndex.median();
+    }
+
+    /**
+     * Nearest-rank percentile (0-100) of all grades, -1 if none. Big-O: O(log B).
+     */
+    public double getPercentile(double percentile) {
+        return valueIndex.percentile(percentile);
+    }
+
+    /**
+     * Most frequent grade (lowest on ties), -1 if none.
+     */
+    public double getModeGrade() {
+        return valueIndex.mode();
+    }
+
+    /**
+     * Percentile rank (0-100) of a student's average among all students with grades:
+     * the share below it, counting ties as half. -1 if the student has no grades.
+     * Big-O: O(log B).
+     */
+    public double getPercentileRank(int studentId) {
+        StudentGrades sg = studentGrades.get(studentId);
+        int bucket = sg == null ? -1 : sg.getRankBucket();
+        if (bucket < 0) {
+            return -1;
+        }
+        FenwickTree ranks = averageRanks;
+        synchronized (ranks) {
+            int below = bucket > 0 ? ranks.prefix(bucket - 1) : 0;
+            int equal = ranks.rangeCount(bucket, bucket);
+            return ranks.total() == 0 ? -1 : (below + equal / 2.0) * 100.0 / ranks.total();
+        }
+    }
+
+    /**
+     * Copy all recorded grades into a list, in insertion order.
+     */
+    public List<Grade> getAllGrades() {
+        return snapshot().toList();
     }
 
     // Safe wrapper for external callers that should not throw
@@ -180,35 +603,165 @@ public class GradeManager implements IGradeManager {
         }
     }
 
+    /**
+     * Running aggregates for one student, or null if no grade was recorded yet.
+     */
+    public StudentGrades getStudentSummary(int studentId) {
+        return summaryOf(studentId);
+    }
+
+    /**
+     * Running statistics (count, mean, spread, histogram) for one subject.
+     * Big-O: O(1).
+     */
+    public SubjectAggregate getSubjectStats(Subject subject) {
+        SubjectGrades sg = subjectGradesAt(subjects.idOf(subject));
+        return sg == null ? new SubjectAggregate() : sg.getStats();
+    }
+
+    /**
+     * Statistics for every subject that has at least one grade, in subject id order.
+     * Big-O: O(#subjects), independent of the number of grades.
+     */
+    public Map<Subject, SubjectAggregate> getSubjectStatistics() {
+        SubjectGrades[] table = subjectGrades;
+        Map<Subject, SubjectAggregate> result = new LinkedHashMap<>();
+        for (int id = 0; id < table.length; id++) {
+            if (table[id] != null && table[id].getCount() > 0) {
+                result.put(subjects.get(id), table[id].getStats());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * All grades recorded for one subject, in the order they were recorded.
+     * Big-O: O(grades of that subject) via the posting list.
+     */
+    public List<Grade> getSubjectGrades(Subject subject) {
+        GradeSnapshot snapshot = snapshot();
+        SubjectGrades sg = subjectGradesAt(subjects.idOf(subject));
+        int[] slots = sg == null ? new int[0] : sg.getSlots();
+        List<Grade> result = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            if (slot < snapshot.size()) result.add(snapshot.get(slot));
+        }
+        return result;
+    }
+
     // Helper methods
-    private void updateStudentAverage(int studentId) {
-        double average = Arrays.stream(grades)
-                .limit(gradeCount)
-                .filter(g -> g.getStudentId() == studentId)
-                .mapToDouble(Grade::getGrade)
-                .average()
-                .orElse(-1);
+    private SubjectGrades subjectGradesAt(int subjectId) {
+        SubjectGrades[] table = subjectGrades;
+        return subjectId < table.length ? table[subjectId] : null;
+    }
 
-        Student s = findStudentById(studentId);
-        if (s != null && average > 0) {
+    private SubjectGrades subjectGradesFor(int subjectId) {
+        SubjectGrades existing = subjectGradesAt(subjectId);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (subjectTableLock) {
+            SubjectGrades[] table = subjectGrades;
+            if (subjectId >= table.length || table[subjectId] == null) {
+                // replace rather than mutate, so lock-free readers only ever see complete tables
+                SubjectGrades[] grown = Arrays.copyOf(table, Math.max(table.length, Integer.highestOneBit(subjectId) << 1));
+                grown[subjectId] = new SubjectGrades();
+                subjectGrades = grown;
+                table = grown;
+            }
+            return table[subjectId];
+        }
+    }
+
+    // Range bounds in hundredths; a bound between two hundredths only covers whole steps inside it
+    private static int hundredthsCeil(double grade) {
+        return (int) Math.ceil(Math.round(grade * 1e6) / 1e4);
+    }
+
+    private static int hundredthsFloor(double grade) {
+        return (int) Math.floor(Math.round(grade * 1e6) / 1e4);
+    }
+
+    private int[] slotsOf(int studentId) {
+        StudentGrades sg = studentGrades.get(studentId);
+        return sg == null ? new int[0] : sg.getSlots();
+    }
+
+    // ========== Archived students ==========
+
+    // Not registered in memory but present in the attached archive
+    private boolean isArchived(int studentId) {
+        StudentArchive archived = archive;
+        if (archived == null || findStudentById(studentId) != null) {
+            return false;
+        }
+        try {
+            return archived.containsStudent(studentId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read student " + studentId + " from the archive", e);
+        }
+    }
+
+    // In-memory aggregates, or for a student only in the archive, ones built from its postings
+    private StudentGrades summaryOf(int studentId) {
+        StudentGrades sg = studentGrades.get(studentId);
+        StudentArchive archived = archive;
+        if (sg != null || archived == null || findStudentById(studentId) != null) {
+            return sg;
+        }
+        StudentGrades cached = archivedSummaries.get(studentId);
+        if (cached != null) {
+            return cached;
+        }
+        StudentGrades built = new StudentGrades();
+        try {
+            archived.forEachGrade(studentId, (gradeId, subject, grade, epochDay) ->
+                    built.add(-1, grade, isCore(subject), Student.gpaPoints((int) grade)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read archived grades of student " + studentId, e);
+        }
+        if (built.getCount() == 0) {
+            return null;
+        }
+        archivedSummaries.put(studentId, built);
+        return built;
+    }
+
+    private boolean isCore(Subject subject) {
+        return "Core".equals(subject.getSubjectType());
+    }
+
+    // Called with the student's lock held
+    private void updateStudentAverage(Student s, StudentGrades sg) {
+        s.markGradesChanged();
+        double average = sg.getOverallMean();
+        if (average > 0) {
+            String status = s.getStatus();
             s.setAverageGrade(average);
+            // listeners only track status, and notifying takes the registry-wide
+            // lock, so grade writers meet there only when a threshold is crossed
+            if (!Objects.equals(status, s.getStatus())) {
+                ApplicationContext.getInstance().getStudents().notifyChanged(s);
+            }
+        }
+        // move the student to their new bucket in the percentile-rank tree
+        int bucket = GradeStore.toHundredths(Math.max(0, average));
+        int previous = sg.getRankBucket();
+        if (bucket != previous) {
+            FenwickTree ranks = averageRanks;
+            synchronized (ranks) {
+                if (previous >= 0) ranks.add(previous, -1);
+                ranks.add(bucket, 1);
+            }
+            sg.setRankBucket(bucket);
         }
     }
 
     /**
-     * Optimized student lookup using Stream API.
-     * First tries HashMap-backed index (ApplicationContext.studentIndex) O(1),
-     * Falls back to Stream search O(n) if index is empty.
+     * Student lookup through the int-keyed index in ApplicationContext.
+     * Big-O: O(1) expected, no allocation per call.
      */
     private Student findStudentById(int studentId) {
-        Student fromIndex = ApplicationContext.getInstance().getStudentIndex().get(String.valueOf(studentId));
-        if (fromIndex != null) {
-            return fromIndex;
-        }
-        // Fallback: search in ApplicationContext.students using streams
-        return ApplicationContext.getInstance().getStudents().stream()
-                .filter(s -> s.getId() == studentId)
-                .findFirst()
-                .orElse(null);
+        return ApplicationContext.getInstance().getStudentById(studentId);
     }
 }
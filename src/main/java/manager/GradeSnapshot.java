@@ -0,0 +1,94 @@
+package manager;
+
+import core.Grade;
+import storage.GradeStore;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Read-only, point-in-time view of the grades recorded by a GradeManager.
+ * The record count is fixed when the snapshot is taken; grades appended later
+ * by other threads are not visible, so size() and get() always agree.
+ * Taking a snapshot is O(1); each get() materializes one Grade.
+ */
+public class GradeSnapshot {
+
+    private final GradeStore store;
+    private final SubjectRegistry subjects;
+    private final int size;
+
+    GradeSnapshot(GradeStore store, SubjectRegistry subjects) {
+        this.store = store;
+        this.subjects = subjects;
+        this.size = store.size();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get the grade stored at the given position (0 .. size() - 1).
+     */
+    public Grade get(int index) {
+        checkIndex(index);
+        return new Grade(store.gradeId(index), store.studentId(index), subjects.get(store.subjectId(index)),
+                store.grade(index), store.epochDay(index));
+    }
+
+    public int getStudentId(int index) {
+        checkIndex(index);
+        return store.studentId(index);
+    }
+
+    public double getGradeValue(int index) {
+        checkIndex(index);
+        return store.grade(index);
+    }
+
+    public int getGradeId(int index) {
+        checkIndex(index);
+        return store.gradeId(index);
+    }
+
+    // SubjectRegistry id of the grade's subject
+    public int getSubjectId(int index) {
+        checkIndex(index);
+        return store.subjectId(index);
+    }
+
+    // grade as stored, in hundredths of a point
+    public int getGradeHundredths(int index) {
+        checkIndex(index);
+        return store.gradeHundredths(index);
+    }
+
+    public int getEpochDay(int index) {
+        checkIndex(index);
+        return store.epochDay(index);
+    }
+
+    public Stream<Grade> stream() {
+        return IntStream.range(0, size).mapToObj(this::get);
+    }
+
+    public List<Grade> toList() {
+        List<Grade> all = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            all.add(get(i));
+        }
+        return all;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of range [0, " + size + ")");
+        }
+    }
+}
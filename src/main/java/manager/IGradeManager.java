@@ -4,13 +4,16 @@ import core.Grade;
 import exception.StudentNotFoundException;
 import exception.GradeStorageFullException;
 import java.util.ArrayList;
+import java.util.Collection;
 
 public interface IGradeManager {
     void addGrade(Grade grade) throws StudentNotFoundException, GradeStorageFullException;
+    void addGrades(Collection<Grade> grades) throws StudentNotFoundException, GradeStorageFullException;
     void viewGradeByStudent(int studentId) throws StudentNotFoundException;
     double calculateCoreAverage(int studentId);
     double calculateElectiveAverage(int studentId);
     double calculateOverallAverage(int studentId) throws StudentNotFoundException;
+    double calculateGPA(int studentId);
     int getGradeCount();
     int getSubjectCountForStudent(int studentId);
     ArrayList<Integer> getGradesForStudent(int studentId);
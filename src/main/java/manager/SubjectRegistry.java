@@ -0,0 +1,109 @@
+package manager;
+
+import core.CoreSubject;
+import core.ElectiveSubject;
+import core.Subject;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Hands out one canonical Subject instance per (name, type) together with a
+ * small dense integer id (0, 1, 2, ...), so imports do not create a new Subject
+ * per row and per-subject data can live in arrays indexed by id.
+ * The built-in menu subjects are registered up front with their usual codes.
+ * Big-O: lookup by name/type -> O(1), lookup by id -> O(1).
+ * Thread-safe: lookups never lock, registration of a new subject does.
+ */
+public class SubjectRegistry {
+
+    private static final SubjectRegistry INSTANCE = new SubjectRegistry();
+
+    public static SubjectRegistry getInstance() { return INSTANCE; }
+
+    // ids must fit in the short column of GradeStore
+    public static final int MAX_SUBJECTS = Short.MAX_VALUE + 1;
+
+    private final CopyOnWriteArrayList<Subject> byId = new CopyOnWriteArrayList<>();
+    private final ConcurrentHashMap<String, Integer> coreIds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> electiveIds = new ConcurrentHashMap<>();
+
+    private SubjectRegistry() {
+        register(new CoreSubject("Mathematics", "C-MATH"));
+        register(new CoreSubject("English", "C-ENG"));
+        register(new CoreSubject("Science", "C-SCI"));
+        register(new ElectiveSubject("Music", "E-MUS"));
+        register(new ElectiveSubject("Art", "E-ART"));
+        register(new ElectiveSubject("Physical Education", "E-PE"));
+    }
+
+    /**
+     * Canonical subject for a name and type ("Core" or anything else for Elective),
+     * created with a derived code (e.g. "C-MAT") the first time it is seen.
+     */
+    public Subject intern(String name, String type) {
+        boolean core = isCore(type);
+        Integer id = (core ? coreIds : electiveIds).get(name);
+        if (id != null) {
+            return byId.get(id);
+        }
+        String code = (core ? "C-" : "E-") + name.substring(0, Math.min(3, name.length())).toUpperCase();
+        return byId.get(register(core ? new CoreSubject(name, code) : new ElectiveSubject(name, code)));
+    }
+
+    /**
+     * Canonical instance equal (by name and type) to the given subject.
+     */
+    public Subject intern(Subject subject) {
+        return byId.get(idOf(subject));
+    }
+
+    /**
+     * Dense id of the subject, registering it if it has not been seen before.
+     */
+    public int idOf(Subject subject) {
+        Integer id = idsFor(subject.getSubjectType()).get(subject.getSubjectName());
+        return id != null ? id : register(subject);
+    }
+
+    public Subject get(int id) {
+        return byId.get(id);
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * All registered subjects, indexed by id. The list is a stable view.
+     */
+    public List<Subject> getAll() {
+        return List.copyOf(byId);
+    }
+
+    private int register(Subject subject) {
+        ConcurrentHashMap<String, Integer> ids = idsFor(subject.getSubjectType());
+        synchronized (byId) {
+            Integer existing = ids.get(subject.getSubjectName());
+            if (existing != null) {
+                return existing;
+            }
+            if (byId.size() >= MAX_SUBJECTS) {
+                throw new IllegalStateException("Too many distinct subjects");
+            }
+            int id = byId.size();
+            // list first, so anyone who can see the id can resolve it
+            byId.add(subject);
+            ids.put(subject.getSubjectName(), id);
+            return id;
+        }
+    }
+
+    private ConcurrentHashMap<String, Integer> idsFor(String type) {
+        return isCore(type) ? coreIds : electiveIds;
+    }
+
+    private static boolean isCore(String type) {
+        return "Core".equalsIgnoreCase(type);
+    }
+}
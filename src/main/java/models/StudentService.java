@@ -1,28 +1,61 @@
 package models;
 
+import context.StudentRegistry;
 import core.Student;
+import persistence.StudentArchive;
+import storage.IntIntMap;
+import storage.IntObjectMap;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.function.IntSupplier;
 import java.util.stream.Collectors;
 
-public class StudentService {
-
-    private ArrayList<Student> students;
-    private int studentIdCounter;
-
-    public StudentService(ArrayList<Student> students, int studentIdCounter) {
+/**
+ * Student queries on top of the shared StudentRegistry.
+ * Students are sorted into type and status buckets, and their validity is
+ * checked once, as they are registered, so type/status/validity queries
+ * never rescan all students. The owner registers the service as a listener
+ * of the registry once it is constructed (see ApplicationContext).
+ * Status depends on the average grade, so callers whose change of an
+ * average moves a student to another status report it through
+ * StudentRegistry.notifyChanged(), which lands in studentChanged() here.
+ * Big-O: findStudentById/count* -> O(1), get*By* -> O(result).
+ * Thread-safe: bucket reads and updates lock this service.
+ */
+public class StudentService implements StudentRegistry.Listener {
+
+    private final StudentRegistry students;
+    // shared with everything else that registers students, so ids never collide
+    private final IntSupplier studentIds;
+
+    private final Map<String, ArrayList<Student>> byType = new HashMap<>();
+    private final Map<String, LinkedHashSet<Student>> byStatus = new HashMap<>();
+    private final IntObjectMap<String> statusOf = new IntObjectMap<>();
+    // validity as one bit per student, indexed by registration order
+    private final IntIntMap rowOf = new IntIntMap();
+    private final BitSet validRows = new BitSet();
+    private final ArrayList<Student> validStudents = new ArrayList<>();
+    // consulted for ids that are not registered in memory; null without an archive
+    private volatile StudentArchive archive;
+
+    /**
+     * @param studentIds source of new student ids, e.g. the application's
+     *                   counter (ApplicationContext.generateStudentId)
+     */
+    public StudentService(StudentRegistry students, IntSupplier studentIds) {
         this.students = students;
-        this.studentIdCounter = studentIdCounter;
-    }
-
-    // Generate unique student ID
-    private int generateStudentId() {
-        return studentIdCounter++;
+        this.studentIds = studentIds;
     }
 
     // ------------------ Add Student ------------------
     public Student addStudent(String name, int age, String email, String phone) {
 
-        Student student = new Student(generateStudentId(), name, age, email, phone) {
+        Student student = new Student(studentIds.getAsInt(), name, age, email, phone) {
             @Override
             public String getType() {
                 return "";
@@ -44,49 +77,127 @@ public class StudentService {
     }
 
     // ------------------ View All Students ------------------
-    public ArrayList<Student> getAllStudents() {
+    public StudentRegistry getAllStudents() {
         return students;
     }
 
-    // ------------------ Find Student by ID (Stream-based) ------------------
+    // Look up students that are not in memory in a disk archive (null to detach)
+    public void setArchive(StudentArchive archive) {
+        this.archive = archive;
+    }
+
+    // ------------------ Find Student by ID (indexed) ------------------
+    // In-memory index first, then the archive if one is attached
     public Student findStudentById(int id) {
-        return students.stream()
-                .filter(student -> student.getId() == id)
-                .findFirst()
-                .orElse(null);
+        Student s = students.findById(id);
+        StudentArchive archived = archive;
+        if (s != null || archived == null) {
+            return s;
+        }
+        try {
+            return archived.getStudent(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read student " + id + " from the archive", e);
+        }
     }
 
-    // Get all students matching a filter condition (Stream-based)
+    // Get all students matching a filter condition (Stream-based, scans one snapshot)
     public ArrayList<Student> getStudentsByFilter(java.util.function.Predicate<Student> filter) {
-        return students.stream()
+        return students.snapshot().stream()
                 .filter(filter)
                 .collect(Collectors.toCollection(ArrayList::new));
     }
 
-    // Get all students of a specific type (Stream-based)
-    public ArrayList<Student> getStudentsByType(String type) {
-        return students.stream()
-                .filter(s -> s.getType().equals(type))
-                .collect(Collectors.toCollection(ArrayList::new));
+    // Get all students of a specific type (from the type bucket)
+    public synchronized ArrayList<Student> getStudentsByType(String type) {
+        ArrayList<Student> bucket = byType.get(type);
+        return bucket == null ? new ArrayList<>() : new ArrayList<>(bucket);
     }
 
-    // Get all active/valid students (Stream-based)
-    public ArrayList<Student> getValidStudents() {
-        return students.stream()
-                .filter(s -> isValidStudent(s))
-                .collect(Collectors.toCollection(ArrayList::new));
+    // Get all active/valid students (validity cached at registration)
+    public synchronized ArrayList<Student> getValidStudents() {
+        return new ArrayList<>(validStudents);
     }
 
-    // Validate entire student list (Stream-based)
-    private boolean isValidStudent(Student s) {
-        return s != null && isValidAge(s.getAge()) && isValidEmail(s.getEmail()) && isValidPhone(s.getPhone());
+    // Cached validity of a registered student
+    public synchronized boolean isValidStudent(int id) {
+        int row = rowOf.get(id, -1);
+        return row >= 0 && validRows.get(row);
+    }
+
+    // Count students with condition (bucket size)
+    public synchronized long countStudentsByType(String type) {
+        ArrayList<Student> bucket = byType.get(type);
+        return bucket == null ? 0 : bucket.size();
+    }
+
+    // Get all students with a status such as "Passing" or "Failing"
+    public synchronized ArrayList<Student> getStudentsByStatus(String status) {
+        LinkedHashSet<Student> bucket = byStatus.get(status.trim());
+        return bucket == null ? new ArrayList<>() : new ArrayList<>(bucket);
+    }
+
+    public synchronized long countStudentsByStatus(String status) {
+        LinkedHashSet<Student> bucket = byStatus.get(status.trim());
+        return bucket == null ? 0 : bucket.size();
+    }
+
+    // ------------------ Registry listener ------------------
+    /**
+     * Move a student to the bucket for their current status.
+     * Big-O: O(1).
+     */
+    @Override
+    public synchronized void studentChanged(Student s) {
+        String previous = statusOf.get(s.getId());
+        if (previous == null) {
+            return; // not registered
+        }
+        String status = statusKey(s);
+        if (!status.equals(previous)) {
+            byStatus.get(previous).remove(s);
+            byStatus.computeIfAbsent(status, k -> new LinkedHashSet<>()).add(s);
+            statusOf.put(s.getId(), status);
+        }
+    }
+
+    @Override
+    public synchronized void studentAdded(Student s) {
+        byType.computeIfAbsent(s.getType(), k -> new ArrayList<>()).add(s);
+        String status = statusKey(s);
+        byStatus.computeIfAbsent(status, k -> new LinkedHashSet<>()).add(s);
+        statusOf.put(s.getId(), status);
+        int row = rowOf.get(s.getId(), -1);
+        if (row < 0) {
+            row = rowOf.size();
+            rowOf.put(s.getId(), row);
+        }
+        boolean valid = isValidStudent(s);
+        validRows.set(row, valid);
+        if (valid) {
+            validStudents.add(s);
+        }
     }
 
-    // Count students with condition (Stream-based)
-    public long countStudentsByType(String type) {
-        return students.stream()
-                .filter(s -> s.getType().equals(type))
-                .count();
+    @Override
+    public synchronized void cleared() {
+        byType.clear();
+        byStatus.clear();
+        statusOf.clear();
+        rowOf.clear();
+        validRows.clear();
+        validStudents.clear();
+    }
+
+    // Status strings are compared without padding (HonorsStudent pads "Passing")
+    private static String statusKey(Student s) {
+        String status = s.getStatus();
+        return status == null ? "" : status.trim();
+    }
+
+    // Validate one student (run once, when it is registered)
+    private boolean isValidStudent(Student s) {
+        return s != null && isValidAge(s.getAge()) && isValidEmail(s.getEmail()) && isValidPhone(s.getPhone());
     }
 
     // ------------------ Validators ------------------
@@ -95,11 +206,11 @@ public class StudentService {
     }
 
     public boolean isValidEmail(String email) {
-        return email.contains("@") && email.contains(".");
+        return email != null && email.contains("@") && email.contains(".");
     }
 
     public boolean isValidPhone(String phone) {
-        return phone.length() >= 10;
+        return phone != null && phone.length() >= 10;
     }
 
 }
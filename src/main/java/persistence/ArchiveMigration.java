@@ -0,0 +1,108 @@
+package persistence;
+
+import context.ApplicationContext;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Moves every student and grade held in memory into the disk archive, the
+ * only way an archive changes (it is read-only at run time).
+ *
+ * Run at startup with -Dgrades.archive=path -Dgrades.archive.migrate=true,
+ * after the snapshot and write-ahead log are restored:
+ *   1. a new archive is built in path.tmp from the current archive plus the
+ *      in-memory students and grades, and closed cleanly;
+ *   2. it replaces the archive file in one atomic move;
+ *   3. the students and grades are dropped from memory and the new archive
+ *      is opened read-only;
+ *   4. a full snapshot of the now smaller in-memory state is written, which
+ *      checkpoints the write-ahead log, so the next startup restores without
+ *      the archived students.
+ * A crash before 2 leaves the old archive and a stray .tmp file; a crash
+ * between 2 and 4 leaves the students both in the archive and in the old
+ * snapshot, where memory wins and the next migration copies them again.
+ */
+public final class ArchiveMigration {
+
+    public static final String MIGRATE_PROPERTY = "grades.archive.migrate";
+
+    /**
+     * What a migration moved and the snapshot it ended with.
+     */
+    public static final class Report {
+        private final int students;
+        private final int grades;
+        private final StudentArchive archive;
+        private final SnapshotFile.Info backup;
+
+        private Report(int students, int grades, StudentArchive archive, SnapshotFile.Info backup) {
+            this.students = students;
+            this.grades = grades;
+            this.archive = archive;
+            this.backup = backup;
+        }
+
+        public int getStudents() { return students; }
+
+        public int getGrades() { return grades; }
+
+        public StudentArchive getArchive() { return archive; }
+
+        // full snapshot written after the move; the next increments extend it
+        public SnapshotFile.Info getBackup() { return backup; }
+
+        @Override
+        public String toString() {
+            return String.format("moved %d students and %d grades into %s", students, grades, archive);
+        }
+    }
+
+    private ArchiveMigration() {
+    }
+
+    /**
+     * True if -Dgrades.archive.migrate=true asks for a migration at startup.
+     */
+    public static boolean configured() {
+        return Boolean.getBoolean(MIGRATE_PROPERTY);
+    }
+
+    /**
+     * Migrate the context's students and grades into the archive at
+     * archivePath and write the follow-up snapshot to backupDir. The
+     * context's current archive, if any, must be the one at archivePath;
+     * afterwards the context holds the new one.
+     */
+    public static Report run(ApplicationContext context, Path archivePath, Path backupDir) throws IOException {
+        StudentArchive current = context.getArchive();
+        int poolPages = StudentArchive.configuredPoolPages();
+        Path tmp = archivePath.resolveSibling(archivePath.getFileName() + ".tmp");
+        Files.deleteIfExists(tmp);
+        int students = context.getStudents().size();
+        int grades;
+        try (StudentArchive next = StudentArchive.create(tmp, poolPages)) {
+            if (current != null) {
+                next.copyFrom(current);
+            }
+            grades = next.copyFrom(context.getStudents(), context.getGradeManager());
+        }
+
+        context.setArchive(null);
+        if (current != null) {
+            current.close();
+        }
+        Files.move(tmp, archivePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        context.getGradeManager().clear();
+        context.clearStudents();
+        context.setArchive(StudentArchive.open(archivePath, poolPages));
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        SnapshotFile.Info backup = SnapshotFile.write(SnapshotFile.newPath(backupDir, timestamp),
+                context.getStudents(), context.getGradeManager(), context.getWriteAheadLog());
+        return new Report(students, grades, context.getArchive(), backup);
+    }
+}
@@ -0,0 +1,230 @@
+package persistence;
+
+import context.ApplicationContext;
+import context.StudentRegistry;
+import manager.GradeManager;
+import manager.SubjectRegistry;
+import core.Subject;
+import storage.IntList;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Incremental backups on top of a full {@link SnapshotFile}.
+ *
+ * Students and grades are only ever appended, so what changed since the last
+ * backup is exactly the students and grade slots past that backup's counts
+ * (averages and statuses are derived and rebuilt on restore). An increment
+ * stores just those ranges, so its size and write time follow the churn, not
+ * the total data size.
+ *
+ * A chain is a base snapshot (position 0) plus increments 1, 2, ... named
+ * increment_<chain id>_<position>.ginc next to it, where the chain id is the
+ * base's creation time. Each increment records the counts it starts from and
+ * ends at, and is written as CRC32C-checked blocks of BLOCK_SIZE bytes
+ * (see BinaryOutput); restore checks every block and that each increment
+ * continues exactly where the previous one ended.
+ *
+ * Increment layout (inside the blocks, big-endian, version 1):
+ *   header    magic "GINC", version, created, chain id, position, write-ahead
+ *             log sequence, subject count, students from/to, grades from/to
+ *   subjects  as in a snapshot (all of them; the list is short)
+ *   students  the new ones, as in a snapshot
+ *   padding   to an 8-byte boundary
+ *   grades    the new ones, column after column as in a snapshot
+ */
+public final class BackupChain {
+
+    static final int MAGIC = 0x47494E43; // "GINC"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 56;
+    static final int BLOCK_SIZE = 64 * 1024;
+    private static final String PREFIX = "increment_";
+    private static final String SUFFIX = ".ginc";
+
+    private BackupChain() { }
+
+    public static Path incrementPath(Path dir, long chainId, int position) {
+        return dir.resolve(String.format("%s%d_%04d%s", PREFIX, chainId, position, SUFFIX));
+    }
+
+    // ========== Writing ==========
+
+    /**
+     * Write the students and grades added since previous (the newest backup
+     * of this state, full or incremental) as the next increment of its chain,
+     * in the same directory. With a write-ahead log the records it covers are
+     * dropped from the log once it is on disk.
+     * @throws IllegalStateException if the state no longer extends previous
+     *         (e.g. it was cleared); take a full snapshot instead
+     */
+    public static SnapshotFile.Info writeIncrement(SnapshotFile.Info previous, StudentRegistry students,
+                                                   GradeManager gradeManager, WriteAheadLog wal) throws IOException {
+        long start = System.nanoTime();
+        SnapshotFile.Capture capture = SnapshotFile.Capture.take(students, gradeManager, wal);
+        int studentsFrom = previous.getStudents();
+        int studentsTo = capture.students.size();
+        int gradesFrom = previous.getGrades();
+        int gradesTo = capture.grades.size();
+        if (studentsTo < studentsFrom || gradesTo < gradesFrom) {
+            throw new IllegalStateException("Data no longer extends backup " + previous.getPath()
+                    + "; a full snapshot is needed");
+        }
+
+        long created = System.currentTimeMillis();
+        int position = previous.getChainIndex() + 1;
+        Path dir = previous.getPath().toAbsolutePath().getParent();
+        Path path = incrementPath(dir, previous.getChainId(), position);
+        Path tmp = SnapshotFile.tempFile(path);
+        long bytes;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            BinaryOutput out = BinaryOutput.blocks(channel, BLOCK_SIZE);
+            List<Subject> subjects = SubjectRegistry.getInstance().getAll();
+            out.ensure(HEADER_BYTES);
+            out.buffer.putInt(MAGIC).putInt(VERSION).putLong(created).putLong(previous.getChainId())
+                    .putInt(position).putLong(capture.walSequence()).putInt(subjects.size())
+                    .putInt(studentsFrom).putInt(studentsTo).putInt(gradesFrom).putInt(gradesTo).putInt(0);
+            SnapshotFile.writeSubjects(out, subjects);
+            SnapshotFile.writeStudents(out, capture.students, studentsFrom, studentsTo);
+            out.padTo(8);
+            SnapshotFile.writeGrades(out, capture.grades, gradesFrom, gradesTo);
+            bytes = out.finishBlocks();
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        capture.release();
+        return new SnapshotFile.Info(path, created, previous.getChainId(), position, capture.walSequence(),
+                studentsTo, gradesTo, bytes, System.nanoTime() - start);
+    }
+
+    // ========== Restoring ==========
+
+    /**
+     * Restore a base snapshot into an empty context, then every increment of
+     * its chain in order. Returns the position of the last one applied, whose
+     * write-ahead log sequence is where replay continues.
+     * Runs on the calling thread; ParallelLoader.loadChain uses all cores.
+     * @throws IOException if any file is unreadable, corrupt or out of order
+     */
+    public static SnapshotFile.Info restore(Path base, ApplicationContext context) throws IOException {
+        return new ParallelLoader(1).loadChain(base, context).getBackup();
+    }
+
+    static SnapshotFile.Info restore(Path base, ApplicationContext context, ParallelLoader loader)
+            throws IOException {
+        long start = System.nanoTime();
+        SnapshotFile.Info info = SnapshotFile.restore(base, context, loader);
+        long bytes = info.getBytes();
+        Path dir = base.toAbsolutePath().getParent();
+        for (int position = 1; ; position++) {
+            Path increment = incrementPath(dir, info.getChainId(), position);
+            if (!Files.exists(increment)) {
+                break;
+            }
+            info = applyIncrement(increment, info, context, loader);
+            bytes += info.getBytes();
+        }
+        return new SnapshotFile.Info(info.getPath(), info.getCreatedMillis(), info.getChainId(),
+                info.getChainIndex(), info.getWalSequence(), info.getStudents(), info.getGrades(), bytes,
+                System.nanoTime() - start);
+    }
+
+    private static SnapshotFile.Info applyIncrement(Path path, SnapshotFile.Info previous, ApplicationContext context,
+                                                    ParallelLoader loader) throws IOException {
+        long start = System.nanoTime();
+        long size = Files.size(path);
+        ByteBuffer in = readBlocks(path, loader);
+        loader.addReadNanos(System.nanoTime() - start);
+        if (in.remaining() < HEADER_BYTES || in.getInt() != MAGIC) {
+            throw new IOException("Not an incremental backup: " + path);
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported incremental backup version " + version + ": " + path);
+        }
+        long created = in.getLong();
+        long chainId = in.getLong();
+        int position = in.getInt();
+        long walSequence = in.getLong();
+        int subjectCount = in.getInt();
+        int studentsFrom = in.getInt();
+        int studentsTo = in.getInt();
+        int gradesFrom = in.getInt();
+        int gradesTo = in.getInt();
+        in.getInt(); // reserved
+        if (chainId != previous.getChainId() || position != previous.getChainIndex() + 1
+                || studentsFrom != previous.getStudents() || gradesFrom != previous.getGrades()) {
+            throw new IOException("Incremental backup " + path + " does not follow " + previous.getPath());
+        }
+
+        int[] subjectIds = SnapshotFile.readSubjects(in, subjectCount);
+        loader.loadStudents(in, studentsTo - studentsFrom, context, path);
+        in.position((in.position() + 7) & ~7);
+        loader.loadGrades(in, gradesTo - gradesFrom, subjectIds, context.getGradeManager(), path);
+
+        return new SnapshotFile.Info(path, created, chainId, position, walSequence, studentsTo, gradesTo, size,
+                System.nanoTime() - start);
+    }
+
+    // Check every block's CRC and return the payload of all of them, in order.
+    // The block chain is walked once for the offsets; blocks are then checked
+    // and copied in parallel ranges.
+    static ByteBuffer readBlocks(Path path, ParallelLoader loader) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Incremental backup too large to map: " + size + " bytes");
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            ByteBuffer payload = ByteBuffer.allocate((int) size);
+            IntList positions = new IntList();
+            IntList lengths = new IntList();
+            int pos = 0;
+            int block = 0;
+            while (true) {
+                if (size - pos < BinaryOutput.BLOCK_HEADER_BYTES) {
+                    throw new IOException("Incremental backup " + path + " is truncated after block " + block);
+                }
+                int length = map.getInt(pos);
+                pos += BinaryOutput.BLOCK_HEADER_BYTES;
+                if (length == 0) {
+                    break;
+                }
+                if (length < 0 || length > size - pos) {
+                    throw new IOException("Incremental backup " + path + " is truncated in block " + block);
+                }
+                positions.add(pos);
+                lengths.add(length);
+                pos += length;
+                block++;
+            }
+            int[] targets = new int[block + 1];
+            for (int b = 0; b < block; b++) {
+                targets[b + 1] = targets[b] + lengths.get(b);
+            }
+            loader.forEachRange(block, 1, (from, to) -> {
+                CRC32C crc = new CRC32C();
+                for (int b = from; b < to; b++) {
+                    int blockStart = positions.get(b) - BinaryOutput.BLOCK_HEADER_BYTES;
+                    crc.reset();
+                    crc.update(map.slice(positions.get(b), lengths.get(b)));
+                    if ((int) crc.getValue() != map.getInt(blockStart + 4)) {
+                        throw new IOException("Checksum mismatch in block " + b + " of " + path);
+                    }
+                    payload.put(targets[b], map, positions.get(b), lengths.get(b));
+                }
+            });
+            return payload.limit(targets[block]);
+        }
+    }
+}
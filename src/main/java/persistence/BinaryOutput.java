@@ -0,0 +1,121 @@
+package persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Buffered big-endian writer for backup files. Callers reserve room with
+ * ensure() and then put into {@link #buffer} directly.
+ *
+ * Two framings:
+ *   plain   the bytes as written, followed by one CRC32C of all of them
+ *           (full snapshots, verified as a whole on restore)
+ *   blocks  every buffer-full goes out as [int length][int crc32c][bytes],
+ *           closed by a zero-length block (increments, verified per block)
+ */
+final class BinaryOutput {
+
+    static final int BLOCK_HEADER_BYTES = 8;
+
+    final ByteBuffer buffer;
+    private final FileChannel channel;
+    private final boolean blocks;
+    private final CRC32C crc = new CRC32C();
+    private final ByteBuffer blockHeader = ByteBuffer.allocate(BLOCK_HEADER_BYTES);
+    // bytes handed to the channel, and the payload part of them
+    private long written;
+    private long payload;
+
+    private BinaryOutput(FileChannel channel, int bufferSize, boolean blocks) {
+        this.channel = channel;
+        this.blocks = blocks;
+        this.buffer = ByteBuffer.allocate(bufferSize).order(ByteOrder.BIG_ENDIAN);
+    }
+
+    static BinaryOutput plain(FileChannel channel) {
+        return new BinaryOutput(channel, 1 << 20, false);
+    }
+
+    static BinaryOutput blocks(FileChannel channel, int blockSize) {
+        return new BinaryOutput(channel, blockSize, true);
+    }
+
+    void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    void putString(String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IOException("String too long for a backup");
+        }
+        ensure(2 + bytes.length);
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    // Zero-fill so the next payload byte sits at a multiple of alignment
+    void padTo(int alignment) throws IOException {
+        long position = payload + buffer.position();
+        int padding = (int) ((alignment - position % alignment) % alignment);
+        ensure(padding);
+        for (int i = 0; i < padding; i++) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    /**
+     * Plain framing: write the CRC trailer and return the file size.
+     */
+    long finishWithChecksum() throws IOException {
+        drain();
+        buffer.putInt((int) crc.getValue());
+        buffer.flip();
+        write(buffer);
+        buffer.clear();
+        return written;
+    }
+
+    /**
+     * Block framing: write the last block and the end marker, return the file size.
+     */
+    long finishBlocks() throws IOException {
+        drain();
+        blockHeader.clear();
+        blockHeader.putInt(0).putInt(0).flip();
+        write(blockHeader);
+        return written;
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        int length = buffer.remaining();
+        if (blocks) {
+            if (length == 0) {
+                buffer.clear();
+                return;
+            }
+            crc.reset();
+            crc.update(buffer.duplicate());
+            blockHeader.clear();
+            blockHeader.putInt(length).putInt((int) crc.getValue()).flip();
+            write(blockHeader);
+        } else {
+            crc.update(buffer.duplicate());
+        }
+        write(buffer);
+        payload += length;
+        buffer.clear();
+    }
+
+    private void write(ByteBuffer bytes) throws IOException {
+        while (bytes.hasRemaining()) {
+            written += channel.write(bytes);
+        }
+    }
+}
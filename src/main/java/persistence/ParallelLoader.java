@@ -0,0 +1,525 @@
+package persistence;
+
+import context.ApplicationContext;
+import context.StudentColumns;
+import core.Grade;
+import core.Student;
+import exception.GradeStorageFullException;
+import exception.InvalidStudentDataException;
+import exception.StudentNotFoundException;
+import manager.GradeManager;
+import manager.SubjectRegistry;
+import models.StudentFactory;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Startup loader that rebuilds state from a backup chain (or a set of grade
+ * CSV files) on several threads instead of one.
+ *
+ * A load runs in phases, each split into ranges that run on a pool of
+ * {@link #getThreads()} threads and finish before the next phase starts:
+ *   read      files are mapped and checked; increment blocks are CRC-checked
+ *             in parallel (a full snapshot has one whole-file CRC32C, which
+ *             is checked in one pass)
+ *   students  record boundaries are found in one cheap scan, then students
+ *             are decoded and validated in parallel and registered in file
+ *             order (which fills the id map and the column store)
+ *   grades    column ranges go to GradeManager.loadGrades concurrently; the
+ *             store reserves slots atomically and every index it feeds
+ *             (per-student postings, subject aggregates, date and value
+ *             indexes) locks only its own part, per batch
+ *   finish    each student's average, status and rank is computed once
+ * The time from the first read to the end of the last phase is reported as
+ * time-to-ready. Grade order within a student's postings follows the order
+ * the ranges landed in, as it does for concurrent writers at run time.
+ *
+ * A loader runs one load at a time; the pool lives only for that load.
+ * With one thread everything runs on the caller, which is what the plain
+ * SnapshotFile.restore and BackupChain.restore use.
+ */
+public final class ParallelLoader {
+
+    public static final String THREADS_PROPERTY = "grades.load.threads";
+    public static final String IMPORT_PROPERTY = "grades.import";
+
+    // smallest range worth a task of its own; below this a phase runs in one piece
+    static final int MIN_STUDENTS_PER_TASK = 1 << 12;
+    static final int MIN_GRADES_PER_TASK = 1 << 16;
+    // grades handed to GradeManager per call inside a task
+    private static final int GRADE_BATCH = 1 << 18;
+
+    private final int threads;
+    private ExecutorService pool;
+    private long readNanos;
+    private long studentNanos;
+    private long gradeNanos;
+
+    public ParallelLoader(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Loader with -Dgrades.load.threads threads, default one per available core.
+     */
+    public static ParallelLoader configured() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return new ParallelLoader(Math.max(1, Integer.getInteger(THREADS_PROPERTY, cores)));
+    }
+
+    /**
+     * Grade CSV files named by -Dgrades.import (comma-separated), or none.
+     */
+    public static List<Path> configuredImports() {
+        List<Path> files = new ArrayList<>();
+        String value = System.getProperty(IMPORT_PROPERTY, "").trim();
+        for (String name : value.split(",")) {
+            if (!name.isBlank()) {
+                files.add(Path.of(name.trim()));
+            }
+        }
+        return files;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * What a load did and where the time went.
+     */
+    public static final class Report {
+        private final SnapshotFile.Info backup;
+        private final int threads;
+        private final int students;
+        private final int grades;
+        private final int failed;
+        private final long readNanos;
+        private final long studentNanos;
+        private final long gradeNanos;
+        private final long finishNanos;
+        private final long totalNanos;
+
+        Report(SnapshotFile.Info backup, int threads, int students, int grades, int failed, long readNanos,
+               long studentNanos, long gradeNanos, long finishNanos, long totalNanos) {
+            this.backup = backup;
+            this.threads = threads;
+            this.students = students;
+            this.grades = grades;
+            this.failed = failed;
+            this.readNanos = readNanos;
+            this.studentNanos = studentNanos;
+            this.gradeNanos = gradeNanos;
+            this.finishNanos = finishNanos;
+            this.totalNanos = totalNanos;
+        }
+
+        // the last backup of the chain that was applied; null for an import
+        public SnapshotFile.Info getBackup() { return backup; }
+
+        public int getThreads() { return threads; }
+
+        public int getStudents() { return students; }
+
+        public int getGrades() { return grades; }
+
+        // import rows that could not be parsed or applied
+        public int getFailed() { return failed; }
+
+        public long getReadNanos() { return readNanos; }
+
+        public long getStudentNanos() { return studentNanos; }
+
+        public long getGradeNanos() { return gradeNanos; }
+
+        public long getFinishNanos() { return finishNanos; }
+
+        public long getTimeToReadyNanos() { return totalNanos; }
+
+        public double gradesPerSecond() {
+            return totalNanos == 0 ? 0 : grades * 1_000_000_000.0 / totalNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d students, %d grades%s ready in %.1f ms on %d threads "
+                            + "(read %.1f, students %.1f, grades %.1f, finish %.1f ms; %.0f grades/s)",
+                    students, grades, failed > 0 ? " (" + failed + " failed)" : "",
+                    totalNanos / 1e6, threads, readNanos / 1e6, studentNanos / 1e6, gradeNanos / 1e6,
+                    finishNanos / 1e6, gradesPerSecond());
+        }
+    }
+
+    // ========== Loads ==========
+
+    /**
+     * Restore a single full snapshot into an empty context.
+     * @throws IOException if the file is unreadable, not a snapshot or corrupt
+     */
+    public Report loadSnapshot(Path path, ApplicationContext context) throws IOException {
+        return load(path, context, false);
+    }
+
+    /**
+     * Restore a base snapshot and every increment of its chain into an empty
+     * context (see BackupChain).
+     * @throws IOException if any file is unreadable, corrupt or out of order
+     */
+    public Report loadChain(Path base, ApplicationContext context) throws IOException {
+        return load(base, context, true);
+    }
+
+    private Report load(Path path, ApplicationContext context, boolean chain) throws IOException {
+        long start = System.nanoTime();
+        begin();
+        try {
+            SnapshotFile.Info info = chain
+                    ? BackupChain.restore(path, context, this)
+                    : SnapshotFile.restore(path, context, this);
+            long finishStart = System.nanoTime();
+            context.getGradeManager().refreshAverages();
+            long end = System.nanoTime();
+            return new Report(info, threads, info.getStudents(), info.getGrades(), 0, readNanos,
+                    studentNanos, gradeNanos, end - finishStart, end - start);
+        } finally {
+            end();
+        }
+    }
+
+    /**
+     * Add the grades in a set of CSV files (StudentID,SubjectName,SubjectType,Grade,
+     * as exported by FileFormatManager) to registered students. Every file is
+     * split at line boundaries into ranges parsed in parallel; each range's
+     * valid rows go through the regular GradeManager.addGrades, so with a
+     * write-ahead log attached they are logged like any other import. Rows
+     * that do not parse, are out of range or name an unknown student are
+     * counted as failed and skipped.
+     * @throws IOException if a file cannot be read
+     */
+    public Report importGrades(List<Path> files, ApplicationContext context) throws IOException {
+        long start = System.nanoTime();
+        begin();
+        try {
+            List<byte[]> contents = new ArrayList<>();
+            List<int[]> ranges = new ArrayList<>(); // {file, from, to}
+            for (Path file : files) {
+                byte[] bytes = Files.readAllBytes(file);
+                int pieces = Math.max(1, Math.min(threads * 4, bytes.length / (1 << 20)));
+                int from = 0;
+                for (int p = 1; p <= pieces && from < bytes.length; p++) {
+                    int to = p == pieces ? bytes.length : lineStart(bytes, (int) ((long) bytes.length * p / pieces));
+                    if (to > from) {
+                        ranges.add(new int[] {contents.size(), from, to});
+                    }
+                    from = to;
+                }
+                contents.add(bytes);
+            }
+            readNanos = System.nanoTime() - start;
+
+            AtomicInteger imported = new AtomicInteger();
+            AtomicInteger failed = new AtomicInteger();
+            GradeManager gradeManager = context.getGradeManager();
+            long gradeStart = System.nanoTime();
+            forEachRange(ranges.size(), 1, (first, last) -> {
+                for (int r = first; r < last; r++) {
+                    int[] range = ranges.get(r);
+                    importRange(contents.get(range[0]), range[1], range[2], context, gradeManager,
+                            imported, failed);
+                }
+            });
+            gradeNanos = System.nanoTime() - gradeStart;
+            long end = System.nanoTime();
+            return new Report(null, threads, 0, imported.get(), failed.get(), readNanos, 0, gradeNanos, 0,
+                    end - start);
+        } finally {
+            end();
+        }
+    }
+
+    // First position at or after from that starts a line
+    private static int lineStart(byte[] bytes, int from) {
+        int i = from;
+        while (i > 0 && i < bytes.length && bytes[i - 1] != '\n') {
+            i++;
+        }
+        return i;
+    }
+
+    private static void importRange(byte[] bytes, int from, int to, ApplicationContext context,
+                                    GradeManager gradeManager, AtomicInteger imported, AtomicInteger failed) {
+        SubjectRegistry subjects = SubjectRegistry.getInstance();
+        String[] lines = new String(bytes, from, to - from, StandardCharsets.UTF_8).split("\r?\n");
+        int[] studentIds = new int[lines.length];
+        int[] subjectIds = new int[lines.length];
+        double[] values = new double[lines.length];
+        int n = 0;
+        for (String line : lines) {
+            if (line.isBlank() || line.regionMatches(true, 0, "StudentID", 0, 9)) {
+                continue;
+            }
+            String[] parts = line.split(",");
+            try {
+                if (parts.length != 4) {
+                    throw new IllegalArgumentException("Invalid column count (expected 4)");
+                }
+                int studentId = Integer.parseInt(parts[0].trim());
+                double grade = Double.parseDouble(parts[3].trim());
+                if (!Double.isFinite(grade) || grade < 0 || grade > 100 || context.getStudentById(studentId) == null) {
+                    throw new IllegalArgumentException("Bad grade or unknown student");
+                }
+                studentIds[n] = studentId;
+                subjectIds[n] = subjects.idOf(subjects.intern(parts[1].trim(), parts[2].trim()));
+                values[n] = grade;
+                n++;
+            } catch (RuntimeException badRow) {
+                failed.incrementAndGet();
+            }
+        }
+        int today = (int) LocalDate.now().toEpochDay();
+        for (int batchStart = 0; batchStart < n; batchStart += GRADE_BATCH) {
+            int count = Math.min(GRADE_BATCH, n - batchStart);
+            int[] gradeIds = new int[count];
+            int[] epochDays = new int[count];
+            int firstId = Grade.allocateIds(count);
+            for (int k = 0; k < count; k++) {
+                gradeIds[k] = firstId + k;
+                epochDays[k] = today;
+            }
+            try {
+                gradeManager.addGrades(gradeIds, slice(studentIds, batchStart, count), slice(subjectIds, batchStart, count),
+                        slice(values, batchStart, count), epochDays, count);
+                imported.addAndGet(count);
+            } catch (StudentNotFoundException | GradeStorageFullException e) {
+                failed.addAndGet(count);
+            }
+        }
+    }
+
+    private static int[] slice(int[] column, int from, int count) {
+        return from == 0 ? column : Arrays.copyOfRange(column, from, from + count);
+    }
+
+    private static double[] slice(double[] column, int from, int count) {
+        return from == 0 ? column : Arrays.copyOfRange(column, from, from + count);
+    }
+
+    // ========== Phases (used by SnapshotFile and BackupChain) ==========
+
+    /**
+     * Decode count students laid out from the buffer's position and register
+     * them in order; leaves the position after the last one.
+     */
+    void loadStudents(ByteBuffer in, int count, ApplicationContext context, Path path) throws IOException {
+        long start = System.nanoTime();
+        // one pass over the lengths only, so ranges can be decoded independently
+        int[] offsets = new int[count + 1];
+        int pos = in.position();
+        try {
+            for (int i = 0; i < count; i++) {
+                offsets[i] = pos;
+                pos += 9;
+                for (int field = 0; field < 3; field++) {
+                    pos += 2 + (in.getShort(pos) & 0xFFFF);
+                }
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IOException("Truncated student records in " + path, e);
+        }
+        offsets[count] = pos;
+
+        Student[] decoded = new Student[count];
+        forEachRange(count, MIN_STUDENTS_PER_TASK, (from, to) -> {
+            ByteBuffer local = in.duplicate();
+            local.position(offsets[from]);
+            for (int i = from; i < to; i++) {
+                decoded[i] = readStudent(local, path);
+            }
+        });
+
+        int maxStudentId = -1;
+        for (Student s : decoded) {
+            try {
+                context.addStudent(s);
+            } catch (IllegalArgumentException duplicate) {
+                throw new IOException("Student " + s.getId() + " appears twice in " + path, duplicate);
+            }
+            maxStudentId = Math.max(maxStudentId, s.getId());
+        }
+        if (maxStudentId >= context.getStudentIdCounter()) {
+            context.setStudentIdCounter(maxStudentId + 1);
+        }
+        in.position(pos);
+        studentNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Load n grades laid out column after column from the buffer's position
+     * through GradeManager.loadGrades; leaves the position after the columns.
+     */
+    void loadGrades(ByteBuffer in, int n, int[] subjectIds, GradeManager gradeManager, Path path)
+            throws IOException {
+        long start = System.nanoTime();
+        int base = in.position();
+        AtomicLong maxGradeId = new AtomicLong(-1);
+        forEachRange(n, MIN_GRADES_PER_TASK, (from, to) -> {
+            IntBuffer gradeIdColumn = in.slice(base, n * 4).asIntBuffer();
+            IntBuffer studentIdColumn = in.slice(base + n * 4, n * 4).asIntBuffer();
+            IntBuffer epochDayColumn = in.slice(base + n * 8, n * 4).asIntBuffer();
+            ShortBuffer subjectColumn = in.slice(base + n * 12, n * 2).asShortBuffer();
+            ShortBuffer gradeColumn = in.slice(base + n * 14, n * 2).asShortBuffer();
+
+            int batch = Math.min(to - from, GRADE_BATCH);
+            int[] gradeIds = new int[batch];
+            int[] studentIds = new int[batch];
+            int[] epochDays = new int[batch];
+            short[] shorts = new short[batch];
+            int[] subjects = new int[batch];
+            double[] values = new double[batch];
+            int maxId = -1;
+            for (int at = from; at < to; at += batch) {
+                int count = Math.min(batch, to - at);
+                gradeIdColumn.get(at, gradeIds, 0, count);
+                studentIdColumn.get(at, studentIds, 0, count);
+                epochDayColumn.get(at, epochDays, 0, count);
+                subjectColumn.get(at, shorts, 0, count);
+                for (int k = 0; k < count; k++) {
+                    int id = shorts[k] & 0xFFFF;
+                    if (id >= subjectIds.length) {
+                        throw new IOException("Backup refers to unknown subject " + id + ": " + path);
+                    }
+                    subjects[k] = subjectIds[id];
+                }
+                gradeColumn.get(at, shorts, 0, count);
+                for (int k = 0; k < count; k++) {
+                    values[k] = shorts[k] / 100.0;
+                    maxId = Math.max(maxId, gradeIds[k]);
+                }
+                try {
+                    gradeManager.loadGrades(gradeIds, studentIds, subjects, values, epochDays, count);
+                } catch (StudentNotFoundException | GradeStorageFullException e) {
+                    throw new IOException("Cannot restore grades from " + path + ": " + e.getMessage(), e);
+                }
+            }
+            maxGradeId.accumulateAndGet(maxId, Math::max);
+        });
+        Grade.reserveIdsThrough((int) maxGradeId.get());
+        in.position(base + n * 16);
+        gradeNanos += System.nanoTime() - start;
+    }
+
+    void addReadNanos(long nanos) {
+        readNanos += nanos;
+    }
+
+    private static Student readStudent(ByteBuffer in, Path path) throws IOException {
+        int id = in.getInt();
+        byte typeCode = in.get();
+        int age = in.getInt();
+        String name = SnapshotFile.readString(in);
+        String email = SnapshotFile.readString(in);
+        String phone = SnapshotFile.readString(in);
+        try {
+            return StudentFactory.createStudent(typeCode == StudentColumns.TYPE_HONORS ? 2 : 1,
+                    id, name, age, email, phone);
+        } catch (InvalidStudentDataException e) {
+            throw new IOException("Bad student record " + id + " in " + path, e);
+        }
+    }
+
+    // ========== Running ranges ==========
+
+    interface RangeTask {
+        void run(int from, int to) throws IOException;
+    }
+
+    /**
+     * Split [0, n) into ranges of at least minimum (up to four per thread)
+     * and run them on the pool, or on the caller when there is no pool or a
+     * single range. Waits for every range; the first failure is rethrown.
+     */
+    void forEachRange(int n, int minimum, RangeTask task) throws IOException {
+        int tasks = (int) Math.min((long) threads * 4, n / Math.max(1, minimum));
+        if (pool == null || tasks <= 1) {
+            if (n > 0) {
+                task.run(0, n);
+            }
+            return;
+        }
+        List<Future<?>> futures = new ArrayList<>(tasks);
+        for (int t = 0; t < tasks; t++) {
+            int from = (int) ((long) n * t / tasks);
+            int to = (int) ((long) n * (t + 1) / tasks);
+            futures.add(pool.submit(() -> {
+                task.run(from, to);
+                return null;
+            }));
+        }
+        Throwable failure = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                throw new InterruptedIOException("Load interrupted");
+            }
+        }
+        if (failure instanceof IOException io) {
+            throw io;
+        }
+        if (failure instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        if (failure != null) {
+            throw new IOException(failure);
+        }
+    }
+
+    private void begin() {
+        readNanos = 0;
+        studentNanos = 0;
+        gradeNanos = 0;
+        if (threads > 1) {
+            AtomicInteger count = new AtomicInteger();
+            pool = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "loader-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    private void end() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+}
@@ -0,0 +1,368 @@
+package persistence;
+
+import context.ApplicationContext;
+import context.StudentColumns;
+import context.StudentRegistry;
+import context.StudentSnapshot;
+import core.Student;
+import core.Subject;
+import manager.GradeManager;
+import manager.GradeSnapshot;
+import manager.SubjectRegistry;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Full binary snapshot of all students and grades, written by the daily
+ * backup task and restored on startup.
+ *
+ * Layout (big-endian, version 1):
+ *   header    magic "GSNP", version, created (epoch ms), write-ahead log
+ *             sequence, subject/student/grade counts, reserved
+ *   subjects  name and type, in SubjectRegistry id order
+ *   students  id, type code, age, name, email, phone
+ *   padding   to an 8-byte boundary
+ *   grades    one column after another: grade ids, student ids, epoch days
+ *             (ints), then subject ids and grades in hundredths (shorts)
+ *   trailer   CRC32C of every byte before it
+ * so a grade costs 16 bytes, like in GradeStore, and no Java serialization is
+ * involved. Restore maps the file, checks the CRC, and reads the grade
+ * columns in bulk straight into GradeManager.loadGrades, which rebuilds every
+ * index batch by batch; no Grade object is created. ParallelLoader does the
+ * decoding and loading on several threads.
+ *
+ * The log sequence number is the first write-ahead log record the snapshot
+ * does not contain; after a restore the log is replayed from there.
+ */
+public final class SnapshotFile {
+
+    public static final Path BACKUP_DIR = Path.of("backups");
+    public static final String RESTORE_PROPERTY = "grades.restore";
+
+    static final int MAGIC = 0x47534E50; // "GSNP"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 40;
+    static final String PREFIX = "snapshot_";
+    static final String SUFFIX = ".gsnap";
+
+    private SnapshotFile() { }
+
+    /**
+     * What a backup holds, where it sits in its chain (a base snapshot is
+     * position 0, its increments 1, 2, ...) and, for a restore, how long it took.
+     * Student and grade counts are totals up to and including this backup.
+     */
+    public static final class Info {
+        private final Path path;
+        private final long createdMillis;
+        private final long chainId;
+        private final int chainIndex;
+        private final long walSequence;
+        private final int students;
+        private final int grades;
+        private final long bytes;
+        private final long elapsedNanos;
+
+        Info(Path path, long createdMillis, long chainId, int chainIndex, long walSequence,
+             int students, int grades, long bytes, long elapsedNanos) {
+            this.path = path;
+            this.createdMillis = createdMillis;
+            this.chainId = chainId;
+            this.chainIndex = chainIndex;
+            this.walSequence = walSequence;
+            this.students = students;
+            this.grades = grades;
+            this.bytes = bytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public Path getPath() { return path; }
+
+        public long getCreatedMillis() { return createdMillis; }
+
+        // creation time of the chain's base snapshot
+        public long getChainId() { return chainId; }
+
+        public int getChainIndex() { return chainIndex; }
+
+        // first write-ahead log record not contained in the snapshot
+        public long getWalSequence() { return walSequence; }
+
+        public int getStudents() { return students; }
+
+        public int getGrades() { return grades; }
+
+        public long getBytes() { return bytes; }
+
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d students, %d grades, %d bytes in %.1f ms",
+                    path, students, grades, bytes, elapsedNanos / 1_000_000.0);
+        }
+    }
+
+    /**
+     * File name for a snapshot taken now, e.g. snapshot_20240101_010000.gsnap;
+     * names sort by time.
+     */
+    public static Path newPath(Path dir, String timestamp) {
+        return dir.resolve(PREFIX + timestamp + SUFFIX);
+    }
+
+    /**
+     * Most recent snapshot in dir, or null if there is none.
+     */
+    public static Path latest(Path dir) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return null;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> {
+                String name = p.getFileName().toString();
+                return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+            }).max(Path::compareTo).orElse(null);
+        }
+    }
+
+    /**
+     * Snapshot to restore on startup: -Dgrades.restore=path, or "none" for
+     * none; by default the latest one in BACKUP_DIR (null if there is none).
+     */
+    public static Path configuredRestore() throws IOException {
+        String value = System.getProperty(RESTORE_PROPERTY, "latest").trim();
+        if (value.equalsIgnoreCase("none")) {
+            return null;
+        }
+        return value.equalsIgnoreCase("latest") ? latest(BACKUP_DIR) : Path.of(value);
+    }
+
+    // ========== Writing ==========
+
+    /**
+     * Write a snapshot of the registry and grade manager to path.
+     * With a write-ahead log, the point-in-time views are taken at a log
+     * checkpoint and the records they cover are dropped from the log once the
+     * snapshot is on disk. The file appears atomically: a crash mid-write
+     * leaves only a stray .tmp file.
+     */
+    public static Info write(Path path, StudentRegistry students, GradeManager gradeManager, WriteAheadLog wal)
+            throws IOException {
+        long start = System.nanoTime();
+        Capture capture = Capture.take(students, gradeManager, wal);
+        long created = System.currentTimeMillis();
+        StudentSnapshot studentView = capture.students;
+        GradeSnapshot gradeView = capture.grades;
+
+        Path tmp = tempFile(path);
+        long bytes;
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            BinaryOutput out = BinaryOutput.plain(channel);
+            List<Subject> subjects = SubjectRegistry.getInstance().getAll();
+            out.ensure(HEADER_BYTES);
+            out.buffer.putInt(MAGIC).putInt(VERSION).putLong(created).putLong(capture.walSequence())
+                    .putInt(subjects.size()).putInt(studentView.size()).putInt(gradeView.size()).putInt(0);
+            writeSubjects(out, subjects);
+            writeStudents(out, studentView, 0, studentView.size());
+            out.padTo(8);
+            writeGrades(out, gradeView, 0, gradeView.size());
+            bytes = out.finishWithChecksum();
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        capture.release();
+        return new Info(path, created, created, 0, capture.walSequence(), studentView.size(), gradeView.size(),
+                bytes, System.nanoTime() - start);
+    }
+
+    // Temporary sibling a backup is written to before it is renamed into place
+    static Path tempFile(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        return path.resolveSibling(path.getFileName() + ".tmp");
+    }
+
+    static void writeSubjects(BinaryOutput out, List<Subject> subjects) throws IOException {
+        for (Subject subject : subjects) {
+            out.putString(subject.getSubjectName());
+            out.putString(subject.getSubjectType());
+        }
+    }
+
+    // Students at positions from .. to-1 of the snapshot
+    static void writeStudents(BinaryOutput out, StudentSnapshot students, int from, int to) throws IOException {
+        for (int i = from; i < to; i++) {
+            Student s = students.get(i);
+            out.ensure(9);
+            out.buffer.putInt(s.getId()).put(StudentColumns.typeCode(s.getType())).putInt(s.getAge());
+            out.putString(s.getName());
+            out.putString(s.getEmail());
+            out.putString(s.getPhone());
+        }
+    }
+
+    // Grades at positions from .. to-1 of the snapshot, column after column
+    static void writeGrades(BinaryOutput out, GradeSnapshot grades, int from, int to) throws IOException {
+        for (int i = from; i < to; i++) {
+            out.ensure(4);
+            out.buffer.putInt(grades.getGradeId(i));
+        }
+        for (int i = from; i < to; i++) {
+            out.ensure(4);
+            out.buffer.putInt(grades.getStudentId(i));
+        }
+        for (int i = from; i < to; i++) {
+            out.ensure(4);
+            out.buffer.putInt(grades.getEpochDay(i));
+        }
+        for (int i = from; i < to; i++) {
+            out.ensure(2);
+            out.buffer.putShort((short) grades.getSubjectId(i));
+        }
+        for (int i = from; i < to; i++) {
+            out.ensure(2);
+            out.buffer.putShort((short) grades.getGradeHundredths(i));
+        }
+    }
+
+    /**
+     * Point-in-time views of students and grades, taken at a write-ahead log
+     * checkpoint when there is a log.
+     */
+    static final class Capture implements Runnable {
+        private final StudentRegistry registry;
+        private final GradeManager gradeManager;
+        private WriteAheadLog wal;
+        private WriteAheadLog.Checkpoint checkpoint;
+        StudentSnapshot students;
+        GradeSnapshot grades;
+
+        private Capture(StudentRegistry registry, GradeManager gradeManager) {
+            this.registry = registry;
+            this.gradeManager = gradeManager;
+        }
+
+        static Capture take(StudentRegistry registry, GradeManager gradeManager, WriteAheadLog wal) {
+            Capture capture = new Capture(registry, gradeManager);
+            if (wal == null) {
+                capture.run();
+            } else {
+                capture.wal = wal;
+                capture.checkpoint = wal.checkpoint(capture);
+            }
+            return capture;
+        }
+
+        @Override
+        public void run() {
+            students = registry.snapshot();
+            grades = gradeManager.snapshot();
+        }
+
+        long walSequence() {
+            return checkpoint == null ? 0 : checkpoint.getSequence();
+        }
+
+        // The backup is on disk: drop the log records it covers
+        void release() throws IOException {
+            if (checkpoint != null) {
+                wal.truncateBefore(checkpoint);
+            }
+        }
+    }
+
+    // ========== Restoring ==========
+
+    /**
+     * Load a snapshot into an empty context: registers every student, then
+     * adds the grades in large column batches so all indexes are rebuilt.
+     * Runs on the calling thread; ParallelLoader.loadSnapshot uses all cores.
+     * The write-ahead log must not be attached yet.
+     * @throws IOException if the file is unreadable, not a snapshot or corrupt
+     */
+    public static Info restore(Path path, ApplicationContext context) throws IOException {
+        return new ParallelLoader(1).loadSnapshot(path, context).getBackup();
+    }
+
+    // Student averages are left for the loader to compute once at the end
+    static Info restore(Path path, ApplicationContext context, ParallelLoader loader) throws IOException {
+        long start = System.nanoTime();
+        if (!context.getStudents().isEmpty() || context.getGradeManager().getGradeCount() > 0) {
+            throw new IllegalStateException("Restore needs an empty context");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES + 4) {
+                throw new IOException("Truncated snapshot: " + path);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map: " + size + " bytes");
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int body = (int) size - 4;
+            CRC32C crc = new CRC32C();
+            crc.update(map.slice(0, body));
+            if ((int) crc.getValue() != map.getInt(body)) {
+                throw new IOException("Snapshot checksum mismatch: " + path);
+            }
+            loader.addReadNanos(System.nanoTime() - start);
+
+            ByteBuffer in = map.slice(0, body);
+            if (in.getInt() != MAGIC) {
+                throw new IOException("Not a snapshot: " + path);
+            }
+            int version = in.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + path);
+            }
+            long created = in.getLong();
+            long walSequence = in.getLong();
+            int subjectCount = in.getInt();
+            int studentCount = in.getInt();
+            int gradeCount = in.getInt();
+            in.getInt(); // reserved
+
+            int[] subjectIds = readSubjects(in, subjectCount);
+            loader.loadStudents(in, studentCount, context, path);
+            in.position((in.position() + 7) & ~7);
+            loader.loadGrades(in, gradeCount, subjectIds, context.getGradeManager(), path);
+
+            return new Info(path, created, created, 0, walSequence, studentCount, gradeCount, size,
+                    System.nanoTime() - start);
+        }
+    }
+
+    // Canonical SubjectRegistry id for each subject position in the file
+    static int[] readSubjects(ByteBuffer in, int count) {
+        SubjectRegistry registry = SubjectRegistry.getInstance();
+        int[] subjectIds = new int[count];
+        for (int i = 0; i < count; i++) {
+            String name = readString(in);
+            String type = readString(in);
+            subjectIds[i] = registry.idOf(registry.intern(name, type));
+        }
+        return subjectIds;
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,472 @@
+package persistence;
+
+import context.StudentColumns;
+import context.StudentRegistry;
+import context.StudentSnapshot;
+import core.Grade;
+import core.Student;
+import core.Subject;
+import exception.InvalidStudentDataException;
+import manager.GradeManager;
+import manager.GradeSnapshot;
+import manager.SubjectRegistry;
+import models.StudentFactory;
+import storage.BPlusTree;
+import storage.BufferPool;
+import storage.GradeStore;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Disk-backed store of students and their grade postings, for archives that
+ * do not fit in the heap. Three B+-trees share one page file and a bounded
+ * {@link BufferPool}:
+ *   students  student id -> type code, age, name, email, phone
+ *   postings  (student id << 32 | grade id) -> subject, grade in hundredths,
+ *             epoch day; one student's grades are one contiguous key range
+ *   subjects  archive subject id -> name and type (ids are the archive's
+ *             own, SubjectRegistry ids are not stable across runs)
+ * Page 0 is the header: magic "GARC", version, page size, state, the three
+ * tree roots, the student, grade and subject counts and the highest student
+ * and grade ids.
+ *
+ * Only the pool's pages are in memory, so a lookup costs at most a few page
+ * reads and hot students are served from the pool without touching the disk.
+ * GradeManager and StudentService fall back to the archive for students
+ * that are not registered in memory (see ApplicationContext.setArchive).
+ *
+ * An archive is written once and then only read: create() returns a
+ * writable one, which ArchiveMigration fills in a temporary file and moves
+ * into place; open() returns a read-only one. The header records whether
+ * the file was flushed after its last change (the first change marks it
+ * open on disk before any page can be written back, close() marks it clean
+ * again), so needsRebuild() can tell a file a crash left half-written.
+ *
+ * Thread-safety: reads run concurrently; writes are serialized on the archive.
+ */
+public final class StudentArchive implements Closeable {
+
+    public static final String PATH_PROPERTY = "grades.archive";
+    public static final String POOL_PROPERTY = "grades.archive.poolPages";
+    // Set the unclean archive aside and start with an empty one
+    public static final String REBUILD_PROPERTY = "grades.archive.rebuild";
+    public static final int DEFAULT_POOL_PAGES = 4096; // 32 MiB of 8 KiB pages
+
+    static final int MAGIC = 0x47415243; // "GARC"
+    static final int VERSION = 1;
+    private static final int STATE_CLEAN = 1;
+    private static final int STATE_OPEN = 2;
+    private static final int HEADER_PAGE = 0;
+
+    /**
+     * Called for each archived grade of a student, in grade id order.
+     */
+    public interface GradeVisitor {
+        void visit(int gradeId, Subject subject, double grade, int epochDay);
+    }
+
+    private final Path path;
+    private final BufferPool pool;
+    private final BPlusTree students;
+    private final BPlusTree postings;
+    private final BPlusTree subjectTree;
+    // read without locking by scans, so a writer never waits on a reader here
+    private final List<Subject> subjects = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> subjectIds = new HashMap<>();
+    private final boolean readOnly;
+    private volatile int studentCount;
+    private volatile long gradeCount;
+    private int maxStudentId;
+    private int maxGradeId;
+    private boolean clean;
+    private boolean closed;
+
+    private StudentArchive(Path path, BufferPool pool, boolean readOnly, int studentRoot, int postingRoot,
+                           int subjectRoot, int studentCount, long gradeCount) {
+        this.path = path;
+        this.readOnly = readOnly;
+        this.pool = pool;
+        this.students = new BPlusTree(pool, studentRoot);
+        this.postings = new BPlusTree(pool, postingRoot);
+        this.subjectTree = new BPlusTree(pool, subjectRoot);
+        this.studentCount = studentCount;
+        this.gradeCount = gradeCount;
+        this.clean = true;
+    }
+
+    /**
+     * A new, empty, writable archive at path with a pool of poolPages pages.
+     * @throws IOException if the file already has content
+     */
+    public static StudentArchive create(Path path, int poolPages) throws IOException {
+        if (Files.exists(path) && Files.size(path) > 0) {
+            throw new IOException("Archive " + path + " already exists");
+        }
+        BufferPool pool = new BufferPool(path, poolPages);
+        try {
+            int header = pool.allocate();
+            if (header != HEADER_PAGE) {
+                throw new IOException("Archive " + path + " does not start empty");
+            }
+            StudentArchive archive = new StudentArchive(path, pool, false, BPlusTree.create(pool),
+                    BPlusTree.create(pool), BPlusTree.create(pool), 0, 0);
+            archive.writeHeader(STATE_CLEAN);
+            pool.flush();
+            return archive;
+        } catch (IOException | RuntimeException e) {
+            pool.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Open the archive at path for reading, with a pool of poolPages pages.
+     * A missing file is created as an empty archive.
+     * @throws IOException if the file is not an archive or was not closed
+     *         cleanly (see needsRebuild)
+     */
+    public static StudentArchive open(Path path, int poolPages) throws IOException {
+        if (!Files.exists(path) || Files.size(path) == 0) {
+            create(path, poolPages).close();
+        }
+        BufferPool pool = new BufferPool(path, poolPages);
+        try {
+            StudentArchive archive;
+            ByteBuffer p = pool.pin(HEADER_PAGE);
+            try {
+                if (p.getInt(0) != MAGIC) {
+                    throw new IOException("Not a student archive: " + path);
+                }
+                if (p.getInt(4) != VERSION || p.getInt(8) != BufferPool.PAGE_SIZE) {
+                    throw new IOException("Unsupported archive version " + p.getInt(4) + ": " + path);
+                }
+                if (p.getInt(12) != STATE_CLEAN) {
+                    throw new IOException("Archive " + path + " was not closed cleanly; rebuild it");
+                }
+                archive = new StudentArchive(path, pool, true, p.getInt(16), p.getInt(20), p.getInt(24),
+                        p.getInt(28), p.getLong(32));
+                archive.maxStudentId = p.getInt(44);
+                archive.maxGradeId = p.getInt(48);
+            } finally {
+                pool.unpin(HEADER_PAGE, false);
+            }
+            archive.loadSubjects();
+            return archive;
+        } catch (IOException | RuntimeException e) {
+            pool.close();
+            throw e;
+        }
+    }
+
+    /**
+     * True if the file at path is an archive that was changed and not closed
+     * cleanly, so open() would refuse it. Such a file can only be set aside
+     * (see REBUILD_PROPERTY) and the archive migrated again.
+     */
+    public static boolean needsRebuild(Path path) throws IOException {
+        if (!Files.exists(path) || Files.size(path) < 16) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(16);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read the fixed fields
+            }
+            return header.getInt(0) == MAGIC && header.getInt(12) != STATE_CLEAN;
+        }
+    }
+
+    /**
+     * Move an archive that needs a rebuild to path.unclean, kept for
+     * inspection, so open() starts an empty one at path. Returns the new
+     * location.
+     */
+    public static Path setAside(Path path) throws IOException {
+        Path aside = path.resolveSibling(path.getFileName() + ".unclean");
+        Files.move(path, aside, StandardCopyOption.REPLACE_EXISTING);
+        return aside;
+    }
+
+    /**
+     * True if -Dgrades.archive.rebuild=true allows setting an unclean
+     * archive aside at startup.
+     */
+    public static boolean configuredRebuild() {
+        return Boolean.getBoolean(REBUILD_PROPERTY);
+    }
+
+    /**
+     * Archive file named by -Dgrades.archive, or null if there is none.
+     */
+    public static Path configuredPath() {
+        String value = System.getProperty(PATH_PROPERTY, "").trim();
+        return value.isEmpty() ? null : Path.of(value);
+    }
+
+    /**
+     * Pool size from -Dgrades.archive.poolPages, default DEFAULT_POOL_PAGES.
+     */
+    public static int configuredPoolPages() {
+        return Math.max(BufferPool.MIN_CAPACITY, Integer.getInteger(POOL_PROPERTY, DEFAULT_POOL_PAGES));
+    }
+
+    // ========== Reads ==========
+
+    /**
+     * The archived student with this id, or null.
+     */
+    public Student getStudent(int id) throws IOException {
+        byte[] value = students.get(id);
+        return value == null ? null : decodeStudent(id, ByteBuffer.wrap(value));
+    }
+
+    public boolean containsStudent(int id) throws IOException {
+        return students.get(id) != null;
+    }
+
+    /**
+     * Visit every archived grade of a student.
+     * Big-O: O(log n + that student's grades), one leaf walk.
+     */
+    public void forEachGrade(int studentId, GradeVisitor visitor) throws IOException {
+        long first = (long) studentId << 32;
+        postings.scan(first, first | 0xFFFFFFFFL, (key, value) -> {
+            visitor.visit((int) key, subjectAt(value.getShort(0) & 0xFFFF), value.getShort(2) / 100.0,
+                    value.getInt(4));
+            return true;
+        });
+    }
+
+    /**
+     * Every archived grade of a student as Grade objects, in grade id order.
+     */
+    public List<Grade> getGrades(int studentId) throws IOException {
+        List<Grade> grades = new ArrayList<>();
+        forEachGrade(studentId, (gradeId, subject, grade, epochDay) ->
+                grades.add(new Grade(gradeId, studentId, subject, grade, epochDay)));
+        return grades;
+    }
+
+    public int getStudentCount() { return studentCount; }
+
+    public long getGradeCount() { return gradeCount; }
+
+    // Highest ids in the archive, so new students and grades do not reuse them
+    public synchronized int getMaxStudentId() { return maxStudentId; }
+
+    public synchronized int getMaxGradeId() { return maxGradeId; }
+
+    public boolean isReadOnly() { return readOnly; }
+
+    public BufferPool getBufferPool() { return pool; }
+
+    public Path getPath() { return path; }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d students, %d grades; pool %s", path, studentCount, gradeCount, pool);
+    }
+
+    // ========== Writes ==========
+
+    /**
+     * Store a student, replacing an archived one with the same id.
+     */
+    public synchronized void putStudent(Student s) throws IOException {
+        beginChange();
+        if (students.put(s.getId(), encodeStudent(s))) {
+            studentCount++;
+        }
+        maxStudentId = Math.max(maxStudentId, s.getId());
+    }
+
+    /**
+     * Add (or replace) one grade posting of an archived student.
+     */
+    public synchronized void addGrade(int gradeId, int studentId, Subject subject, double grade, int epochDay)
+            throws IOException {
+        beginChange();
+        byte[] value = ByteBuffer.allocate(8).putShort((short) archiveSubjectId(subject))
+                .putShort((short) GradeStore.toHundredths(grade)).putInt(epochDay).array();
+        if (postings.put(((long) studentId << 32) | (gradeId & 0xFFFFFFFFL), value)) {
+            gradeCount++;
+        }
+        maxGradeId = Math.max(maxGradeId, gradeId);
+    }
+
+    /**
+     * Copy every student and grade of another archive into this one, e.g.
+     * to carry an existing archive over into a new one being built.
+     * Big-O: O(n) page reads and inserts; other's subject ids are remapped.
+     */
+    public synchronized void copyFrom(StudentArchive other) throws IOException {
+        other.students.scan(Long.MIN_VALUE, Long.MAX_VALUE, (key, value) -> {
+            byte[] record = new byte[value.remaining()];
+            value.duplicate().get(record);
+            beginChange();
+            if (students.put(key, record)) {
+                studentCount++;
+            }
+            maxStudentId = Math.max(maxStudentId, (int) key);
+            return true;
+        });
+        other.postings.scan(Long.MIN_VALUE, Long.MAX_VALUE, (key, value) -> {
+            addGrade((int) key, (int) (key >>> 32), other.subjectAt(value.getShort(0) & 0xFFFF),
+                    value.getShort(2) / 100.0, value.getInt(4));
+            return true;
+        });
+    }
+
+    /**
+     * Copy every student and grade in memory into the archive, e.g. to move
+     * a school's records to disk before its data is dropped from the heap.
+     * Returns the number of grades copied.
+     */
+    public synchronized int copyFrom(StudentRegistry registry, GradeManager gradeManager) throws IOException {
+        StudentSnapshot studentView = registry.snapshot();
+        GradeSnapshot gradeView = gradeManager.snapshot();
+        SubjectRegistry registered = SubjectRegistry.getInstance();
+        for (int i = 0; i < studentView.size(); i++) {
+            putStudent(studentView.get(i));
+        }
+        for (int i = 0; i < gradeView.size(); i++) {
+            addGrade(gradeView.getGradeId(i), gradeView.getStudentId(i), registered.get(gradeView.getSubjectId(i)),
+                    gradeView.getGradeHundredths(i) / 100.0, gradeView.getEpochDay(i));
+        }
+        return gradeView.size();
+    }
+
+    /**
+     * Write every changed page and mark the archive clean on disk.
+     */
+    public synchronized void flush() throws IOException {
+        if (clean) {
+            return;
+        }
+        writeHeader(STATE_CLEAN);
+        pool.flush();
+        clean = true;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        flush();
+        pool.close();
+        closed = true;
+    }
+
+    // Mark the file open on disk before the first changed page can reach it
+    private void beginChange() throws IOException {
+        if (readOnly) {
+            throw new IllegalStateException("Archive " + path + " is read-only; use ArchiveMigration to change it");
+        }
+        if (clean) {
+            writeHeader(STATE_OPEN);
+            pool.flush();
+            clean = false;
+        }
+    }
+
+    private void writeHeader(int state) throws IOException {
+        ByteBuffer p = pool.pin(HEADER_PAGE);
+        p.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, BufferPool.PAGE_SIZE).putInt(12, state)
+                .putInt(16, students.getRoot()).putInt(20, postings.getRoot()).putInt(24, subjectTree.getRoot())
+                .putInt(28, studentCount).putLong(32, gradeCount).putInt(40, subjects.size())
+                .putInt(44, maxStudentId).putInt(48, maxGradeId);
+        pool.unpin(HEADER_PAGE, true);
+    }
+
+    // ========== Subjects ==========
+
+    private void loadSubjects() throws IOException {
+        subjectTree.scan(0, Long.MAX_VALUE, (key, value) -> {
+            Subject subject = SubjectRegistry.getInstance().intern(SnapshotFile.readString(value),
+                    SnapshotFile.readString(value));
+            subjectIds.put(subjectKey(subject), subjects.size());
+            subjects.add(subject);
+            return true;
+        });
+    }
+
+    private Subject subjectAt(int archiveId) {
+        return subjects.get(archiveId);
+    }
+
+    // Called with the archive locked
+    private int archiveSubjectId(Subject subject) throws IOException {
+        Integer id = subjectIds.get(subjectKey(subject));
+        if (id != null) {
+            return id;
+        }
+        int next = subjects.size();
+        if (next > Short.MAX_VALUE) {
+            throw new IllegalStateException("Too many distinct subjects in archive " + path);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        writeString(out, subject.getSubjectName());
+        writeString(out, subject.getSubjectType());
+        subjectTree.put(next, bytes.toByteArray());
+        subjects.add(SubjectRegistry.getInstance().intern(subject));
+        subjectIds.put(subjectKey(subject), next);
+        return next;
+    }
+
+    private static String subjectKey(Subject subject) {
+        return subject.getSubjectType() + '\u0000' + subject.getSubjectName();
+    }
+
+    // ========== Student records ==========
+
+    private static byte[] encodeStudent(Student s) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(StudentColumns.typeCode(s.getType()));
+        out.writeInt(s.getAge());
+        writeString(out, s.getName());
+        writeString(out, s.getEmail());
+        writeString(out, s.getPhone());
+        return bytes.toByteArray();
+    }
+
+    // Short length and UTF-8 bytes, as SnapshotFile.readString expects
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IOException("String too long for the archive");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private Student decodeStudent(int id, ByteBuffer in) throws IOException {
+        byte typeCode = in.get();
+        int age = in.getInt();
+        String name = SnapshotFile.readString(in);
+        String email = SnapshotFile.readString(in);
+        String phone = SnapshotFile.readString(in);
+        try {
+            return StudentFactory.createStudent(typeCode == StudentColumns.TYPE_HONORS ? 2 : 1,
+                    id, name, age, email, phone);
+        } catch (InvalidStudentDataException e) {
+            throw new IOException("Bad archived student " + id + " in " + path, e);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package persistence;
+
+import context.ApplicationContext;
+import context.StudentColumns;
+import core.Grade;
+import core.Student;
+import core.Subject;
+import exception.GradeStorageFullException;
+import exception.InvalidStudentDataException;
+import exception.StudentNotFoundException;
+import manager.SubjectRegistry;
+import models.StudentFactory;
+import storage.IntObjectMap;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.zip.CRC32C;
+
+/**
+ * Rebuilds application state from a {@link WriteAheadLog} file.
+ *
+ * The file is memory-mapped and scanned once. Students are registered as they
+ * are read; grades are collected and handed to GradeManager.addGrades in
+ * batches, so the per-student aggregates and indexes are updated once per
+ * batch rather than once per record. Reading stops at the first record that
+ * is incomplete or fails its CRC (the tail of a write interrupted by a crash),
+ * and the file is truncated there so the next append starts on a clean record.
+ *
+ * Replay must run before the log is attached to the context, or every
+ * replayed record would be logged again. After a snapshot restore, replay
+ * starts from the snapshot's log sequence number so the records it already
+ * holds are not applied twice.
+ */
+public final class WalReplayer {
+
+    private static final int GRADE_BATCH = 8192;
+
+    private WalReplayer() { }
+
+    /**
+     * What a replay read and applied.
+     */
+    public static final class ReplayStats {
+        private int students;
+        private int grades;
+        private int skipped;
+        private long validBytes;
+        private long truncatedBytes;
+        private long elapsedNanos;
+        private long nextSequence;
+
+        public int getStudents() { return students; }
+
+        public int getGrades() { return grades; }
+
+        // records that were intact but could not be applied (e.g. duplicate student id)
+        public int getSkipped() { return skipped; }
+
+        public long getValidBytes() { return validBytes; }
+
+        // bytes of torn or corrupt tail that were cut off
+        public long getTruncatedBytes() { return truncatedBytes; }
+
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        // sequence number for the next record appended to the log
+        public long getNextSequence() { return nextSequence; }
+
+        public int getRecords() { return students + grades + skipped; }
+
+        public double recordsPerSecond() {
+            return elapsedNanos == 0 ? 0 : getRecords() * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d students, %d grades, %d skipped in %.1f ms (%.0f records/s)%s",
+                    students, grades, skipped, elapsedNanos / 1_000_000.0, recordsPerSecond(),
+                    truncatedBytes > 0 ? ", truncated " + truncatedBytes + " bytes of torn tail" : "");
+        }
+    }
+
+    /**
+     * Replay the whole log at path into the context's registry and grade manager.
+     * A missing or empty file replays nothing.
+     * @throws IOException if the file cannot be read or is not a write-ahead log
+     */
+    public static ReplayStats replay(Path path, ApplicationContext context) throws IOException {
+        return replay(path, context, 0);
+    }
+
+    /**
+     * Replay the records numbered fromSequence and up (e.g. the ones after a
+     * restored snapshot).
+     * @throws IOException if the file cannot be read, is not a write-ahead log,
+     *         or starts after fromSequence (records in between are missing)
+     */
+    public static ReplayStats replay(Path path, ApplicationContext context, long fromSequence) throws IOException {
+        ReplayStats stats = new ReplayStats();
+        stats.nextSequence = fromSequence;
+        long start = System.nanoTime();
+        if (!Files.exists(path)) {
+            return stats;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size < WriteAheadLog.HEADER_BYTES) {
+                stats.truncatedBytes = size;
+                channel.truncate(0);
+                stats.elapsedNanos = System.nanoTime() - start;
+                return stats;
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Write-ahead log too large to replay: " + size + " bytes");
+            }
+            long base = WriteAheadLog.checkHeader(channel, path);
+            if (base > fromSequence) {
+                throw new IOException("Write-ahead log " + path + " starts at record " + base
+                        + " but replay needs records from " + fromSequence + "; restore a newer snapshot");
+            }
+
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            long end = apply(map, (int) size, context, stats, base, fromSequence);
+
+            stats.validBytes = end;
+            if (end < size) {
+                stats.truncatedBytes = size - end;
+                channel.truncate(end);
+                channel.force(true);
+            }
+        }
+        stats.elapsedNanos = System.nanoTime() - start;
+        return stats;
+    }
+
+    // Returns the offset just past the last intact record
+    private static int apply(ByteBuffer map, int size, ApplicationContext context, ReplayStats stats,
+                             long sequence, long fromSequence) {
+        SubjectRegistry registry = SubjectRegistry.getInstance();
+        IntObjectMap<Subject> subjects = new IntObjectMap<>();
+        ArrayList<Grade> batch = new ArrayList<>(GRADE_BATCH);
+        CRC32C crc = new CRC32C();
+        int maxStudentId = -1;
+        int maxGradeId = -1;
+
+        int pos = WriteAheadLog.HEADER_BYTES;
+        while (pos + WriteAheadLog.RECORD_HEADER_BYTES <= size) {
+            int length = map.getInt(pos);
+            int expected = map.getInt(pos + 4);
+            int body = pos + WriteAheadLog.RECORD_HEADER_BYTES;
+            if (length <= 0 || length > WriteAheadLog.MAX_RECORD_BYTES || length > size - body) {
+                break;
+            }
+            crc.reset();
+            crc.update(map.slice(body, length));
+            if ((int) crc.getValue() != expected) {
+                break;
+            }
+            ByteBuffer record = map.slice(body + 1, length - 1);
+            byte recordType = map.get(body);
+            pos = body + length;
+            if (recordType == WriteAheadLog.TYPE_STUDENT || recordType == WriteAheadLog.TYPE_GRADE) {
+                if (sequence++ < fromSequence) {
+                    continue; // already in the restored snapshot
+                }
+            }
+            switch (recordType) {
+                case WriteAheadLog.TYPE_STUDENT -> {
+                    Student s = readStudent(record);
+                    if (s == null) {
+                        stats.skipped++;
+                        break;
+                    }
+                    try {
+                        context.addStudent(s);
+                        maxStudentId = Math.max(maxStudentId, s.getId());
+                        stats.students++;
+                    } catch (IllegalArgumentException duplicate) {
+                        stats.skipped++;
+                    }
+                }
+                case WriteAheadLog.TYPE_SUBJECT -> {
+                    int id = record.getShort() & 0xFFFF;
+                    String name = readString(record);
+                    String type = readString(record);
+                    subjects.put(id, registry.intern(name, type));
+                }
+                case WriteAheadLog.TYPE_GRADE -> {
+                    int gradeId = record.getInt();
+                    int studentId = record.getInt();
+                    Subject subject = subjects.get(record.getShort() & 0xFFFF);
+                    double value = record.getDouble();
+                    int epochDay = record.getInt();
+                    if (subject == null) {
+                        stats.skipped++;
+                        break;
+                    }
+                    batch.add(new Grade(gradeId, studentId, subject, value, epochDay));
+                    maxGradeId = Math.max(maxGradeId, gradeId);
+                    if (batch.size() == GRADE_BATCH) {
+                        flush(batch, context, stats);
+                    }
+                }
+                default -> stats.skipped++;
+            }
+        }
+        flush(batch, context, stats);
+        stats.nextSequence = Math.max(sequence, fromSequence);
+
+        if (maxStudentId >= context.getStudentIdCounter()) {
+            context.setStudentIdCounter(maxStudentId + 1);
+        }
+        Grade.reserveIdsThrough(maxGradeId);
+        return pos;
+    }
+
+    private static void flush(ArrayList<Grade> batch, ApplicationContext context, ReplayStats stats) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            context.getGradeManager().addGrades(batch);
+            stats.grades += batch.size();
+        } catch (StudentNotFoundException | GradeStorageFullException | RuntimeException e) {
+            // fall back to one at a time so one bad record does not drop the batch
+            for (Grade g : batch) {
+                try {
+                    context.getGradeManager().addGrade(g);
+                    stats.grades++;
+                } catch (StudentNotFoundException | GradeStorageFullException | RuntimeException ex) {
+                    stats.skipped++;
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    private static Student readStudent(ByteBuffer record) {
+        int id = record.getInt();
+        byte typeCode = record.get();
+        int age = record.getInt();
+        String name = readString(record);
+        String email = readString(record);
+        String phone = readString(record);
+        try {
+            int type = typeCode == StudentColumns.TYPE_HONORS ? 2 : 1;
+            return StudentFactory.createStudent(type, id, name, age, email, phone);
+        } catch (InvalidStudentDataException e) {
+            return null;
+        }
+    }
+
+    private static String readString(ByteBuffer record) {
+        int length = record.getShort() & 0xFFFF;
+        byte[] bytes = new byte[length];
+        record.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,566 @@
+package persistence;
+
+import core.Student;
+import core.Subject;
+import manager.SubjectRegistry;
+import context.StudentColumns;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only binary log of every student and grade accepted by the
+ * application, replayed by {@link WalReplayer} on startup.
+ *
+ * File layout: a 16-byte header (magic, format version, base sequence number)
+ * followed by records
+ *   [int length][int crc32c][byte type][payload]
+ * where length counts the type byte and payload and the CRC covers the same
+ * bytes. A record that is cut short or fails its CRC marks the end of the log.
+ * Subjects are logged once per file (id, name, type) and grades refer to them
+ * by that id, so a grade record is a fixed 29 bytes.
+ *
+ * Student and grade records are numbered: the first one in the file has the
+ * header's base sequence number and each one after it the next number. A
+ * {@link #checkpoint checkpoint} (taken by the backup task) returns the number
+ * of the first record not covered by the snapshot it captures; once that
+ * snapshot is safely on disk the covered records are dropped with
+ * {@link #truncateBefore}, and a restore replays only the records from there on.
+ * Callers hold {@link #updateLock()} across logging a record and applying it,
+ * so a checkpoint never sees one without the other.
+ *
+ * Group commit: appenders only copy their record into a shared buffer under a
+ * short lock. Whoever needs the data on disk (policy ALWAYS) takes the flush
+ * lock and writes and fsyncs everything buffered so far, so concurrent
+ * committers share one fsync instead of paying one each. With INTERVAL a
+ * background thread does that every {@link #INTERVAL_MS} ms and appenders never
+ * wait; NEVER writes on the same schedule but leaves syncing to the OS.
+ * Thread-safe.
+ */
+public class WriteAheadLog implements Closeable {
+
+    /**
+     * When appended records are forced to disk.
+     */
+    public enum FsyncPolicy {
+        ALWAYS,     // the append returns once its record is on disk (group commit)
+        INTERVAL,   // fsync every INTERVAL_MS; a crash loses at most that window
+        NEVER;      // write every INTERVAL_MS, never fsync (until close)
+
+        public static final String PROPERTY = "grades.wal.fsync";
+
+        /**
+         * Policy selected by -Dgrades.wal.fsync=always|interval|never, INTERVAL if unset or unknown.
+         */
+        public static FsyncPolicy configured() {
+            String value = System.getProperty(PROPERTY, "interval").trim().toUpperCase();
+            for (FsyncPolicy policy : values()) {
+                if (policy.name().equals(value)) {
+                    return policy;
+                }
+            }
+            return INTERVAL;
+        }
+    }
+
+    public static final String PATH_PROPERTY = "grades.wal";
+    private static final String DEFAULT_PATH = "data/grades.wal";
+
+    static final int MAGIC = 0x4757414C; // "GWAL"
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_HEADER_BYTES = 8;
+    // no record comes close; anything larger is garbage from a torn write
+    static final int MAX_RECORD_BYTES = 1 << 20;
+
+    static final byte TYPE_STUDENT = 1;
+    static final byte TYPE_SUBJECT = 2;
+    static final byte TYPE_GRADE = 3;
+
+    static final int GRADE_PAYLOAD_BYTES = 4 + 4 + 2 + 8 + 4;
+
+    static final long INTERVAL_MS = 50;
+    // appenders write the buffer out themselves past this size
+    private static final int FLUSH_THRESHOLD = 1 << 20;
+
+    /**
+     * Position in the log at the moment a checkpoint was taken.
+     */
+    public static final class Checkpoint {
+        private final long sequence;
+        private final long offset;
+
+        Checkpoint(long sequence, long offset) {
+            this.sequence = sequence;
+            this.offset = offset;
+        }
+
+        // number of the first student/grade record not covered by the checkpoint
+        public long getSequence() { return sequence; }
+    }
+
+    private final Path path;
+    private final FsyncPolicy policy;
+    private final Thread flusher;
+
+    private final Object appendLock = new Object();
+    private final Object flushLock = new Object();
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+
+    // replaced by truncateBefore; guarded by flushLock
+    private FileChannel channel;
+
+    // guarded by appendLock
+    private ByteBuffer pending = newBuffer(64 * 1024);
+    private long appendedSeq;
+    // sequence number the next student/grade record gets
+    private long nextRecord;
+    private final BitSet loggedSubjects = new BitSet();
+    private final CRC32C crc = new CRC32C();
+
+    // guarded by flushLock
+    private ByteBuffer spare = newBuffer(64 * 1024);
+
+    private volatile long writtenSeq;
+    private volatile boolean closed;
+
+    private WriteAheadLog(Path path, FileChannel channel, FsyncPolicy policy, long nextRecord) {
+        this.path = path;
+        this.channel = channel;
+        this.policy = policy;
+        this.nextRecord = nextRecord;
+        if (policy == FsyncPolicy.ALWAYS) {
+            flusher = null;
+        } else {
+            flusher = new Thread(this::runFlusher, "wal-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    /**
+     * Log file named by -Dgrades.wal, data/grades.wal if unset.
+     */
+    public static Path configuredPath() {
+        return Path.of(System.getProperty(PATH_PROPERTY, DEFAULT_PATH));
+    }
+
+    /**
+     * Open a log for appending, creating it (and its directory) if needed.
+     * This does not read the file: run WalReplayer.replay on it first, which
+     * applies the records, cuts off a torn tail left by a crash so new
+     * records do not go after it, and says where numbering continues
+     * (ReplayStats.getNextSequence(); 0 for a new log).
+     */
+    public static WriteAheadLog open(Path path, FsyncPolicy policy, long nextSequence) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_BYTES) {
+                channel.truncate(0);
+                writeHeader(channel, nextSequence);
+                channel.force(true);
+            } else {
+                checkHeader(channel, path);
+            }
+            channel.position(channel.size());
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new WriteAheadLog(path, channel, policy, nextSequence);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public FsyncPolicy getPolicy() {
+        return policy;
+    }
+
+    // ========== Appending ==========
+
+    /**
+     * Log a newly registered student.
+     */
+    public void logStudent(Student s) {
+        byte[] name = utf8(s.getName());
+        byte[] email = utf8(s.getEmail());
+        byte[] phone = utf8(s.getPhone());
+        int payload = 4 + 1 + 4 + 2 + name.length + 2 + email.length + 2 + phone.length;
+        long seq;
+        synchronized (appendLock) {
+            int start = beginRecord(TYPE_STUDENT, payload);
+            pending.putInt(s.getId());
+            pending.put(StudentColumns.typeCode(s.getType()));
+            pending.putInt(s.getAge());
+            putString(name);
+            putString(email);
+            putString(phone);
+            seq = endRecord(start);
+            nextRecord++;
+        }
+        commit(seq);
+    }
+
+    /**
+     * Log one grade. subjectId is the subject's SubjectRegistry id.
+     */
+    public void logGrade(int gradeId, int studentId, int subjectId, Subject subject, double grade, int epochDay) {
+        long seq;
+        synchronized (appendLock) {
+            defineSubject(subjectId, subject);
+            int start = beginRecord(TYPE_GRADE, GRADE_PAYLOAD_BYTES);
+            putGrade(gradeId, studentId, subjectId, grade, epochDay);
+            seq = endRecord(start);
+            nextRecord++;
+        }
+        commit(seq);
+    }
+
+    /**
+     * Log a batch of grades with a single commit (one fsync under ALWAYS).
+     * subjects[k] is the subject whose registry id is subjectIds[k].
+     */
+    public void logGrades(int[] gradeIds, int[] studentIds, int[] subjectIds, Subject[] subjects,
+                          double[] grades, int[] epochDays, int count) {
+        if (count == 0) {
+            return;
+        }
+        long seq;
+        synchronized (appendLock) {
+            for (int k = 0; k < count; k++) {
+                defineSubject(subjectIds[k], subjects[k]);
+                int start = beginRecord(TYPE_GRADE, GRADE_PAYLOAD_BYTES);
+                putGrade(gradeIds[k], studentIds[k], subjectIds[k], grades[k], epochDays[k]);
+                endRecord(start);
+            }
+            nextRecord += count;
+            seq = appendedSeq;
+        }
+        commit(seq);
+    }
+
+    /**
+     * Lock to hold (shared) while logging a record and applying it to the
+     * in-memory state, so a checkpoint sees both or neither.
+     */
+    public Lock updateLock() {
+        return checkpointLock.readLock();
+    }
+
+    /**
+     * Run capture while no record is between being logged and being applied,
+     * and return the log position it corresponds to. capture should only take
+     * cheap point-in-time views (e.g. StudentRegistry/GradeManager snapshots);
+     * writing them out happens afterwards, without blocking updates.
+     */
+    public Checkpoint checkpoint(Runnable capture) {
+        checkpointLock.writeLock().lock();
+        try {
+            synchronized (flushLock) {
+                try {
+                    writeBuffered(false);
+                    capture.run();
+                    return new Checkpoint(currentRecord(), channel.size());
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Write-ahead log checkpoint failed", e);
+                }
+            }
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop the records covered by a checkpoint whose snapshot is now safely on
+     * disk. The records after it are copied to a new file (behind fresh
+     * definitions of every subject they may refer to) which then atomically
+     * replaces the log. Appenders wait only while the tail is copied.
+     */
+    public void truncateBefore(Checkpoint checkpoint) throws IOException {
+        synchronized (flushLock) {
+            synchronized (appendLock) {
+                // everything appended so far belongs to the tail that is kept
+                pending.flip();
+                while (pending.hasRemaining()) {
+                    channel.write(pending);
+                }
+                pending.clear();
+                Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+                try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    writeHeader(out, checkpoint.sequence);
+                    out.position(HEADER_BYTES);
+                    for (int id = loggedSubjects.nextSetBit(0); id >= 0; id = loggedSubjects.nextSetBit(id + 1)) {
+                        putSubject(id, SubjectRegistry.getInstance().get(id));
+                    }
+                    pending.flip();
+                    while (pending.hasRemaining()) {
+                        out.write(pending);
+                    }
+                    pending.clear();
+                    long end = channel.size();
+                    long position = checkpoint.offset;
+                    while (position < end) {
+                        position += channel.transferTo(position, end - position, out);
+                    }
+                    out.force(true);
+                }
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                channel.close();
+                channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                channel.position(channel.size());
+                writtenSeq = appendedSeq;
+            }
+        }
+    }
+
+    /**
+     * Write out and fsync everything appended so far.
+     */
+    public void sync() {
+        synchronized (flushLock) {
+            try {
+                writeBuffered(true);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Write-ahead log sync failed", e);
+            }
+        }
+    }
+
+    /**
+     * Sync and close. The log rejects appends afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (flushLock) {
+            try {
+                writeBuffered(true);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    // ========== Internals ==========
+
+    // Subject definitions precede the first grade that uses them (caller holds appendLock)
+    private void defineSubject(int subjectId, Subject subject) {
+        if (loggedSubjects.get(subjectId)) {
+            return;
+        }
+        putSubject(subjectId, subject);
+        loggedSubjects.set(subjectId);
+    }
+
+    private void putSubject(int subjectId, Subject subject) {
+        byte[] name = utf8(subject.getSubjectName());
+        byte[] type = utf8(subject.getSubjectType());
+        int start = beginRecord(TYPE_SUBJECT, 2 + 2 + name.length + 2 + type.length);
+        pending.putShort((short) subjectId);
+        putString(name);
+        putString(type);
+        endRecord(start);
+    }
+
+    private void putGrade(int gradeId, int studentId, int subjectId, double grade, int epochDay) {
+        pending.putInt(gradeId);
+        pending.putInt(studentId);
+        pending.putShort((short) subjectId);
+        pending.putDouble(grade);
+        pending.putInt(epochDay);
+    }
+
+    private int beginRecord(byte type, int payloadBytes) {
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+        int length = 1 + payloadBytes;
+        if (length > MAX_RECORD_BYTES) {
+            throw new IllegalArgumentException("Record too large for the write-ahead log: " + length + " bytes");
+        }
+        ensureCapacity(RECORD_HEADER_BYTES + length);
+        int start = pending.position();
+        pending.putInt(length);
+        pending.putInt(0); // CRC, filled in by endRecord
+        pending.put(type);
+        return start;
+    }
+
+    private long endRecord(int start) {
+        int length = pending.position() - start - RECORD_HEADER_BYTES;
+        crc.reset();
+        crc.update(pending.array(), start + RECORD_HEADER_BYTES, length);
+        pending.putInt(start + 4, (int) crc.getValue());
+        return ++appendedSeq;
+    }
+
+    private void putString(byte[] bytes) {
+        pending.putShort((short) bytes.length);
+        pending.put(bytes);
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (pending.remaining() < bytes) {
+            int capacity = Math.max(pending.capacity() * 2, pending.position() + bytes);
+            ByteBuffer bigger = newBuffer(capacity);
+            pending.flip();
+            bigger.put(pending);
+            pending = bigger;
+        }
+    }
+
+    private void commit(long seq) {
+        try {
+            if (policy == FsyncPolicy.ALWAYS) {
+                synchronized (flushLock) {
+                    // a committer ahead of us may already have synced our record
+                    if (writtenSeq < seq) {
+                        writeBuffered(true);
+                    }
+                }
+            } else if (pendingBytes() >= FLUSH_THRESHOLD) {
+                synchronized (flushLock) {
+                    writeBuffered(false);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Write-ahead log append failed", e);
+        }
+    }
+
+    private int pendingBytes() {
+        synchronized (appendLock) {
+            return pending.position();
+        }
+    }
+
+    // Swap out the append buffer and write it; caller holds flushLock
+    private void writeBuffered(boolean force) throws IOException {
+        ByteBuffer out;
+        long upTo;
+        synchronized (appendLock) {
+            if (pending.position() == 0 && !force) {
+                return;
+            }
+            out = pending;
+            pending = spare;
+            upTo = appendedSeq;
+        }
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+        spare = out;
+        if (force) {
+            channel.force(false);
+        }
+        writtenSeq = upTo;
+    }
+
+    private void runFlusher() {
+        while (!closed) {
+            try {
+                Thread.sleep(INTERVAL_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (flushLock) {
+                if (closed) {
+                    return;
+                }
+                try {
+                    if (writtenSeq < currentSeq()) {
+                        writeBuffered(policy == FsyncPolicy.INTERVAL);
+                    }
+                } catch (IOException e) {
+                    System.err.println("Write-ahead log flush failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private long currentSeq() {
+        synchronized (appendLock) {
+            return appendedSeq;
+        }
+    }
+
+    private long currentRecord() {
+        synchronized (appendLock) {
+            return nextRecord;
+        }
+    }
+
+    private static void writeHeader(FileChannel channel, long baseSequence) throws IOException {
+        ByteBuffer header = newBuffer(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putLong(baseSequence).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+
+    /**
+     * Validate the header and return the base sequence number.
+     */
+    static long checkHeader(FileChannel channel, Path path) throws IOException {
+        ByteBuffer header = newBuffer(HEADER_BYTES);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Truncated write-ahead log header: " + path);
+            }
+        }
+        header.flip();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a write-ahead log: " + path);
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported write-ahead log version " + version + ": " + path);
+        }
+        return header.getLong();
+    }
+
+    static ByteBuffer newBuffer(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.BIG_ENDIAN);
+    }
+
+    private static byte[] utf8(String value) {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("String too long for the write-ahead log");
+        }
+        return bytes;
+    }
+}
@@ -1,8 +1,14 @@
 package scheduler;
 
+import context.StudentRegistry;
+import context.StudentSnapshot;
 import manager.GradeManager;
+import manager.GradeSnapshot;
 import audit.AuditLogger;
 import context.ApplicationContext;
+import persistence.BackupChain;
+import persistence.SnapshotFile;
+import persistence.WriteAheadLog;
 import core.Student;
 import core.Grade;
 import java.io.IOException;
@@ -34,10 +40,12 @@ public class TaskScheduler {
     
     private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     private static final String LOGS_DIR = "./task_logs";
+    // a full snapshot starts a new backup chain after this many backups (-Dgrades.backup.fullEvery)
+    private static final int FULL_BACKUP_EVERY = Math.max(1, Integer.getInteger("grades.backup.fullEvery", 7));
     
     private final ScheduledExecutorService scheduler;
     private final GradeManager gradeManager;
-    private final ArrayList<Student> students;
+    private final StudentRegistry students;
     // Active schedules indexed by taskId. Big-O: put/get/remove -> O(1) average.
     private final Map<String, ScheduledFuture<?>> activeSchedules;
     private final ConcurrentHashMap<String, ScheduledTask> taskConfigs;
@@ -45,6 +53,8 @@ public class TaskScheduler {
     // Big-O: insert -> O(log n), poll -> O(log n), peek -> O(1).
     private final PriorityQueue<ScheduledTask> priorityQueue;
     private final ConcurrentHashMap<String, TaskExecutionLog> executionLogs;
+    // Newest backup of the in-memory data; the next increment starts where it ended
+    private volatile SnapshotFile.Info lastBackup;
     
     /**
      * Task execution log entry
@@ -70,7 +80,7 @@ public class TaskScheduler {
         }
     }
     
-    public TaskScheduler(GradeManager gradeManager, ArrayList<Student> students) {
+    public TaskScheduler(GradeManager gradeManager, StudentRegistry students) {
         this.gradeManager = gradeManager;
         this.students = students;
         this.scheduler = Executors.newScheduledThreadPool(4, new ThreadFactory() {
@@ -216,30 +226,29 @@ public class TaskScheduler {
      * Execute daily GPA recalculation
      */
     private void executeDailyGPARecalculation() {
-        System.out.println("  [GPA] Recalculating GPAs for " + students.size() + " students...");
+        StudentSnapshot batch = students.snapshot();
+        System.out.println("  [GPA] Recalculating GPAs for " + batch.size() + " students...");
         
-        for (Student student : students) {
+        for (Student student : batch) {
             double totalGPA = 0;
             int count = 0;
             
-            for (int i = 0; i < gradeManager.getGradeCount(); i++) {
-                Grade grade = gradeManager.grades[i];
-                if (grade != null && grade.getStudentId() == student.getId()) {
-                    double gpa = grade.getGrade() >= 90 ? 4.0 :
-                                grade.getGrade() >= 80 ? 3.0 :
-                                grade.getGrade() >= 70 ? 2.0 :
-                                grade.getGrade() >= 60 ? 1.0 : 0.0;
-                    totalGPA += gpa;
-                    count++;
-                }
+            for (Grade grade : gradeManager.getStudentGrades(student.getId())) {
+                double gpa = grade.getGrade() >= 90 ? 4.0 :
+                            grade.getGrade() >= 80 ? 3.0 :
+                            grade.getGrade() >= 70 ? 2.0 :
+                            grade.getGrade() >= 60 ? 1.0 : 0.0;
+                totalGPA += gpa;
+                count++;
             }
             
             if (count > 0) {
                 student.setAverageGrade(totalGPA / count);
+                students.notifyChanged(student);
             }
         }
         
-        System.out.println("  [GPA] Completed for " + students.size() + " students");
+        System.out.println("  [GPA] Completed for " + batch.size() + " students");
     }
     
     /**
@@ -248,13 +257,14 @@ public class TaskScheduler {
     private void executeHourlyStatsRefresh() {
         System.out.println("  [Stats] Refreshing statistics cache...");
         
-        long totalGrades = gradeManager.getGradeCount();
+        GradeSnapshot snapshot = gradeManager.snapshot();
+        long totalGrades = snapshot.size();
         double avgGrade = 0;
         
         if (totalGrades > 0) {
             double sum = 0;
-            for (int i = 0; i < gradeManager.getGradeCount(); i++) {
-                Grade grade = gradeManager.grades[i];
+            for (int i = 0; i < snapshot.size(); i++) {
+                Grade grade = snapshot.get(i);
                 if (grade != null) {
                     sum += grade.getGrade();
                 }
@@ -270,7 +280,8 @@ public class TaskScheduler {
      * Execute weekly batch reports (simulated)
      */
     private void executeWeeklyBatchReports() {
-        System.out.println("  [Reports] Generating batch reports for " + students.size() + " students...");
+        StudentSnapshot batch = students.snapshot();
+        System.out.println("  [Reports] Generating batch reports for " + batch.size() + " students...");
         
         try {
             Path reportsDir = Paths.get("./reports");
@@ -280,7 +291,7 @@ public class TaskScheduler {
             Path weeklyArchive = reportsDir.resolve("weekly_reports_" + timestamp + ".zip");
             
             System.out.println("  [Reports] Archive location: " + weeklyArchive);
-            System.out.println("  [Reports] Generated reports for " + students.size() + " students");
+            System.out.println("  [Reports] Generated reports for " + batch.size() + " students");
             
         } catch (IOException e) {
             throw new RuntimeException("Failed to generate reports: " + e.getMessage());
@@ -288,28 +299,48 @@ public class TaskScheduler {
     }
     
     /**
-     * Execute daily backup
+     * Record the backup the in-memory data was restored from, so the next
+     * backup can be an increment on top of it
+     */
+    public void setLastBackup(SnapshotFile.Info lastBackup) {
+        this.lastBackup = lastBackup;
+    }
+    
+    public SnapshotFile.Info getLastBackup() {
+        return lastBackup;
+    }
+    
+    /**
+     * Execute daily backup: an increment holding only the students and grades
+     * added since the last backup (see BackupChain), or a full binary snapshot
+     * when there is no chain to extend yet or the chain is FULL_BACKUP_EVERY long.
+     * Restored automatically on the next startup.
      */
     private void executeDailyBackup() {
         System.out.println("  [Backup] Starting database backup...");
         
         try {
-            Path backupDir = Paths.get("./backups");
-            Files.createDirectories(backupDir);
-            
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            Path backupFile = backupDir.resolve("backup_" + timestamp + ".dat");
-            
-            // Simulate backup
-            StringBuilder backupData = new StringBuilder();
-            backupData.append("Students: ").append(students.size()).append("\n");
-            backupData.append("Grades: ").append(gradeManager.getGradeCount()).append("\n");
-            backupData.append("Timestamp: ").append(LocalDateTime.now().format(TIME_FORMAT)).append("\n");
-            
-            Files.write(backupFile, backupData.toString().getBytes());
+            WriteAheadLog wal = ApplicationContext.getInstance().getWriteAheadLog();
+            SnapshotFile.Info previous = lastBackup;
+            SnapshotFile.Info info;
+            if (previous == null || previous.getChainIndex() + 1 >= FULL_BACKUP_EVERY
+                    || students.size() < previous.getStudents()
+                    || gradeManager.getGradeCount() < previous.getGrades()) {
+                String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+                info = SnapshotFile.write(SnapshotFile.newPath(SnapshotFile.BACKUP_DIR, timestamp),
+                        students, gradeManager, wal);
+                System.out.println("  [Backup] Full snapshot");
+            } else {
+                info = BackupChain.writeIncrement(previous, students, gradeManager, wal);
+                System.out.println("  [Backup] Increment " + info.getChainIndex() + ": "
+                        + (info.getStudents() - previous.getStudents()) + " new students, "
+                        + (info.getGrades() - previous.getGrades()) + " new grades");
+            }
+            lastBackup = info;
             
-            System.out.println("  [Backup] File: " + backupFile);
-            System.out.println("  [Backup] Size: " + Files.size(backupFile) + " bytes");
+            System.out.println("  [Backup] File: " + info.getPath());
+            System.out.println("  [Backup] Students: " + info.getStudents() + ", Grades: " + info.getGrades());
+            System.out.println("  [Backup] Size: " + info.getBytes() + " bytes");
             
         } catch (IOException e) {
             throw new RuntimeException("Backup failed: " + e.getMessage());
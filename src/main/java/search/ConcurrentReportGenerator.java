@@ -1,5 +1,7 @@
 package search;
 
+import context.StudentRegistry;
+import context.StudentSnapshot;
 import manager.GradeManager;
 import manager.CacheManager;
 import audit.AuditLogger;
@@ -39,7 +41,8 @@ public class ConcurrentReportGenerator {
     private static final String REPORTS_DIR = "./reports";
     
     private final GradeManager gradeManager;
-    private final ArrayList<Student> students;
+    // fixed set for this run; students added meanwhile wait for the next one
+    private final StudentSnapshot students;
     private final int threadCount;
     private final ExecutorService executorService;
     private final List<ReportTask> reportTasks;
@@ -102,12 +105,17 @@ public class ConcurrentReportGenerator {
                 // Write report to file (thread-safe)
                 String filePath = writeReportToFile(reportContent, student);
                 
-                // Update statistics (prefer cached report summary when available)
+                // Update statistics from the cached report summary; threads that
+                // miss on the same student share one load
                 stats.filePath = filePath;
                 stats.success = true;
                 stats.generationTimeMs = System.currentTimeMillis() - startTime;
                 try {
-                    Object rep = CacheManager.getInstance().get("report:" + student.getId());
+                    int id = student.getId();
+                    Object rep = CacheManager.getInstance().getOrLoad("report:" + id,
+                            k -> new CacheManager.CacheReport(id, gradeManager.getGradesForStudent(id),
+                                    gradeManager.calculateOverallAverageSafe(id)),
+                            CacheManager.studentTag(id));
                     if (rep instanceof CacheManager.CacheReport) {
                         CacheManager.CacheReport cr = (CacheManager.CacheReport) rep;
                         stats.gradesCount = cr.grades.size();
@@ -189,14 +197,11 @@ public class ConcurrentReportGenerator {
                 report.append(String.format("║ %-40s │ %-10s │ %-20s │\n", "Subject", "Grade", "Date"));
                 report.append("║").append("─".repeat(78)).append("│\n");
                 
-                for (int i = 0; i < gradeManager.getGradeCount(); i++) {
-                    Grade grade = gradeManager.grades[i];
-                    if (grade != null && grade.getStudentId() == student.getId()) {
-                        report.append(String.format("║ %-40s │ %8.2f │ %-20s │\n",
-                                grade.getSubject().getSubjectName(),
-                                grade.getGrade(),
-                                grade.getDate().toString()));
-                    }
+                for (Grade grade : gradeManager.getStudentGrades(student.getId())) {
+                    report.append(String.format("║ %-40s │ %8.2f │ %-20s │\n",
+                            grade.getSubject().getSubjectName(),
+                            grade.getGrade(),
+                            grade.getDate().toString()));
                 }
             }
             
@@ -280,9 +285,9 @@ public class ConcurrentReportGenerator {
     /**
      * Constructor
      */
-    public ConcurrentReportGenerator(GradeManager gradeManager, ArrayList<Student> students, int threadCount) {
+    public ConcurrentReportGenerator(GradeManager gradeManager, StudentRegistry students, int threadCount) {
         this.gradeManager = gradeManager;
-        this.students = students;
+        this.students = students.snapshot();
         this.threadCount = Math.max(2, Math.min(8, threadCount)); // Clamp between 2-8
         this.executorService = Executors.newFixedThreadPool(this.threadCount, new ThreadFactory() {
             private final AtomicInteger counter = new AtomicInteger(1);
@@ -319,7 +324,8 @@ public class ConcurrentReportGenerator {
             for (Student student : students) {
                 Student toUse = student;
                 try {
-                    Object cached = CacheManager.getInstance().getOrLoad("student:" + student.getId(), k -> student);
+                    Object cached = CacheManager.getInstance().getOrLoad("student:" + student.getId(), k -> student,
+                            CacheManager.studentTag(student.getId()));
                     if (cached instanceof Student) toUse = (Student) cached;
                 } catch (Exception ex) {
                     // ignore cache errors and fall back to original
@@ -471,32 +477,15 @@ public class ConcurrentReportGenerator {
      * Calculate student's average grade
      */
     private double calculateStudentAverage(int studentId) {
-        double total = 0;
-        int count = 0;
-        
-        for (int i = 0; i < gradeManager.getGradeCount(); i++) {
-            Grade grade = gradeManager.grades[i];
-            if (grade != null && grade.getStudentId() == studentId) {
-                total += grade.getGrade();
-                count++;
-            }
-        }
-        
-        return count > 0 ? total / count : 0;
+        double average = gradeManager.calculateOverallAverageSafe(studentId);
+        return average >= 0 ? average : 0;
     }
     
     /**
      * Count grades for a specific student
      */
     private int countGradesForStudent(int studentId) {
-        int count = 0;
-        for (int i = 0; i < gradeManager.getGradeCount(); i++) {
-            Grade grade = gradeManager.grades[i];
-            if (grade != null && grade.getStudentId() == studentId) {
-                count++;
-            }
-        }
-        return count;
+        return gradeManager.getSubjectCountForStudent(studentId);
     }
     
     /**
@@ -2,6 +2,7 @@ package search;
 
 import core.Student;
 import context.ApplicationContext;
+import context.StudentColumns;
 import manager.CacheManager;
 import audit.AuditLogger;
 import models.HonorsStudent;
@@ -65,23 +66,21 @@ public class RegexSearchEngine {
         
         currentResults.clear();
         stats = new SearchStats();
-        stats.totalStudents = ApplicationContext.getInstance().getStudents().size();
+        StudentColumns.Snapshot columns = ApplicationContext.getInstance().getStudentColumns().snapshot();
+        stats.totalStudents = columns.size();
         
         try {
             int flags = caseInsensitive ? Pattern.CASE_INSENSITIVE : 0;
             Pattern pattern = Pattern.compile(domainPattern, flags);
             
-            for (Student s : ApplicationContext.getInstance().getStudents()) {
+            // scan the domain column; only matching rows touch the Student
+            for (int row = 0; row < columns.size(); row++) {
                 stats.totalScanned++;
-                Student student = s;
-                try {
-                    Object c = CacheManager.getInstance().get("student:" + s.getId());
-                    if (c instanceof Student) student = (Student) c;
-                } catch (Exception ex) { }
-                String emailDomain = extractDomain(student.getEmail());
+                String emailDomain = columns.emailDomain(row);
                 Matcher matcher = pattern.matcher(emailDomain);
 
                 if (matcher.find()) {
+                    Student student = resolve(columns.student(row));
                     String highlighted = highlightMatch(emailDomain, matcher);
                     SearchResult result = new SearchResult(student, "Email Domain", emailDomain, highlighted);
                     currentResults.add(result);
@@ -109,23 +108,20 @@ public class RegexSearchEngine {
         
         currentResults.clear();
         stats = new SearchStats();
-        stats.totalStudents = ApplicationContext.getInstance().getStudents().size();
+        StudentColumns.Snapshot columns = ApplicationContext.getInstance().getStudentColumns().snapshot();
+        stats.totalStudents = columns.size();
         
         try {
             int flags = caseInsensitive ? Pattern.CASE_INSENSITIVE : 0;
             Pattern pattern = Pattern.compile(idPattern, flags);
             
-            for (Student s : ApplicationContext.getInstance().getStudents()) {
+            for (int row = 0; row < columns.size(); row++) {
                 stats.totalScanned++;
-                Student student = s;
-                try {
-                    Object c = CacheManager.getInstance().get("student:" + s.getId());
-                    if (c instanceof Student) student = (Student) c;
-                } catch (Exception ex) { }
-                String idStr = String.valueOf(student.getId());
+                String idStr = String.valueOf(columns.id(row));
                 Matcher matcher = pattern.matcher(idStr);
 
                 if (matcher.find()) {
+                    Student student = resolve(columns.student(row));
                     String highlighted = highlightMatch(idStr, matcher);
                     SearchResult result = new SearchResult(student, "Student ID", idStr, highlighted);
                     currentResults.add(result);
@@ -153,24 +149,22 @@ public class RegexSearchEngine {
         
         currentResults.clear();
         stats = new SearchStats();
-        stats.totalStudents = ApplicationContext.getInstance().getStudents().size();
+        StudentColumns.Snapshot columns = ApplicationContext.getInstance().getStudentColumns().snapshot();
+        stats.totalStudents = columns.size();
         
         try {
             int flags = caseInsensitive ? Pattern.CASE_INSENSITIVE : 0;
             Pattern pattern = Pattern.compile(namePattern, flags);
             
-            for (Student s : ApplicationContext.getInstance().getStudents()) {
+            for (int row = 0; row < columns.size(); row++) {
                 stats.totalScanned++;
-                Student student = s;
-                try {
-                    Object c = CacheManager.getInstance().get("student:" + s.getId());
-                    if (c instanceof Student) student = (Student) c;
-                } catch (Exception ex) { }
-                Matcher matcher = pattern.matcher(student.getName());
+                String name = columns.name(row);
+                Matcher matcher = pattern.matcher(name);
 
                 if (matcher.find()) {
-                    String highlighted = highlightMatch(student.getName(), matcher);
-                    SearchResult result = new SearchResult(student, "Name", student.getName(), highlighted);
+                    Student student = resolve(columns.student(row));
+                    String highlighted = highlightMatch(name, matcher);
+                    SearchResult result = new SearchResult(student, "Name", name, highlighted);
                     currentResults.add(result);
                     stats.matchesFound++;
                     addDistributionStats(student);
@@ -196,25 +190,22 @@ public class RegexSearchEngine {
         
         currentResults.clear();
         stats = new SearchStats();
-        stats.totalStudents = ApplicationContext.getInstance().getStudents().size();
+        StudentColumns.Snapshot columns = ApplicationContext.getInstance().getStudentColumns().snapshot();
+        stats.totalStudents = columns.size();
         
         try {
             int flags = caseInsensitive ? Pattern.CASE_INSENSITIVE : 0;
             Pattern compiledPattern = Pattern.compile(pattern, flags);
             
-            for (Student s : ApplicationContext.getInstance().getStudents()) {
+            for (int row = 0; row < columns.size(); row++) {
                 stats.totalScanned++;
-                Student student = s;
-                try {
-                    Object c = CacheManager.getInstance().get("student:" + s.getId());
-                    if (c instanceof Student) student = (Student) c;
-                } catch (Exception ex) { }
-                String fieldValue = getFieldValue(student, fieldName);
+                String fieldValue = getFieldValue(columns, row, fieldName);
 
                 if (fieldValue != null) {
                     Matcher matcher = compiledPattern.matcher(fieldValue);
 
                     if (matcher.find()) {
+                        Student student = resolve(columns.student(row));
                         String highlighted = highlightMatch(fieldValue, matcher);
                         SearchResult result = new SearchResult(student, fieldName, fieldValue, highlighted);
                         currentResults.add(result);
@@ -400,9 +391,13 @@ public class RegexSearchEngine {
 
     // ==================== Helper Methods ====================
 
-    private String extractDomain(String email) {
-        if (email == null || !email.contains("@")) return "";
-        return email.substring(email.indexOf("@") + 1);
+    // Prefer the cached Student object for a matching row, as before
+    private Student resolve(Student s) {
+        try {
+            Object c = CacheManager.getInstance().get("student:" + s.getId());
+            if (c instanceof Student) return (Student) c;
+        } catch (Exception ex) { }
+        return s;
     }
 
     private String highlightMatch(String text, Matcher matcher) {
@@ -414,14 +409,15 @@ public class RegexSearchEngine {
         return sb.toString();
     }
 
-    private String getFieldValue(Student s, String fieldName) {
+    // Columns where there is one, otherwise the row's Student
+    private String getFieldValue(StudentColumns.Snapshot columns, int row, String fieldName) {
         return switch (fieldName.toLowerCase()) {
-            case "name" -> s.name;
-            case "email" -> s.email;
-            case "phone" -> s.phone;
-            case "type" -> s.getType();
-            case "status" -> s.getStatus();
-            case "id" -> String.valueOf(s.id);
+            case "name" -> columns.name(row);
+            case "email" -> columns.student(row).email;
+            case "phone" -> columns.student(row).phone;
+            case "type" -> columns.student(row).getType();
+            case "status" -> columns.student(row).getStatus();
+            case "id" -> String.valueOf(columns.id(row));
             default -> null;
         };
     }
@@ -487,17 +483,19 @@ public class RegexSearchEngine {
         
         currentResults.clear();
         stats = new SearchStats();
-        stats.totalStudents = ApplicationContext.getInstance().getStudents().size();
+        StudentColumns.Snapshot columns = ApplicationContext.getInstance().getStudentColumns().snapshot();
+        stats.totalStudents = columns.size();
         
         try {
             Pattern pattern = Pattern.compile(areaCodePattern);
             
-            for (Student s : ApplicationContext.getInstance().getStudents()) {
+            for (int row = 0; row < columns.size(); row++) {
                 stats.totalScanned++;
-                String areaCode = extractAreaCode(s.getPhone());
+                String areaCode = columns.areaCode(row);
                 Matcher matcher = pattern.matcher(areaCode);
                 
                 if (matcher.find()) {
+                    Student s = columns.student(row);
                     String highlighted = highlightMatch(areaCode, matcher);
                     SearchResult result = new SearchResult(s, "Phone Area Code", areaCode, highlighted);
                     currentResults.add(result);
@@ -519,19 +517,6 @@ public class RegexSearchEngine {
         return new ArrayList<>(currentResults);
     }
 
-    private String extractAreaCode(String phone) {
-        if (phone == null || phone.isEmpty()) return "";
-        // Assuming format like (123) 456-7890
-        int start = phone.indexOf('(');
-        int end = phone.indexOf(')');
-        if (start >= 0 && end > start) {
-            return phone.substring(start + 1, end);
-        }
-        // Fallback: first 3 digits
-        String digits = phone.replaceAll("[^0-9]", "");
-        return digits.substring(0, Math.min(3, digits.length()));
-    }
-
     public void displayResults(ArrayList<SearchResult> results) {
         if (results.isEmpty()) return;
         
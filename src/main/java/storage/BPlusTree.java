@@ -0,0 +1,417 @@
+package storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * B+-tree from long keys to small byte values, kept in the pages of a
+ * {@link BufferPool}, so it can be far larger than the heap: only the pages
+ * the pool holds are in memory.
+ *
+ * Leaves hold the entries in key order and are chained left to right, so a
+ * key range is one descent plus a walk along the chain. Inner pages hold up
+ * to MAX_KEYS separator keys; a child's subtree holds the keys from its
+ * separator up to the next one.
+ *
+ * Page layouts (big-endian, BufferPool.PAGE_SIZE bytes):
+ *   leaf    type, pad, count (short), next leaf (int, -1 for none), start of
+ *           value data (short), pad; then one slot per entry (key long,
+ *           offset short, length short) in key order; values are packed
+ *           from the end of the page down
+ *   inner   type, pad, count (short), first child (int); then count pairs
+ *           of (separator key long, child int)
+ * A value that grows is rewritten at the free end of its leaf; the space it
+ * leaves is reclaimed when the leaf is next rebuilt (on a split, or when it
+ * is full of such gaps). There is no delete: the owners only add and update.
+ * Big-O: get/put -> O(log n) pages, scan -> O(log n + pages in range).
+ *
+ * Thread-safety: any number of concurrent readers (get, scan) or one writer
+ * (put). A scan visitor must not call put on the same tree.
+ */
+public class BPlusTree {
+
+    public static final int MAX_VALUE_BYTES = 1024;
+
+    private static final int PAGE = BufferPool.PAGE_SIZE;
+    private static final byte LEAF = 1;
+    private static final byte INNER = 2;
+    private static final int LEAF_HEADER = 12;
+    private static final int SLOT_BYTES = 12;
+    private static final int INNER_HEADER = 8;
+    private static final int PAIR_BYTES = 12;
+    static final int MAX_KEYS = (PAGE - INNER_HEADER) / PAIR_BYTES;
+
+    /**
+     * Called for every entry of a scan, in key order. The value buffer is a
+     * read-only view that is only valid during the call. Return false to stop.
+     */
+    public interface Visitor {
+        boolean visit(long key, ByteBuffer value) throws IOException;
+    }
+
+    // a page split in two: the right half and its smallest key
+    private static final class Split {
+        final long key;
+        final int right;
+
+        Split(long key, int right) {
+            this.key = key;
+            this.right = right;
+        }
+    }
+
+    private final BufferPool pool;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile int root;
+    // whether the last put added a key rather than replacing a value; writer only
+    private boolean added;
+
+    /**
+     * Open the tree whose root is at the given page.
+     */
+    public BPlusTree(BufferPool pool, int root) {
+        this.pool = pool;
+        this.root = root;
+    }
+
+    /**
+     * Start an empty tree in a new page of the pool and return its root page.
+     */
+    public static int create(BufferPool pool) throws IOException {
+        int page = pool.allocate();
+        ByteBuffer p = pool.pin(page);
+        p.put(0, LEAF).putShort(2, (short) 0).putInt(4, -1).putShort(8, (short) PAGE);
+        pool.unpin(page, true);
+        return page;
+    }
+
+    /**
+     * Current root page; it moves when the root splits, so owners that
+     * record it (e.g. in a header page) read it again after writing.
+     */
+    public int getRoot() {
+        return root;
+    }
+
+    // ========== Reads ==========
+
+    /**
+     * The value stored under key, or null.
+     */
+    public byte[] get(long key) throws IOException {
+        lock.readLock().lock();
+        try {
+            int page = findLeaf(key);
+            ByteBuffer p = pool.pin(page);
+            try {
+                int i = search(p, key);
+                if (i < 0) {
+                    return null;
+                }
+                byte[] value = new byte[slotLength(p, i)];
+                p.get(slotOffset(p, i), value);
+                return value;
+            } finally {
+                pool.unpin(page, false);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Visit the entries with from <= key <= to in key order.
+     */
+    public void scan(long from, long to, Visitor visitor) throws IOException {
+        lock.readLock().lock();
+        try {
+            int page = findLeaf(from);
+            while (page >= 0) {
+                ByteBuffer p = pool.pin(page);
+                int next;
+                try {
+                    int count = count(p);
+                    int i = search(p, from);
+                    for (i = i < 0 ? -i - 1 : i; i < count; i++) {
+                        long key = slotKey(p, i);
+                        if (key > to || !visitor.visit(key, p.slice(slotOffset(p, i), slotLength(p, i))
+                                .asReadOnlyBuffer())) {
+                            return;
+                        }
+                    }
+                    next = p.getInt(4);
+                } finally {
+                    pool.unpin(page, false);
+                }
+                page = next;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Leaf whose key range covers key
+    private int findLeaf(long key) throws IOException {
+        int page = root;
+        while (true) {
+            ByteBuffer p = pool.pin(page);
+            int child;
+            try {
+                if (p.get(0) == LEAF) {
+                    return page;
+                }
+                child = child(p, childIndex(p, key));
+            } finally {
+                pool.unpin(page, false);
+            }
+            page = child;
+        }
+    }
+
+    // ========== Writes ==========
+
+    /**
+     * Store value under key, replacing any previous value.
+     * @return true if the key was not in the tree before
+     * @throws IllegalArgumentException if the value is longer than MAX_VALUE_BYTES
+     */
+    public boolean put(long key, byte[] value) throws IOException {
+        if (value.length > MAX_VALUE_BYTES) {
+            throw new IllegalArgumentException("Value of " + value.length + " bytes exceeds " + MAX_VALUE_BYTES);
+        }
+        lock.writeLock().lock();
+        try {
+            added = false;
+            Split split = insert(root, key, value);
+            if (split != null) {
+                int newRoot = pool.allocate();
+                ByteBuffer p = pool.pin(newRoot);
+                p.put(0, INNER).putShort(2, (short) 1).putInt(4, root)
+                        .putLong(INNER_HEADER, split.key).putInt(INNER_HEADER + 8, split.right);
+                pool.unpin(newRoot, true);
+                root = newRoot;
+            }
+            return added;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Split insert(int page, long key, byte[] value) throws IOException {
+        ByteBuffer p = pool.pin(page);
+        if (p.get(0) == LEAF) {
+            try {
+                return insertIntoLeaf(p, key, value);
+            } finally {
+                pool.unpin(page, true);
+            }
+        }
+        int index = childIndex(p, key);
+        int child = child(p, index);
+        pool.unpin(page, false);
+
+        Split split = insert(child, key, value);
+        if (split == null) {
+            return null;
+        }
+        p = pool.pin(page);
+        try {
+            return insertIntoInner(p, index, split);
+        } finally {
+            pool.unpin(page, true);
+        }
+    }
+
+    private Split insertIntoLeaf(ByteBuffer p, long key, byte[] value) throws IOException {
+        int count = count(p);
+        int dataStart = p.getShort(8) & 0xFFFF;
+        int free = dataStart - (LEAF_HEADER + count * SLOT_BYTES);
+        int i = search(p, key);
+        if (i >= 0) {
+            if (value.length <= slotLength(p, i)) {
+                p.put(slotOffset(p, i), value);
+                p.putShort(slotAt(i) + 10, (short) value.length);
+                return null;
+            }
+            if (value.length <= free) {
+                int offset = dataStart - value.length;
+                p.put(offset, value);
+                p.putShort(slotAt(i) + 8, (short) offset).putShort(slotAt(i) + 10, (short) value.length);
+                p.putShort(8, (short) offset);
+                return null;
+            }
+        } else {
+            added = true;
+            int at = -i - 1;
+            if (SLOT_BYTES + value.length <= free) {
+                byte[] bytes = p.array();
+                System.arraycopy(bytes, slotAt(at), bytes, slotAt(at + 1), (count - at) * SLOT_BYTES);
+                int offset = dataStart - value.length;
+                p.put(offset, value);
+                p.putLong(slotAt(at), key).putShort(slotAt(at) + 8, (short) offset)
+                        .putShort(slotAt(at) + 10, (short) value.length);
+                p.putShort(2, (short) (count + 1)).putShort(8, (short) offset);
+                return null;
+            }
+        }
+
+        // no room as the page is laid out: rebuild it, compacted, with the change
+        int n = i >= 0 ? count : count + 1;
+        long[] keys = new long[n];
+        byte[][] values = new byte[n][];
+        int insertAt = i >= 0 ? i : -i - 1;
+        int total = 0;
+        for (int src = 0, dst = 0; dst < n; dst++) {
+            if (dst == insertAt) {
+                keys[dst] = key;
+                values[dst] = value;
+                if (i >= 0) {
+                    src++; // replaced
+                }
+            } else {
+                keys[dst] = slotKey(p, src);
+                values[dst] = new byte[slotLength(p, src)];
+                p.get(slotOffset(p, src), values[dst]);
+                src++;
+            }
+            total += SLOT_BYTES + values[dst].length;
+        }
+        int next = p.getInt(4);
+        if (LEAF_HEADER + total <= PAGE) {
+            writeLeaf(p, keys, values, 0, n, next);
+            return null;
+        }
+        // split where the bytes, not the entries, are halved
+        int mid = 1;
+        for (int acc = SLOT_BYTES + values[0].length; mid < n - 1 && acc < total / 2; mid++) {
+            acc += SLOT_BYTES + values[mid].length;
+        }
+        int right = pool.allocate();
+        ByteBuffer r = pool.pin(right);
+        try {
+            writeLeaf(r, keys, values, mid, n, next);
+        } finally {
+            pool.unpin(right, true);
+        }
+        writeLeaf(p, keys, values, 0, mid, right);
+        return new Split(keys[mid], right);
+    }
+
+    private static void writeLeaf(ByteBuffer p, long[] keys, byte[][] values, int from, int to, int next) {
+        int offset = PAGE;
+        for (int k = from; k < to; k++) {
+            offset -= values[k].length;
+            p.put(offset, values[k]);
+            int slot = slotAt(k - from);
+            p.putLong(slot, keys[k]).putShort(slot + 8, (short) offset).putShort(slot + 10, (short) values[k].length);
+        }
+        p.put(0, LEAF).putShort(2, (short) (to - from)).putInt(4, next).putShort(8, (short) offset);
+    }
+
+    // Insert the split's key and right page after child index of an inner page
+    private Split insertIntoInner(ByteBuffer p, int index, Split split) throws IOException {
+        int count = count(p);
+        if (count < MAX_KEYS) {
+            byte[] bytes = p.array();
+            int at = INNER_HEADER + index * PAIR_BYTES;
+            System.arraycopy(bytes, at, bytes, at + PAIR_BYTES, (count - index) * PAIR_BYTES);
+            p.putLong(at, split.key).putInt(at + 8, split.right);
+            p.putShort(2, (short) (count + 1));
+            return null;
+        }
+        int n = count + 1;
+        long[] keys = new long[n];
+        int[] children = new int[n + 1];
+        children[0] = p.getInt(4);
+        for (int src = 0, dst = 0; dst < n; dst++) {
+            if (dst == index) {
+                keys[dst] = split.key;
+                children[dst + 1] = split.right;
+            } else {
+                keys[dst] = p.getLong(INNER_HEADER + src * PAIR_BYTES);
+                children[dst + 1] = p.getInt(INNER_HEADER + src * PAIR_BYTES + 8);
+                src++;
+            }
+        }
+        // the middle key moves up; the halves keep the keys on either side of it
+        int mid = n / 2;
+        int right = pool.allocate();
+        ByteBuffer r = pool.pin(right);
+        try {
+            writeInner(r, keys, children, mid + 1, n);
+        } finally {
+            pool.unpin(right, true);
+        }
+        writeInner(p, keys, children, 0, mid);
+        return new Split(keys[mid], right);
+    }
+
+    // Keys from .. to-1 with the children around them
+    private static void writeInner(ByteBuffer p, long[] keys, int[] children, int from, int to) {
+        p.put(0, INNER).putShort(2, (short) (to - from)).putInt(4, children[from]);
+        for (int k = from; k < to; k++) {
+            int at = INNER_HEADER + (k - from) * PAIR_BYTES;
+            p.putLong(at, keys[k]).putInt(at + 8, children[k + 1]);
+        }
+    }
+
+    // ========== Page access ==========
+
+    private static int count(ByteBuffer p) {
+        return p.getShort(2) & 0xFFFF;
+    }
+
+    private static int slotAt(int i) {
+        return LEAF_HEADER + i * SLOT_BYTES;
+    }
+
+    private static long slotKey(ByteBuffer p, int i) {
+        return p.getLong(slotAt(i));
+    }
+
+    private static int slotOffset(ByteBuffer p, int i) {
+        return p.getShort(slotAt(i) + 8) & 0xFFFF;
+    }
+
+    private static int slotLength(ByteBuffer p, int i) {
+        return p.getShort(slotAt(i) + 10) & 0xFFFF;
+    }
+
+    // Index of key among a leaf's slots, or -(insertion point) - 1
+    private static int search(ByteBuffer p, long key) {
+        int lo = 0;
+        int hi = count(p) - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            long k = slotKey(p, mid);
+            if (k < key) {
+                lo = mid + 1;
+            } else if (k > key) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -lo - 1;
+    }
+
+    // Which child of an inner page covers key: the number of separators <= key
+    private static int childIndex(ByteBuffer p, long key) {
+        int lo = 0;
+        int hi = count(p);
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (p.getLong(INNER_HEADER + mid * PAIR_BYTES) <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private static int child(ByteBuffer p, int index) {
+        return index == 0 ? p.getInt(4) : p.getInt(INNER_HEADER + (index - 1) * PAIR_BYTES + 8);
+    }
+}
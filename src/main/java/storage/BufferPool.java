@@ -0,0 +1,218 @@
+package storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A file of fixed-size pages with a bounded number of them cached in memory.
+ * Page ids are positions in the file (page p starts at p * PAGE_SIZE).
+ *
+ * Callers pin a page to use its frame and unpin it when done, saying whether
+ * they changed it. Only unpinned frames can be reused: when a page that is
+ * not resident is pinned and every frame is taken, a CLOCK sweep picks a
+ * frame whose page was not used since the last sweep, writing it back first
+ * if it is dirty. So memory stays at capacity * PAGE_SIZE however large the
+ * file grows, and recently used pages stay resident.
+ * Big-O: pin/unpin -> O(1) expected (a sweep visits each frame at most twice).
+ *
+ * Pages are written in place; flush() writes every dirty frame and forces
+ * the file. There is no logging, so a crash between flushes can leave a mix
+ * of old and new pages; owners detect that (see persistence.StudentArchive).
+ *
+ * Thread-safety: the frame table is guarded by this pool. The bytes of a
+ * pinned frame are not: owners make sure a page is not written while
+ * another thread reads it (BPlusTree holds a read/write lock).
+ */
+public class BufferPool implements Closeable {
+
+    public static final int PAGE_SIZE = 8192;
+    // a B+-tree descent pins a handful of pages at once
+    public static final int MIN_CAPACITY = 16;
+
+    private static final class Frame {
+        final ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+        int pageId = -1;
+        int pins;
+        boolean dirty;
+        boolean referenced;
+    }
+
+    private final FileChannel channel;
+    private final Frame[] frames;
+    private final Map<Integer, Frame> resident = new HashMap<>();
+    private int clockHand;
+    private int used;
+    private int pageCount;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long pagesWritten;
+
+    public BufferPool(Path path, int capacityPages) throws IOException {
+        if (capacityPages < MIN_CAPACITY) {
+            throw new IllegalArgumentException("A buffer pool needs at least " + MIN_CAPACITY + " pages");
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size % PAGE_SIZE != 0) {
+            channel.close();
+            throw new IOException("Page file " + path + " is not a whole number of pages: " + size + " bytes");
+        }
+        this.pageCount = (int) (size / PAGE_SIZE);
+        this.frames = new Frame[capacityPages];
+        for (int i = 0; i < capacityPages; i++) {
+            frames[i] = new Frame();
+        }
+    }
+
+    /**
+     * Append a zeroed page to the file and return its id; pin it to use it.
+     */
+    public synchronized int allocate() throws IOException {
+        Frame frame = claimFrame();
+        int pageId = pageCount++;
+        frame.page.clear();
+        Arrays.fill(frame.page.array(), (byte) 0);
+        install(frame, pageId);
+        frame.dirty = true;
+        return pageId;
+    }
+
+    /**
+     * The frame holding the page, read from the file if it is not resident.
+     * The buffer stays valid until the matching unpin.
+     * @throws IllegalStateException if every frame is pinned
+     */
+    public synchronized ByteBuffer pin(int pageId) throws IOException {
+        if (pageId < 0 || pageId >= pageCount) {
+            throw new IOException("Page " + pageId + " is outside the file (" + pageCount + " pages)");
+        }
+        Frame frame = resident.get(pageId);
+        if (frame != null) {
+            hits++;
+        } else {
+            misses++;
+            frame = claimFrame();
+            ByteBuffer page = frame.page;
+            page.clear();
+            long position = (long) pageId * PAGE_SIZE;
+            while (page.hasRemaining()) {
+                if (channel.read(page, position + page.position()) < 0) {
+                    throw new IOException("Unexpected end of page file at page " + pageId);
+                }
+            }
+            install(frame, pageId);
+        }
+        frame.pins++;
+        frame.referenced = true;
+        return frame.page;
+    }
+
+    public synchronized void unpin(int pageId, boolean dirty) {
+        Frame frame = resident.get(pageId);
+        if (frame == null || frame.pins == 0) {
+            throw new IllegalStateException("Page " + pageId + " is not pinned");
+        }
+        frame.pins--;
+        frame.dirty |= dirty;
+    }
+
+    /**
+     * Write every dirty page back and force the file to disk.
+     */
+    public synchronized void flush() throws IOException {
+        for (Frame frame : frames) {
+            if (frame.pageId >= 0 && frame.dirty) {
+                writeBack(frame);
+            }
+        }
+        channel.force(true);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel.isOpen()) {
+            flush();
+            channel.close();
+        }
+    }
+
+    public int getCapacity() { return frames.length; }
+
+    public synchronized int getPageCount() { return pageCount; }
+
+    public synchronized int getResidentPages() { return resident.size(); }
+
+    public synchronized long getHits() { return hits; }
+
+    public synchronized long getMisses() { return misses; }
+
+    public synchronized long getEvictions() { return evictions; }
+
+    public synchronized long getPagesWritten() { return pagesWritten; }
+
+    public synchronized double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d of %d pages resident (%d in file), %.1f%% hits, %d evictions",
+                resident.size(), frames.length, pageCount, hitRate() * 100, evictions);
+    }
+
+    // A free frame, or one freed by the CLOCK sweep
+    private Frame claimFrame() throws IOException {
+        if (used < frames.length) {
+            return frames[used++];
+        }
+        // two full turns: the first may only clear reference bits
+        for (int step = 0; step < 2 * frames.length; step++) {
+            Frame frame = frames[clockHand];
+            clockHand = (clockHand + 1) % frames.length;
+            if (frame.pins > 0) {
+                continue;
+            }
+            if (frame.referenced) {
+                frame.referenced = false;
+                continue;
+            }
+            if (frame.dirty) {
+                writeBack(frame);
+            }
+            resident.remove(frame.pageId);
+            frame.pageId = -1;
+            evictions++;
+            return frame;
+        }
+        throw new IllegalStateException("All " + frames.length + " buffer pool pages are pinned");
+    }
+
+    private void install(Frame frame, int pageId) {
+        frame.pageId = pageId;
+        frame.pins = 0;
+        frame.dirty = false;
+        frame.referenced = true;
+        resident.put(pageId, frame);
+    }
+
+    private void writeBack(Frame frame) throws IOException {
+        ByteBuffer page = frame.page.duplicate();
+        page.clear();
+        long position = (long) frame.pageId * PAGE_SIZE;
+        while (page.hasRemaining()) {
+            channel.write(page, position + page.position());
+        }
+        frame.dirty = false;
+        pagesWritten++;
+    }
+}
@@ -0,0 +1,124 @@
+package storage;
+
+import java.util.Arrays;
+
+/**
+ * Secondary index of grade slots ordered by grade date.
+ * Distinct dates are kept as a sorted int[] of epoch days; each date owns a
+ * posting list of the slots recorded on it. Grades usually arrive with the
+ * current date, so the common insert is an append at the end.
+ * Big-O: range lookup -> O(log d + k) for d distinct dates and k matches,
+ * insert -> O(log d), or O(d) for a date older than the newest one seen.
+ *
+ * Thread-safety: all methods lock this instance; range results are copies.
+ */
+public class DateIndex {
+
+    private int[] days = new int[16];
+    private IntList[] postings = new IntList[16];
+    private int dayCount;
+    private int size;
+
+    public synchronized void add(int epochDay, int slot) {
+        postingFor(epochDay).add(slot);
+        size++;
+    }
+
+    /**
+     * Index a contiguous run of slots starting at firstSlot, one epoch day per slot.
+     */
+    public synchronized void addAll(int[] epochDays, int firstSlot, int count) {
+        IntList last = null;
+        int lastDay = 0;
+        for (int i = 0; i < count; i++) {
+            // imported rows tend to share a date, so reuse the previous posting list
+            if (last == null || epochDays[i] != lastDay) {
+                lastDay = epochDays[i];
+                last = postingFor(lastDay);
+            }
+            last.add(firstSlot + i);
+        }
+        size += count;
+    }
+
+    /**
+     * Slots of all grades dated between fromDay and toDay (inclusive),
+     * ordered by date and, within a date, by insertion.
+     */
+    public synchronized int[] slotsBetween(int fromDay, int toDay) {
+        int lo = lowerBound(fromDay);
+        int hi = lowerBound(toDay + 1);
+        int total = 0;
+        for (int d = lo; d < hi; d++) {
+            total += postings[d].size();
+        }
+        int[] result = new int[total];
+        int pos = 0;
+        for (int d = lo; d < hi; d++) {
+            IntList list = postings[d];
+            for (int i = 0; i < list.size(); i++) {
+                result[pos++] = list.get(i);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of grades dated between fromDay and toDay (inclusive).
+     * Big-O: O(log d + matching dates).
+     */
+    public synchronized int countBetween(int fromDay, int toDay) {
+        int total = 0;
+        for (int d = lowerBound(fromDay), hi = lowerBound(toDay + 1); d < hi; d++) {
+            total += postings[d].size();
+        }
+        return total;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized int distinctDays() {
+        return dayCount;
+    }
+
+    public synchronized void clear() {
+        days = new int[16];
+        postings = new IntList[16];
+        dayCount = 0;
+        size = 0;
+    }
+
+    private IntList postingFor(int epochDay) {
+        // fast path: same or newer date than anything seen so far
+        if (dayCount > 0 && days[dayCount - 1] == epochDay) {
+            return postings[dayCount - 1];
+        }
+        int pos = (dayCount == 0 || days[dayCount - 1] < epochDay) ? dayCount : lowerBound(epochDay);
+        if (pos < dayCount && days[pos] == epochDay) {
+            return postings[pos];
+        }
+        if (dayCount == days.length) {
+            days = Arrays.copyOf(days, dayCount * 2);
+            postings = Arrays.copyOf(postings, dayCount * 2);
+        }
+        System.arraycopy(days, pos, days, pos + 1, dayCount - pos);
+        System.arraycopy(postings, pos, postings, pos + 1, dayCount - pos);
+        days[pos] = epochDay;
+        postings[pos] = new IntList();
+        dayCount++;
+        return postings[pos];
+    }
+
+    // First position whose day is >= epochDay
+    private int lowerBound(int epochDay) {
+        int lo = 0, hi = dayCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (days[mid] < epochDay) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+}
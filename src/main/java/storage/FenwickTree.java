@@ -0,0 +1,75 @@
+package storage;
+
+/**
+ * Fenwick (binary indexed) tree of counts over buckets 0 .. size - 1.
+ * Big-O: add / prefix count / k-th smallest -> O(log size).
+ * Not thread-safe; owners lock around it.
+ */
+public class FenwickTree {
+
+    private final int[] tree;
+    private final int size;
+    private final int highBit;
+    private int total;
+
+    public FenwickTree(int size) {
+        this.size = size;
+        this.tree = new int[size + 1];
+        this.highBit = Integer.highestOneBit(Math.max(1, size));
+    }
+
+    public void add(int bucket, int delta) {
+        if (bucket < 0 || bucket >= size) {
+            throw new IndexOutOfBoundsException("Bucket " + bucket + " out of range [0, " + size + ")");
+        }
+        for (int i = bucket + 1; i <= size; i += i & -i) {
+            tree[i] += delta;
+        }
+        total += delta;
+    }
+
+    /**
+     * Count of values in buckets 0 .. bucket (inclusive).
+     */
+    public int prefix(int bucket) {
+        int sum = 0;
+        for (int i = Math.min(bucket, size - 1) + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Count of values in buckets from .. to (inclusive).
+     */
+    public int rangeCount(int from, int to) {
+        if (from > to) return 0;
+        return prefix(to) - (from > 0 ? prefix(from - 1) : 0);
+    }
+
+    /**
+     * Bucket holding the k-th smallest value (1-based), found by binary lifting.
+     */
+    public int kth(int k) {
+        if (k < 1 || k > total) {
+            throw new IndexOutOfBoundsException("Rank " + k + " out of range [1, " + total + "]");
+        }
+        int pos = 0;
+        for (int step = highBit; step > 0; step >>= 1) {
+            int next = pos + step;
+            if (next <= size && tree[next] < k) {
+                pos = next;
+                k -= tree[next];
+            }
+        }
+        return pos; // tree is 1-based, so pos is the 0-based bucket
+    }
+
+    public int total() {
+        return total;
+    }
+
+    public int size() {
+        return size;
+    }
+}
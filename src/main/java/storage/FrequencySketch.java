@@ -0,0 +1,124 @@
+package storage;
+
+import java.util.Arrays;
+
+/**
+ * Approximate access counts for a bounded cache (a count-min sketch).
+ * Each item owns four 4-bit counters, picked by four hash functions from a
+ * long[] table of sixteen counters per slot; its frequency is the smallest of the four, so collisions can only
+ * overstate it. Counters saturate at 15, and once the sketch has recorded
+ * ten increments per tracked item it halves every counter, so counts follow
+ * recent popularity instead of all-time totals.
+ * Memory: 8 bytes per tracked item, whatever the number of distinct keys seen.
+ * Big-O: increment / frequency -> O(1); the periodic halving is O(table)
+ * spread over 10 * capacity increments.
+ * Not thread-safe; owners lock around it.
+ */
+public class FrequencySketch {
+
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private long[] table;
+    private int mask;
+    private int sampleSize;
+    private int additions;
+
+    /**
+     * @param capacity the number of items the owner keeps, which sets both
+     *                 the table size and how often counters are halved
+     */
+    public FrequencySketch(int capacity) {
+        int size = tableSize(capacity);
+        this.table = new long[size];
+        this.mask = size - 1;
+        this.sampleSize = 10 * size;
+    }
+
+    /**
+     * Grow the table for owners whose item count is not known up front
+     * (a cache bounded by bytes). Doubling keeps every estimate: an index
+     * either stays or moves up by the old length, so both halves start as
+     * copies of the old table.
+     */
+    public void ensureCapacity(int capacity) {
+        int size = tableSize(Math.min(capacity, 1 << 30));
+        while (table.length < size) {
+            long[] grown = Arrays.copyOf(table, table.length * 2);
+            System.arraycopy(table, 0, grown, table.length, table.length);
+            table = grown;
+        }
+        mask = table.length - 1;
+        sampleSize = 10 * table.length;
+    }
+
+    private static int tableSize(int capacity) {
+        return Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+    }
+
+    /**
+     * The estimated number of recent occurrences of the hash, 0 .. 15.
+     */
+    public int frequency(int hash) {
+        int spread = spread(hash);
+        int start = (spread & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(spread, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    public void increment(int hash) {
+        int spread = spread(hash);
+        int start = (spread & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(spread, i), start + i);
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+        additions = 0;
+    }
+
+    // Counter j (0..15) of table[index], unless it is saturated
+    private boolean incrementAt(int index, int j) {
+        int offset = j << 2;
+        long counterMask = 0xfL << offset;
+        if ((table[index] & counterMask) != counterMask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    // Halve every counter; the odd ones lose their low bit
+    private void reset() {
+        int odd = 0;
+        for (int i = 0; i < table.length; i++) {
+            odd += Long.bitCount(table[i] & 0x1111111111111111L);
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = (additions >>> 1) - (odd >>> 2);
+    }
+
+    private int indexOf(int spread, int row) {
+        long h = (spread + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (int) h & mask;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
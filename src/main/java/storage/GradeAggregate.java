@@ -0,0 +1,51 @@
+package storage;
+
+/**
+ * Running count / sum / min / max over a stream of grades.
+ * Big-O: add -> O(1), mean/min/max -> O(1).
+ */
+public class GradeAggregate {
+
+    private int count;
+    private double sum;
+    private double min = Double.NaN;
+    private double max = Double.NaN;
+
+    public GradeAggregate() {
+    }
+
+    // Copy constructor, used to hand out point-in-time views
+    public GradeAggregate(GradeAggregate other) {
+        this.count = other.count;
+        this.sum = other.sum;
+        this.min = other.min;
+        this.max = other.max;
+    }
+
+    public void add(double grade) {
+        if (count == 0 || grade < min) min = grade;
+        if (count == 0 || grade > max) max = grade;
+        sum += grade;
+        count++;
+    }
+
+    // Fold another aggregate's values into this one
+    protected void combine(GradeAggregate other) {
+        if (other.count == 0) return;
+        if (count == 0 || other.min < min) min = other.min;
+        if (count == 0 || other.max > max) max = other.max;
+        sum += other.sum;
+        count += other.count;
+    }
+
+    public int getCount() { return count; }
+
+    public double getSum() { return sum; }
+
+    // -1 when nothing has been recorded, matching the GradeManager average convention
+    public double getMean() { return count > 0 ? sum / count : -1; }
+
+    public double getMin() { return min; }
+
+    public double getMax() { return max; }
+}
@@ -0,0 +1,326 @@
+package storage;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Growable columnar storage for grade records.
+ * Each record is split across primitive column arrays (grade id, student id,
+ * subject id, grade in hundredths of a point, epoch day), about 16 bytes per grade.
+ *
+ * Records live in fixed-size chunks. Growing allocates a new chunk and only the
+ * small chunk directory is ever copied, so existing records are never moved.
+ * Big-O: append -> O(1) amortized, read by slot -> O(1).
+ *
+ * Chunks are backed either by primitive arrays on the heap or by direct
+ * ByteBuffers off-heap (see {@link Backing}). Off-heap chunks keep the grade
+ * data out of the garbage collector's view entirely; the heap only holds the
+ * small chunk objects. The default comes from the {@code grades.storage}
+ * system property ("heap" or "offheap") read at startup.
+ *
+ * Thread-safety: any number of threads may append concurrently. A writer claims
+ * its slot with a single atomic increment and fills the columns without locking;
+ * only allocating a new chunk takes a lock (once every CHUNK_SIZE records).
+ * Slots become visible to readers in slot order through the {@code published}
+ * watermark, so size() never exposes a half-written record.
+ */
+public class GradeStore {
+
+    static final int CHUNK_SHIFT = 14;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT; // 16384 records per chunk
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int MAX_CHUNKS = Integer.MAX_VALUE / CHUNK_SIZE;
+
+    public static final int MAX_GRADE_HUNDREDTHS = 100_00;
+
+    // bytes per record across all columns: 3 ints + 2 shorts
+    public static final int RECORD_BYTES = 16;
+
+    /**
+     * Where chunk data lives.
+     */
+    public enum Backing {
+        HEAP,
+        OFF_HEAP;
+
+        public static final String PROPERTY = "grades.storage";
+
+        /**
+         * Backing selected by -Dgrades.storage=heap|offheap, HEAP if unset or unknown.
+         */
+        public static Backing configured() {
+            String value = System.getProperty(PROPERTY, "heap").trim();
+            return value.equalsIgnoreCase("offheap") || value.equalsIgnoreCase("off_heap") ? OFF_HEAP : HEAP;
+        }
+    }
+
+    private final Backing backing;
+    private final Object growLock = new Object();
+    private final AtomicInteger reserved = new AtomicInteger();
+    // Directory is replaced (never mutated in place) so readers see fully built chunks
+    private volatile Chunk[] chunks = new Chunk[8];
+    // Every slot below this mark is completely written
+    private volatile int published = 0;
+
+    public GradeStore() {
+        this(Backing.configured());
+    }
+
+    public GradeStore(Backing backing) {
+        this.backing = backing;
+    }
+
+    /**
+     * One block of CHUNK_SIZE records stored column by column.
+     */
+    private abstract static class Chunk {
+        abstract void put(int offset, int gradeId, int studentId, int subjectId, short hundredths, int epochDay);
+        abstract int gradeId(int offset);
+        abstract int studentId(int offset);
+        abstract int subjectId(int offset);
+        abstract int hundredths(int offset);
+        abstract int epochDay(int offset);
+
+        // Copy a run of records; subclasses may do better than one put per record
+        void putRun(int offset, int[] gradeIds, int[] studentIds, int[] subjectIds, short[] hundredths, int[] epochDays, int from, int run) {
+            for (int j = 0; j < run; j++) {
+                put(offset + j, gradeIds[from + j], studentIds[from + j], subjectIds[from + j], hundredths[from + j], epochDays[from + j]);
+            }
+        }
+    }
+
+    private static final class HeapChunk extends Chunk {
+        final int[] gradeIds = new int[CHUNK_SIZE];
+        final int[] studentIds = new int[CHUNK_SIZE];
+        final short[] subjectIds = new short[CHUNK_SIZE];
+        final short[] grades = new short[CHUNK_SIZE];
+        final int[] epochDays = new int[CHUNK_SIZE];
+
+        @Override
+        void put(int offset, int gradeId, int studentId, int subjectId, short hundredths, int epochDay) {
+            gradeIds[offset] = gradeId;
+            studentIds[offset] = studentId;
+            subjectIds[offset] = (short) subjectId;
+            grades[offset] = hundredths;
+            epochDays[offset] = epochDay;
+        }
+
+        @Override
+        void putRun(int offset, int[] gradeIds, int[] studentIds, int[] subjectIds, short[] hundredths, int[] epochDays, int from, int run) {
+            System.arraycopy(gradeIds, from, this.gradeIds, offset, run);
+            System.arraycopy(studentIds, from, this.studentIds, offset, run);
+            System.arraycopy(hundredths, from, this.grades, offset, run);
+            System.arraycopy(epochDays, from, this.epochDays, offset, run);
+            for (int j = 0; j < run; j++) {
+                this.subjectIds[offset + j] = (short) subjectIds[from + j];
+            }
+        }
+
+        @Override int gradeId(int offset) { return gradeIds[offset]; }
+        @Override int studentId(int offset) { return studentIds[offset]; }
+        @Override int subjectId(int offset) { return subjectIds[offset]; }
+        @Override int hundredths(int offset) { return grades[offset]; }
+        @Override int epochDay(int offset) { return epochDays[offset]; }
+    }
+
+    /**
+     * Same column layout inside one direct buffer: grade ids, student ids and
+     * epoch days as ints, then subject ids and grades as shorts.
+     */
+    private static final class OffHeapChunk extends Chunk {
+        private static final int STUDENT_IDS = CHUNK_SIZE * 4;
+        private static final int EPOCH_DAYS = CHUNK_SIZE * 8;
+        private static final int SUBJECT_IDS = CHUNK_SIZE * 12;
+        private static final int GRADES = CHUNK_SIZE * 14;
+
+        final ByteBuffer data = ByteBuffer.allocateDirect(CHUNK_SIZE * RECORD_BYTES).order(ByteOrder.nativeOrder());
+
+        @Override
+        void put(int offset, int gradeId, int studentId, int subjectId, short hundredths, int epochDay) {
+            data.putInt(offset << 2, gradeId);
+            data.putInt(STUDENT_IDS + (offset << 2), studentId);
+            data.putInt(EPOCH_DAYS + (offset << 2), epochDay);
+            data.putShort(SUBJECT_IDS + (offset << 1), (short) subjectId);
+            data.putShort(GRADES + (offset << 1), hundredths);
+        }
+
+        @Override int gradeId(int offset) { return data.getInt(offset << 2); }
+        @Override int studentId(int offset) { return data.getInt(STUDENT_IDS + (offset << 2)); }
+        @Override int subjectId(int offset) { return data.getShort(SUBJECT_IDS + (offset << 1)); }
+        @Override int hundredths(int offset) { return data.getShort(GRADES + (offset << 1)); }
+        @Override int epochDay(int offset) { return data.getInt(EPOCH_DAYS + (offset << 2)); }
+    }
+
+    /**
+     * Append a record and return the slot it was stored in.
+     * Safe to call from several threads at once.
+     */
+    public int append(int gradeId, int studentId, int subjectId, double grade, int epochDay) {
+        // validate before claiming a slot so a rejected grade never leaves a gap
+        short hundredths = (short) toHundredths(grade);
+        int slot = reserved.getAndIncrement();
+        int chunkIndex = slot >>> CHUNK_SHIFT;
+        if (slot < 0 || chunkIndex >= MAX_CHUNKS) {
+            throw new IllegalStateException("Grade store capacity of " + ((long) MAX_CHUNKS * CHUNK_SIZE) + " records reached");
+        }
+        Chunk chunk = chunkForWrite(chunkIndex);
+
+        chunk.put(slot & CHUNK_MASK, gradeId, studentId, subjectId, hundredths, epochDay);
+        publish(slot, 1);
+        return slot;
+    }
+
+    /**
+     * Append {@code count} records given column by column and return the slot of
+     * the first one; the rest follow contiguously. The whole range is claimed with
+     * one atomic add and published at once. Every grade is validated first, so a
+     * bad value rejects the batch without storing anything.
+     */
+    public int appendAll(int[] gradeIds, int[] studentIds, int[] subjectIds, double[] grades, int[] epochDays, int count) {
+        short[] hundredths = new short[count];
+        for (int i = 0; i < count; i++) {
+            hundredths[i] = (short) toHundredths(grades[i]);
+        }
+        if (count == 0) {
+            return published;
+        }
+        int first = reserved.getAndAdd(count);
+        long end = (long) first + count;
+        if (first < 0 || end > (long) MAX_CHUNKS * CHUNK_SIZE) {
+            throw new IllegalStateException("Grade store capacity of " + ((long) MAX_CHUNKS * CHUNK_SIZE) + " records reached");
+        }
+
+        int i = 0;
+        while (i < count) {
+            int slot = first + i;
+            Chunk chunk = chunkForWrite(slot >>> CHUNK_SHIFT);
+            int offset = slot & CHUNK_MASK;
+            // copy up to the end of this chunk in one go
+            int run = Math.min(count - i, CHUNK_SIZE - offset);
+            chunk.putRun(offset, gradeIds, studentIds, subjectIds, hundredths, epochDays, i, run);
+            i += run;
+        }
+        publish(first, count);
+        return first;
+    }
+
+    public int size() {
+        return published;
+    }
+
+    public Backing getBacking() {
+        return backing;
+    }
+
+    public int gradeId(int slot) {
+        return chunk(slot).gradeId(slot & CHUNK_MASK);
+    }
+
+    public int studentId(int slot) {
+        return chunk(slot).studentId(slot & CHUNK_MASK);
+    }
+
+    public int subjectId(int slot) {
+        return chunk(slot).subjectId(slot & CHUNK_MASK);
+    }
+
+    public int gradeHundredths(int slot) {
+        return chunk(slot).hundredths(slot & CHUNK_MASK);
+    }
+
+    public double grade(int slot) {
+        return gradeHundredths(slot) / 100.0;
+    }
+
+    public int epochDay(int slot) {
+        return chunk(slot).epochDay(slot & CHUNK_MASK);
+    }
+
+    /**
+     * Drop all records and release the chunks.
+     * Not safe while appends are in flight; callers swap in a new store instead.
+     */
+    public void clear() {
+        synchronized (growLock) {
+            chunks = new Chunk[8];
+            reserved.set(0);
+            published = 0;
+        }
+    }
+
+    /**
+     * Approximate bytes of record data in allocated chunks (heap or off-heap,
+     * depending on the backing).
+     */
+    public long allocatedBytes() {
+        long allocated = 0;
+        for (Chunk c : chunks) {
+            if (c != null) allocated += (long) CHUNK_SIZE * RECORD_BYTES;
+        }
+        return allocated;
+    }
+
+    /**
+     * Convert a 0-100 grade to whole hundredths of a point.
+     * @throws IllegalArgumentException if the grade is out of range or not a
+     *         number (Math.round(NaN) would otherwise store it as 0)
+     */
+    public static int toHundredths(double grade) {
+        if (!Double.isFinite(grade)) {
+            throw new IllegalArgumentException("Grade is not a number: " + grade);
+        }
+        long hundredths = Math.round(grade * 100.0);
+        if (hundredths < 0 || hundredths > MAX_GRADE_HUNDREDTHS) {
+            throw new IllegalArgumentException("Grade out of range: " + grade);
+        }
+        return (int) hundredths;
+    }
+
+    private Chunk chunk(int slot) {
+        int size = published;
+        if (slot < 0 || slot >= size) {
+            throw new IndexOutOfBoundsException("Slot " + slot + " out of range [0, " + size + ")");
+        }
+        return chunks[slot >>> CHUNK_SHIFT];
+    }
+
+    private Chunk chunkForWrite(int chunkIndex) {
+        Chunk[] dir = chunks;
+        if (chunkIndex < dir.length && dir[chunkIndex] != null) {
+            return dir[chunkIndex];
+        }
+        synchronized (growLock) {
+            dir = chunks;
+            if (chunkIndex >= dir.length || dir[chunkIndex] == null) {
+                int length = dir.length;
+                while (chunkIndex >= length) {
+                    length = Math.min(MAX_CHUNKS, length * 2);
+                }
+                Chunk[] grown = Arrays.copyOf(dir, length);
+                grown[chunkIndex] = backing == Backing.OFF_HEAP ? new OffHeapChunk() : new HeapChunk();
+                chunks = grown;
+                dir = grown;
+            }
+            return dir[chunkIndex];
+        }
+    }
+
+    /**
+     * Advance the published watermark past the given slot range. Writers finish
+     * in slot order: each waits for its predecessor, which is only ever a few
+     * column stores away, so the wait is a short spin.
+     */
+    private void publish(int slot, int count) {
+        int spins = 0;
+        while (published != slot) {
+            if (++spins < 64) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        published = slot + count;
+    }
+}
@@ -0,0 +1,103 @@
+package storage;
+
+/**
+ * Order-statistic index over grade values in hundredths of a point
+ * (10001 buckets for 0.00 .. 100.00). A Fenwick tree answers counts and
+ * ranks; each bucket keeps the slots of its grades for enumeration.
+ * Big-O: range count / median / percentile -> O(log B) with B = 10001,
+ * range enumeration -> O(distinct values in range * log B + k).
+ *
+ * Thread-safety: all methods lock this instance; results are copies.
+ */
+public class GradeValueIndex {
+
+    public static final int BUCKETS = GradeStore.MAX_GRADE_HUNDREDTHS + 1;
+
+    private final FenwickTree counts = new FenwickTree(BUCKETS);
+    private final IntList[] slots = new IntList[BUCKETS];
+
+    public synchronized void add(int hundredths, int slot) {
+        IntList list = slots[hundredths];
+        if (list == null) {
+            list = new IntList();
+            slots[hundredths] = list;
+        }
+        list.add(slot);
+        counts.add(hundredths, 1);
+    }
+
+    public synchronized int size() {
+        return counts.total();
+    }
+
+    public synchronized int countBetween(int fromHundredths, int toHundredths) {
+        return counts.rangeCount(Math.max(0, fromHundredths), Math.min(BUCKETS - 1, toHundredths));
+    }
+
+    /**
+     * Slots of grades between the two values (inclusive), lowest value first;
+     * equal values keep insertion order. Empty buckets are skipped by rank.
+     */
+    public synchronized int[] slotsBetween(int fromHundredths, int toHundredths) {
+        int from = Math.max(0, fromHundredths);
+        int to = Math.min(BUCKETS - 1, toHundredths);
+        if (from > to) return new int[0];
+        int rank = (from > 0 ? counts.prefix(from - 1) : 0) + 1;
+        int last = counts.prefix(to);
+        int[] result = new int[Math.max(0, last - rank + 1)];
+        int pos = 0;
+        while (rank <= last) {
+            IntList list = slots[counts.kth(rank)];
+            for (int i = 0; i < list.size(); i++) {
+                result[pos++] = list.get(i);
+            }
+            rank += list.size();
+        }
+        return result;
+    }
+
+    /**
+     * Value (in hundredths) of the k-th smallest grade, 1-based.
+     */
+    public synchronized int kth(int k) {
+        return counts.kth(k);
+    }
+
+    /**
+     * Median grade; the mean of the two middle values when the count is even.
+     * -1 when empty.
+     */
+    public synchronized double median() {
+        int n = counts.total();
+        if (n == 0) return -1;
+        if (n % 2 == 1) return counts.kth(n / 2 + 1) / 100.0;
+        return (counts.kth(n / 2) + counts.kth(n / 2 + 1)) / 200.0;
+    }
+
+    /**
+     * Nearest-rank percentile (0 < p <= 100) of all grades, -1 when empty.
+     */
+    public synchronized double percentile(double p) {
+        int n = counts.total();
+        if (n == 0) return -1;
+        int rank = (int) Math.ceil(Math.max(0, Math.min(100, p)) / 100.0 * n);
+        return counts.kth(Math.max(1, rank)) / 100.0;
+    }
+
+    /**
+     * Most frequent grade, the lowest one on ties; -1 when empty.
+     * Big-O: O(B).
+     */
+    public synchronized double mode() {
+        int best = -1;
+        int bestCount = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            int c = slots[b] == null ? 0 : slots[b].size();
+            if (c > bestCount) {
+                bestCount = c;
+                best = b;
+            }
+        }
+        return best < 0 ? -1 : best / 100.0;
+    }
+}
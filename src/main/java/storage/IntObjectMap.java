@@ -0,0 +1,134 @@
+package storage;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Hash map from primitive int keys to objects (no boxing, no allocation on
+ * lookup). Open addressing with linear probing; a null value marks a free
+ * slot, so null values cannot be stored.
+ * Big-O: get/put -> O(1) expected, table kept at most half full;
+ * remove -> O(n), it rebuilds the table (removals are rare).
+ *
+ * Thread-safety: one writer at a time (callers serialize put/remove/clear),
+ * any number of concurrent readers. get() never locks: a new entry's key is
+ * written before its value is published, and resize/remove build a new table
+ * and swap it in, so a reader never sees a half-written entry.
+ */
+public class IntObjectMap<V> {
+
+    private static final class Table {
+        final int[] keys;
+        final AtomicReferenceArray<Object> values;
+        final int mask;
+
+        Table(int capacity) {
+            keys = new int[capacity];
+            values = new AtomicReferenceArray<>(capacity);
+            mask = capacity - 1;
+        }
+    }
+
+    private volatile Table table;
+    private volatile int size;
+
+    public IntObjectMap() {
+        this(16);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        table = new Table(Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        Table t = table;
+        for (int i = slot(key, t.mask); ; i = (i + 1) & t.mask) {
+            Object value = t.values.get(i);
+            if (value == null) {
+                return null;
+            }
+            if (t.keys[i] == key) {
+                return (V) value;
+            }
+        }
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Map key to value, returning the value it replaced (or null).
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+        Table t = table;
+        int i = slot(key, t.mask);
+        Object current;
+        while ((current = t.values.get(i)) != null) {
+            if (t.keys[i] == key) {
+                t.values.set(i, value);
+                return (V) current;
+            }
+            i = (i + 1) & t.mask;
+        }
+        // key first; the volatile value write publishes both
+        t.keys[i] = key;
+        t.values.set(i, value);
+        if (++size * 2 > t.keys.length) {
+            table = copy(t, t.keys.length * 2, key, false);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        V removed = get(key);
+        if (removed != null) {
+            Table t = table;
+            table = copy(t, t.keys.length, key, true);
+            size--;
+        }
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        table = new Table(table.keys.length);
+        size = 0;
+    }
+
+    private static int slot(int key, int mask) {
+        // spread sequential ids across the table
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    // Rehash every entry into a fresh table, optionally leaving one key out
+    private static Table copy(Table from, int capacity, int key, boolean skipKey) {
+        Table to = new Table(capacity);
+        for (int i = 0; i < from.keys.length; i++) {
+            Object value = from.values.get(i);
+            if (value == null || (skipKey && from.keys[i] == key)) {
+                continue;
+            }
+            int j = slot(from.keys[i], to.mask);
+            while (to.values.get(j) != null) {
+                j = (j + 1) & to.mask;
+            }
+            to.keys[j] = from.keys[i];
+            to.values.set(j, value);
+        }
+        return to;
+    }
+}
@@ -0,0 +1,59 @@
+package storage;
+
+/**
+ * Everything GradeManager maintains for one student: the posting list of grade
+ * slots plus running aggregates split by Core and Elective and the GPA point sum.
+ * All fields are updated in O(1) per recorded grade.
+ *
+ * Thread-safety: every method locks this instance, so writers for different
+ * students never contend. Getters return copies that stay consistent after
+ * the lock is released.
+ */
+public class StudentGrades {
+
+    private final IntList slots = new IntList();
+    private final GradeAggregate core = new GradeAggregate();
+    private final GradeAggregate elective = new GradeAggregate();
+    private final GradeAggregate overall = new GradeAggregate();
+    private double gpaSum;
+    // bucket this student's average currently occupies in the percentile-rank tree, -1 if none
+    private int rankBucket = -1;
+
+    public synchronized void add(int slot, double grade, boolean coreSubject, double gpaPoints) {
+        slots.add(slot);
+        if (coreSubject) {
+            core.add(grade);
+        } else {
+            elective.add(grade);
+        }
+        overall.add(grade);
+        gpaSum += gpaPoints;
+    }
+
+    public synchronized int[] getSlots() { return slots.toArray(); }
+
+    public synchronized GradeAggregate getCore() { return new GradeAggregate(core); }
+
+    public synchronized GradeAggregate getElective() { return new GradeAggregate(elective); }
+
+    public synchronized GradeAggregate getOverall() { return new GradeAggregate(overall); }
+
+    public synchronized double getCoreMean() { return core.getMean(); }
+
+    public synchronized double getElectiveMean() { return elective.getMean(); }
+
+    public synchronized double getOverallMean() { return overall.getMean(); }
+
+    public synchronized int getCount() { return overall.getCount(); }
+
+    public synchronized double getGpaSum() { return gpaSum; }
+
+    public synchronized double getGpa() {
+        int count = overall.getCount();
+        return count > 0 ? gpaSum / count : 0.0;
+    }
+
+    public synchronized int getRankBucket() { return rankBucket; }
+
+    public synchronized void setRankBucket(int rankBucket) { this.rankBucket = rankBucket; }
+}
@@ -0,0 +1,73 @@
+package storage;
+
+/**
+ * Running statistics for one subject: count / sum / min / max plus the sum of
+ * squares (for variance) and a 101-bucket histogram of whole grade points,
+ * bucket i counting grades in [i, i + 1) and bucket 100 counting exactly 100.
+ * Big-O: add -> O(1), mean/variance -> O(1), range counts -> O(buckets).
+ */
+public class SubjectAggregate extends GradeAggregate {
+
+    public static final int BUCKETS = 101;
+
+    private double sumOfSquares;
+    private final int[] histogram = new int[BUCKETS];
+
+    public SubjectAggregate() {
+    }
+
+    // Copy constructor, used to hand out point-in-time views
+    public SubjectAggregate(SubjectAggregate other) {
+        super(other);
+        this.sumOfSquares = other.sumOfSquares;
+        System.arraycopy(other.histogram, 0, this.histogram, 0, BUCKETS);
+    }
+
+    @Override
+    public void add(double grade) {
+        super.add(grade);
+        sumOfSquares += grade * grade;
+        histogram[bucketOf(grade)]++;
+    }
+
+    /**
+     * Fold another aggregate into this one (e.g. all Core subjects together).
+     */
+    public void merge(SubjectAggregate other) {
+        if (other.getCount() == 0) return;
+        combine(other);
+        sumOfSquares += other.sumOfSquares;
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] += other.histogram[i];
+        }
+    }
+
+    public double getSumOfSquares() { return sumOfSquares; }
+
+    // Population variance; 0 when nothing has been recorded
+    public double getVariance() {
+        int count = getCount();
+        if (count == 0) return 0;
+        double mean = getSum() / count;
+        return Math.max(0, sumOfSquares / count - mean * mean);
+    }
+
+    public double getStdDev() { return Math.sqrt(getVariance()); }
+
+    public int[] getHistogram() { return histogram.clone(); }
+
+    /**
+     * Number of grades in [from, to) whole points, e.g. countBetween(90, 101) for A grades.
+     */
+    public int countBetween(int from, int to) {
+        int total = 0;
+        for (int i = Math.max(0, from); i < Math.min(BUCKETS, to); i++) {
+            total += histogram[i];
+        }
+        return total;
+    }
+
+    private static int bucketOf(double grade) {
+        return Math.max(0, Math.min(BUCKETS - 1, (int) grade));
+    }
+}
@@ -0,0 +1,24 @@
+package storage;
+
+/**
+ * Everything GradeManager maintains for one subject: the posting list of grade
+ * slots plus a SubjectAggregate, both updated in O(1) per recorded grade.
+ *
+ * Thread-safety: every method locks this instance; getters return copies.
+ */
+public class SubjectGrades {
+
+    private final IntList slots = new IntList();
+    private final SubjectAggregate stats = new SubjectAggregate();
+
+    public synchronized void add(int slot, double grade) {
+        slots.add(slot);
+        stats.add(grade);
+    }
+
+    public synchronized int[] getSlots() { return slots.toArray(); }
+
+    public synchronized SubjectAggregate getStats() { return new SubjectAggregate(stats); }
+
+    public synchronized int getCount() { return stats.getCount(); }
+}
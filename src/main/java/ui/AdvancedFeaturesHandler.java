@@ -1,5 +1,6 @@
 package ui;
 
+import context.StudentRegistry;
 import context.ApplicationContext;
 import core.Student;
 import core.Grade;
@@ -20,11 +21,11 @@ import java.util.Scanner;
 public class AdvancedFeaturesHandler {
     private final ApplicationContext context;
     private final Scanner scanner;
-    private final ArrayList<Student> students;
+    private final StudentRegistry students;
     private final GradeManager gradeManager;
 
     public AdvancedFeaturesHandler(ApplicationContext context, Scanner scanner, 
-                                   ArrayList<Student> students, GradeManager gradeManager) {
+                                   StudentRegistry students, GradeManager gradeManager) {
         this.context = context;
         this.scanner = scanner;
         this.students = students;
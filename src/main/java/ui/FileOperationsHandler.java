@@ -1,5 +1,6 @@
 package ui;
 
+import context.StudentRegistry;
 import context.ApplicationContext;
 import core.Student;
 import core.Grade;
@@ -28,11 +29,11 @@ import java.util.Scanner;
 public class FileOperationsHandler {
     private final ApplicationContext context;
     private final Scanner scanner;
-    private final ArrayList<Student> students;
+    private final StudentRegistry students;
     private final GradeManager gradeManager;
 
     public FileOperationsHandler(ApplicationContext context, Scanner scanner, 
-                                ArrayList<Student> students, GradeManager gradeManager) {
+                                StudentRegistry students, GradeManager gradeManager) {
         this.context = context;
         this.scanner = scanner;
         this.students = students;
@@ -50,13 +51,7 @@ public class FileOperationsHandler {
                 int id = scanner.nextInt();
                 scanner.nextLine();
 
-                Student selected = null;
-                for (Student s : students) {
-                    if (s.id == id) {
-                        selected = s;
-                        break;
-                    }
-                }
+                Student selected = context.getStudentById(id);
 
                 if (selected == null) {
                     System.out.println("Student not found!");
@@ -97,12 +92,9 @@ public class FileOperationsHandler {
                     detailedContent.append(String.format("%-20s %-10s\n", "SUBJECT", "GRADE"));
                     detailedContent.append("------------------------------------\n");
 
-                    for (int i = 0; i < gradeManager.getGradeCount(); i++) {
-                        Grade g = gradeManager.grades[i];
-                        if (g.getStudentId() == id) {
-                            detailedContent.append(String.format("%-20s %.2f\n",
-                                    g.getSubject().getSubjectName(), g.getGrade()));
-                        }
+                    for (Grade g : gradeManager.getStudentGrades(id)) {
+                        detailedContent.append(String.format("%-20s %.2f\n",
+                                g.getSubject().getSubjectName(), g.getGrade()));
                     }
                 }
 
@@ -340,12 +332,12 @@ public class FileOperationsHandler {
                         try {
                             int id = context.generateStudentId();
                             Student newStudent = StudentFactory.createStudent(type, id, name, age, email, phone);
-                            students.add(newStudent); // O(1) append
-                            context.getStudentIndex().put(String.valueOf(newStudent.getId()), newStudent); // O(1) average
+                            context.addStudent(newStudent); // O(1) append + index
                             
                             // Cache newly added student
                             try {
-                                CacheManager.getInstance().put("student:" + newStudent.getId(), newStudent);
+                                CacheManager.getInstance().put("student:" + newStudent.getId(), newStudent,
+                                        CacheManager.studentTag(newStudent.getId()));
                             } catch (Exception ex) {
                                 // ignore cache errors
                             }
@@ -1,19 +1,23 @@
 package ui;
 
+import context.StudentRegistry;
 import context.ApplicationContext;
 import core.Student;
 import core.Grade;
 import core.Subject;
-import core.CoreSubject;
-import core.ElectiveSubject;
 import models.HonorsStudent;
 import manager.GradeManager;
+import manager.SubjectRegistry;
+import storage.SubjectAggregate;
 import audit.AuditLogger;
 
 import exception.StudentNotFoundException;
 import exception.SubjectNotFoundException;
 import exception.InvalidGradeException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -24,11 +28,11 @@ import java.util.Scanner;
 public class GradeMenuHandler {
     private final ApplicationContext context;
     private final Scanner scanner;
-    private final ArrayList<Student> students;
+    private final StudentRegistry students;
     private final GradeManager gradeManager;
 
     public GradeMenuHandler(ApplicationContext context, Scanner scanner, 
-                           ArrayList<Student> students, GradeManager gradeManager) {
+                           StudentRegistry students, GradeManager gradeManager) {
         this.context = context;
         this.scanner = scanner;
         this.students = students;
@@ -48,13 +52,7 @@ public class GradeMenuHandler {
                 int id = scanner.nextInt();
                 scanner.nextLine();
 
-                Student selected = null;
-                for (Student s : students) {
-                    if (s.id == id) {
-                        selected = s;
-                        break;
-                    }
-                }
+                Student selected = context.getStudentById(id);
                 if (selected == null) {
                     throw new StudentNotFoundException("Student not found!");
                 }
@@ -66,6 +64,7 @@ public class GradeMenuHandler {
                 int type = scanner.nextInt();
                 scanner.nextLine();
 
+                SubjectRegistry subjects = SubjectRegistry.getInstance();
                 Subject subject = null;
                 if (type == 1) {
                     System.out.println("Select Core Subject:");
@@ -74,9 +73,9 @@ public class GradeMenuHandler {
                     System.out.println("3. Science");
                     int choice = scanner.nextInt();
                     scanner.nextLine();
-                    if (choice == 1) subject = new CoreSubject("Mathematics", "C-MATH");
-                    else if (choice == 2) subject = new CoreSubject("English", "C-ENG");
-                    else if (choice == 3) subject = new CoreSubject("Science", "C-SCI");
+                    if (choice == 1) subject = subjects.intern("Mathematics", "Core");
+                    else if (choice == 2) subject = subjects.intern("English", "Core");
+                    else if (choice == 3) subject = subjects.intern("Science", "Core");
                     else throw new SubjectNotFoundException("Invalid subject selection: " + choice);
                 } else if (type == 2) {
                     System.out.println("Select Elective Subject:");
@@ -85,9 +84,9 @@ public class GradeMenuHandler {
                     System.out.println("3. Physical Education");
                     int choice = scanner.nextInt();
                     scanner.nextLine();
-                    if (choice == 1) subject = new ElectiveSubject("Music", "E-MUS");
-                    else if (choice == 2) subject = new ElectiveSubject("Art", "E-ART");
-                    else if (choice == 3) subject = new ElectiveSubject("Physical Education", "E-PE");
+                    if (choice == 1) subject = subjects.intern("Music", "Elective");
+                    else if (choice == 2) subject = subjects.intern("Art", "Elective");
+                    else if (choice == 3) subject = subjects.intern("Physical Education", "Elective");
                     else throw new SubjectNotFoundException("Invalid subject selection: " + choice);
                 } else {
                     throw new SubjectNotFoundException("Invalid category choice: " + type);
@@ -96,7 +95,7 @@ public class GradeMenuHandler {
                 System.out.print("Enter grade (0 - 100): ");
                 double g = scanner.nextDouble();
                 scanner.nextLine();
-                if (g < 0 || g > 100) {
+                if (!Double.isFinite(g) || g < 0 || g > 100) {
                     throw new InvalidGradeException("Grade must be between 0 and 100. Received: " + g);
                 }
 
@@ -141,13 +140,7 @@ public class GradeMenuHandler {
      * Calculate and display GPA report for a student
      */
     public void viewStudentGPAReport(int studentId) {
-        Student student = null;
-        for (Student s : students) {
-            if (s.id == studentId) {
-                student = s;
-                break;
-            }
-        }
+        Student student = context.getStudentById(studentId);
 
         if (student == null) {
             System.out.println("Student not found!");
@@ -162,21 +155,18 @@ public class GradeMenuHandler {
         double totalGPA = 0.0;
         int count = 0;
 
-        // Iterate over all grades in gradeManager
-        for (int i = 0; i < gradeManager.getGradeCount(); i++) {
-            Grade g = gradeManager.grades[i];
-            if (g.getStudentId() == studentId) {
-                double gpaPoints = (g.getGrade() >= 80 ? 4.0 :
-                                    g.getGrade() >= 70 ? 3.0 :
-                                    g.getGrade() >= 60 ? 2.0 :
-                                    g.getGrade() >= 50 ? 1.0 : 0.0);
-                System.out.printf("%-20s %-10.2f %-10.2f\n",
-                        g.getSubject().getSubjectName(),
-                        g.getGrade(),
-                        gpaPoints);
-                totalGPA += gpaPoints;
-                count++;
-            }
+        // Iterate over this student's grades only
+        for (Grade g : gradeManager.getStudentGrades(studentId)) {
+            double gpaPoints = (g.getGrade() >= 80 ? 4.0 :
+                                g.getGrade() >= 70 ? 3.0 :
+                                g.getGrade() >= 60 ? 2.0 :
+                                g.getGrade() >= 50 ? 1.0 : 0.0);
+            System.out.printf("%-20s %-10.2f %-10.2f\n",
+                    g.getSubject().getSubjectName(),
+                    g.getGrade(),
+                    gpaPoints);
+            totalGPA += gpaPoints;
+            count++;
         }
 
         if (count == 0) {
@@ -194,13 +184,19 @@ public class GradeMenuHandler {
         else if (cumulativeGPA >= 1.0) letterGrade = "D";
         else letterGrade = "F";
 
-        // Rank
-        ArrayList<Student> rankedStudents = new ArrayList<>(students);
-        rankedStudents.sort((a, b) -> Double.compare(b.computeGPA(), a.computeGPA()));
+        // Rank: one pass over cached GPAs instead of sorting everyone.
+        // Same result as a stable sort by GPA: everyone with a higher GPA,
+        // plus those with an equal GPA listed before this student.
+        double ownGPA = student.computeGPA();
         int rank = 1;
-        for (Student s : rankedStudents) {
-            if (s.id == studentId) break;
-            rank++;
+        boolean beforeStudent = true;
+        for (Student s : students) {
+            if (s == student) {
+                beforeStudent = false;
+                continue;
+            }
+            double gpa = s.computeGPA();
+            if (gpa > ownGPA || (gpa == ownGPA && beforeStudent)) rank++;
         }
 
         // Display Summary
@@ -215,7 +211,8 @@ public class GradeMenuHandler {
      * View class-wide statistics
      */
     public void viewClassStatistics() {
-        if (students.isEmpty() || gradeManager.getGradeCount() == 0) {
+        int gradeCount = gradeManager.getGradeCount();
+        if (students.isEmpty() || gradeCount == 0) {
             System.out.println("No students or grades recorded in the system yet.");
             return;
         }
@@ -226,22 +223,31 @@ public class GradeMenuHandler {
 
         // 1️⃣ General Info
         System.out.println("Total Students: " + students.size());
-        System.out.println("Total Grades Recorded: " + gradeManager.getGradeCount() + "\n");
-
-        // 2️⃣ Grade Distribution
-        int[] gradeCounts = new int[5]; // A, B, C, D, F
-        for (int i = 0; i < gradeManager.getGradeCount(); i++) {
-            double grade = gradeManager.grades[i].getGrade();
-            if (grade >= 90) gradeCounts[0]++;
-            else if (grade >= 80) gradeCounts[1]++;
-            else if (grade >= 70) gradeCounts[2]++;
-            else if (grade >= 60) gradeCounts[3]++;
-            else gradeCounts[4]++;
+        System.out.println("Total Grades Recorded: " + gradeCount + "\n");
+
+        // Per-subject aggregates are maintained on insert; folding them is O(#subjects)
+        Map<Subject, SubjectAggregate> subjectStats = gradeManager.getSubjectStatistics();
+        SubjectAggregate all = new SubjectAggregate();
+        SubjectAggregate coreStats = new SubjectAggregate();
+        SubjectAggregate electiveStats = new SubjectAggregate();
+        for (Map.Entry<Subject, SubjectAggregate> entry : subjectStats.entrySet()) {
+            all.merge(entry.getValue());
+            if (entry.getKey().getSubjectType().equals("Core")) coreStats.merge(entry.getValue());
+            else electiveStats.merge(entry.getValue());
         }
 
+        // 2️⃣ Grade Distribution (from the histogram buckets)
+        int[] gradeCounts = {   // A, B, C, D, F
+                all.countBetween(90, SubjectAggregate.BUCKETS),
+                all.countBetween(80, 90),
+                all.countBetween(70, 80),
+                all.countBetween(60, 70),
+                all.countBetween(0, 60)
+        };
+
         System.out.println("GRADE DISTRIBUTION");
         String[] letters = {"A", "B", "C", "D", "F"};
-        int totalGrades = gradeManager.getGradeCount();
+        int totalGrades = Math.max(1, all.getCount());
         for (int i = 0; i < 5; i++) {
             int barLength = (int) ((gradeCounts[i] / (double) totalGrades) * 40);
             String bar = "█".repeat(barLength);
@@ -252,58 +258,18 @@ public class GradeMenuHandler {
         System.out.println();
 
         // 3️⃣ Statistical Analysis
-        ArrayList<Double> allGrades = new ArrayList<>();
-        double sum = 0;
-        double max = -1;
-        double min = 101;
-        Grade maxGradeObj = null;
-        Grade minGradeObj = null;
-
-        for (int i = 0; i < gradeManager.getGradeCount(); i++) {
-            Grade g = gradeManager.grades[i];
-            double grade = g.getGrade();
-            allGrades.add(grade);
-            sum += grade;
-
-            if (grade > max) {
-                max = grade;
-                maxGradeObj = g;
-            }
-            if (grade < min) {
-                min = grade;
-                minGradeObj = g;
-            }
-        }
-
-        allGrades.sort(Double::compare);
-
-        double mean = sum / allGrades.size();
-        double median = allGrades.size() % 2 == 0 ?
-                (allGrades.get(allGrades.size() / 2 - 1) + allGrades.get(allGrades.size() / 2)) / 2.0 :
-                allGrades.get(allGrades.size() / 2);
-
-        // Mode
-        double mode = allGrades.get(0);
-        int maxCount = 1;
-        for (int i = 0; i < allGrades.size(); i++) {
-            int count = 0;
-            for (double g : allGrades) {
-                if (g == allGrades.get(i)) count++;
-            }
-            if (count > maxCount) {
-                maxCount = count;
-                mode = allGrades.get(i);
-            }
-        }
-
-        // Standard deviation
-        double variance = 0;
-        for (double g : allGrades) {
-            variance += Math.pow(g - mean, 2);
-        }
-        variance /= allGrades.size();
-        double stdDev = Math.sqrt(variance);
+        // mean / spread come from the aggregates, median and mode from the grade-value index
+        double mean = all.getMean();
+        double median = gradeManager.getMedianGrade();
+        double mode = gradeManager.getModeGrade();
+        double stdDev = all.getStdDev();
+        double max = all.getMax();
+        double min = all.getMin();
         double range = max - min;
+        List<Grade> highest = gradeManager.getGradesInRange(max, max);
+        List<Grade> lowest = gradeManager.getGradesInRange(min, min);
+        Grade maxGradeObj = highest.isEmpty() ? null : highest.get(0);
+        Grade minGradeObj = lowest.isEmpty() ? null : lowest.get(0);
 
         System.out.println("STATISTICAL ANALYSIS");
         System.out.printf("Mean: %.2f\n", mean);
@@ -320,41 +286,14 @@ public class GradeMenuHandler {
 
         // 4️⃣ Subject Performance
         System.out.println("SUBJECT PERFORMANCE");
-        double coreSum = 0, electiveSum = 0;
-        int coreCount = 0, electiveCount = 0;
-
-        ArrayList<String> subjects = new ArrayList<>();
-        ArrayList<Double> subjectTotals = new ArrayList<>();
-        ArrayList<Integer> subjectCounts = new ArrayList<>();
-
-        for (int i = 0; i < gradeManager.getGradeCount(); i++) {
-            Grade g = gradeManager.grades[i];
-            if (g.getSubject().getSubjectType().equals("Core")) {
-                coreSum += g.getGrade();
-                coreCount++;
-            } else {
-                electiveSum += g.getGrade();
-                electiveCount++;
-            }
-
-            String subjName = g.getSubject().getSubjectName();
-            if (!subjects.contains(subjName)) {
-                subjects.add(subjName);
-                subjectTotals.add(g.getGrade());
-                subjectCounts.add(1);
-            } else {
-                int index = subjects.indexOf(subjName);
-                subjectTotals.set(index, subjectTotals.get(index) + g.getGrade());
-                subjectCounts.set(index, subjectCounts.get(index) + 1);
-            }
-        }
-
-        System.out.printf("Average Core Subjects: %.2f\n", coreCount > 0 ? coreSum / coreCount : 0);
-        System.out.printf("Average Elective Subjects: %.2f\n", electiveCount > 0 ? electiveSum / electiveCount : 0);
+        System.out.printf("Average Core Subjects: %.2f\n", coreStats.getCount() > 0 ? coreStats.getMean() : 0);
+        System.out.printf("Average Elective Subjects: %.2f\n", electiveStats.getCount() > 0 ? electiveStats.getMean() : 0);
         System.out.println("Individual Subject Averages:");
-        for (int i = 0; i < subjects.size(); i++) {
-            System.out.printf("%-20s : %.2f\n", subjects.get(i), subjectTotals.get(i) / subjectCounts.get(i));
-        }
+        Map<String, SubjectAggregate> bySubjectName = new LinkedHashMap<>();
+        subjectStats.forEach((subject, stats) ->
+                bySubjectName.computeIfAbsent(subject.getSubjectName(), k -> new SubjectAggregate()).merge(stats));
+        bySubjectName.forEach((name, stats) ->
+                System.out.printf("%-20s : %.2f\n", name, stats.getMean()));
         System.out.println();
 
         // 5️⃣ Compare Student Types
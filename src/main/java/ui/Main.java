@@ -2,8 +2,17 @@ package ui;
 
 import context.ApplicationContext;
 import manager.CacheManager;
+import persistence.ArchiveMigration;
+import persistence.ParallelLoader;
+import persistence.SnapshotFile;
+import persistence.StudentArchive;
+import persistence.WalReplayer;
+import persistence.WriteAheadLog;
 import scheduler.TaskScheduler;
 import core.Student;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 
 /**
  * Main entry point for the Student Grade Management System
@@ -44,10 +53,58 @@ public class Main {
  * Initialize all application components
  */
 private static ApplicationContext initializeApplication() throws Exception {
+    long startupBegin = System.nanoTime();
     ApplicationContext context = new ApplicationContext();
     
+    // Rebuild students and grades from the latest snapshot, its increments and
+    // the write-ahead log records after them, then log new ones to it
+    long fromSequence = 0;
+    SnapshotFile.Info restored = null;
+    Path snapshot = SnapshotFile.configuredRestore();
+    if (snapshot != null) {
+        ParallelLoader.Report loaded = ParallelLoader.configured().loadChain(snapshot, context);
+        restored = loaded.getBackup();
+        System.out.println("✓ Restored " + restored + " (chain position " + restored.getChainIndex() + ")");
+        System.out.println("  " + loaded);
+        fromSequence = restored.getWalSequence();
+    }
+    Path walPath = WriteAheadLog.configuredPath();
+    WalReplayer.ReplayStats replayed = WalReplayer.replay(walPath, context, fromSequence);
+    System.out.println("✓ Replayed " + walPath + ": " + replayed);
+    context.setWriteAheadLog(WriteAheadLog.open(walPath, WriteAheadLog.FsyncPolicy.configured(),
+            replayed.getNextSequence()));
+    // Students beyond the in-memory ones can live in a read-only disk archive
+    // (-Dgrades.archive); -Dgrades.archive.migrate=true moves them there
+    Path archivePath = StudentArchive.configuredPath();
+    if (archivePath != null) {
+        if (StudentArchive.needsRebuild(archivePath) && StudentArchive.configuredRebuild()) {
+            Path aside = StudentArchive.setAside(archivePath);
+            System.out.println("⚠ Archive was not closed cleanly; moved it to " + aside + " and started a new one");
+        }
+        if (StudentArchive.needsRebuild(archivePath)) {
+            System.out.println("⚠ Archive " + archivePath + " was not closed cleanly and is not used;"
+                    + " restart with -D" + StudentArchive.REBUILD_PROPERTY + "=true to set it aside");
+        } else {
+            context.setArchive(StudentArchive.open(archivePath, StudentArchive.configuredPoolPages()));
+            if (ArchiveMigration.configured()) {
+                ArchiveMigration.Report migrated = ArchiveMigration.run(context, archivePath, SnapshotFile.BACKUP_DIR);
+                restored = migrated.getBackup();
+                System.out.println("✓ Migrated: " + migrated);
+            } else {
+                System.out.println("✓ Opened archive " + context.getArchive());
+            }
+        }
+    }
+    // Grade CSV files given with -Dgrades.import are parsed in parallel and logged
+    List<Path> imports = ParallelLoader.configuredImports();
+    if (!imports.isEmpty()) {
+        ParallelLoader.Report imported = ParallelLoader.configured().importGrades(imports, context);
+        System.out.println("✓ Imported " + imports + ": " + imported);
+    }
+    
     // Initialize task scheduler
     context.setTaskScheduler(new TaskScheduler(context.getGradeManager(), context.getStudents()));
+    context.getTaskScheduler().setLastBackup(restored);
     context.getTaskScheduler().createDefaultTasks();
     
     // Initialize cache manager and register refreshers
@@ -57,9 +114,7 @@ private static ApplicationContext initializeApplication() throws Exception {
     cache.registerRefresher("student:", key -> {
         try {
             int id = Integer.parseInt(key.split(":")[1]);
-            for (Student s : context.getStudents()) {
-                if (s.getId() == id) return s;
-            }
+            return context.getStudentById(id);
         } catch (Exception e) { }
         return null;
     });
@@ -75,6 +130,11 @@ private static ApplicationContext initializeApplication() throws Exception {
         return null;
     });
     
+    // Grade changes invalidate these keys directly; refresh and expiry
+    // bound how stale anything missed can get
+    cache.setPolicy("student:", Duration.ofMinutes(30), Duration.ofMinutes(5));
+    cache.setPolicy("report:", Duration.ofMinutes(10), Duration.ofMinutes(1));
+
     // Warm up cache: first 50 students if present
     cache.warmUpStudents(context.getStudents(), context.getGradeManager(), 50);
     
@@ -83,8 +143,15 @@ private static ApplicationContext initializeApplication() throws Exception {
         if (context.getTaskScheduler() != null) {
             context.getTaskScheduler().shutdown();
         }
+        if (context.getWriteAheadLog() != null) {
+            try { context.getWriteAheadLog().close(); } catch (Exception e) { }
+        }
+        if (context.getArchive() != null) {
+            try { context.getArchive().close(); } catch (Exception e) { }
+        }
     }));
     
+    System.out.printf("✓ Ready in %.1f ms%n", (System.nanoTime() - startupBegin) / 1e6);
     return context;
 }
 
@@ -96,6 +163,12 @@ private static void shutdownApplication(ApplicationContext context) {
         if (context.getTaskScheduler() != null) {
             context.getTaskScheduler().shutdown();
         }
+        if (context.getWriteAheadLog() != null) {
+            context.getWriteAheadLog().close();
+        }
+        if (context.getArchive() != null) {
+            context.getArchive().close();
+        }
         System.out.println("✓ Cleanup complete");
     } catch (Exception e) {
         System.err.println("Warning during shutdown: " + e.getMessage());
@@ -1,5 +1,6 @@
 package ui;
 
+import context.StudentRegistry;
 import context.ApplicationContext;
 import core.Student;
 import core.Grade;
@@ -50,7 +51,7 @@ public class Menu {
     // Instance variables instead of static
     private final ApplicationContext context;
     private final Scanner scanner;
-    private final ArrayList<Student> students;
+    private final StudentRegistry students;
     private final GradeManager gradeManager;
     private final StudentService studentService;
     private boolean running;
@@ -318,10 +319,7 @@ public class Menu {
         List<FileFormatManager.FileStats> statsList = new ArrayList<>();
 
         try {
-            ArrayList<Grade> grades = new ArrayList<>();
-            for (int i = 0; i < gradeManager.getGradeCount(); i++) {
-                grades.add(gradeManager.grades[i]);
-            }
+            ArrayList<Grade> grades = new ArrayList<>(gradeManager.snapshot().toList());
 
             switch (choice) {
                 case 1:
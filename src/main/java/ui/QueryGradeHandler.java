@@ -1,11 +1,18 @@
 package ui;
 
+import context.StudentRegistry;
 import context.ApplicationContext;
 import core.Student;
 import core.Grade;
+import core.Subject;
 import manager.GradeManager;
+import manager.GradeSnapshot;
+import storage.SubjectAggregate;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Map;
 import java.util.Scanner;
 
 /**
@@ -16,11 +23,11 @@ import java.util.Scanner;
 public class QueryGradeHandler {
     private final ApplicationContext context;
     private final Scanner scanner;
-    private final ArrayList<Student> students;
+    private final StudentRegistry students;
     private final GradeManager gradeManager;
 
     public QueryGradeHandler(ApplicationContext context, Scanner scanner, 
-                            ArrayList<Student> students, GradeManager gradeManager) {
+                            StudentRegistry students, GradeManager gradeManager) {
         this.context = context;
         this.scanner = scanner;
         this.students = students;
@@ -91,8 +98,9 @@ public class QueryGradeHandler {
         System.out.println("=".repeat(100));
         
         int count = 0;
-        for (int i = 0; i < gradeManager.getGradeCount(); i++) {
-            Grade g = gradeManager.grades[i];
+        GradeSnapshot snapshot = gradeManager.snapshot();
+        for (int i = 0; i < snapshot.size(); i++) {
+            Grade g = snapshot.get(i);
             if (g != null) {
                 Student s = findStudentById(g.getStudentId());
                 String studentName = (s != null) ? s.getName() : "Unknown";
@@ -129,17 +137,14 @@ public class QueryGradeHandler {
         System.out.println("=".repeat(100));
         
         int count = 0;
-        for (int i = 0; i < gradeManager.getGradeCount(); i++) {
-            Grade g = gradeManager.grades[i];
-            if (g != null && g.getStudentId() == studentId) {
-                System.out.printf("%-8d %-12s %-20s %-12s %-10.2f\n",
-                        g.getGradeId(),
-                        g.getDate(),
-                        g.getSubject().getSubjectName(),
-                        g.getSubject().getSubjectType(),
-                        g.getGrade());
-                count++;
-            }
+        for (Grade g : gradeManager.getStudentGrades(studentId)) {
+            System.out.printf("%-8d %-12s %-20s %-12s %-10.2f\n",
+                    g.getGradeId(),
+                    g.getDate(),
+                    g.getSubject().getSubjectName(),
+                    g.getSubject().getSubjectType(),
+                    g.getGrade());
+            count++;
         }
         System.out.println("=".repeat(100));
         System.out.println("Total records: " + count);
@@ -156,10 +161,15 @@ public class QueryGradeHandler {
                 "GradeID", "Student ID", "Student Name", "Date", "Grade");
         System.out.println("=".repeat(100));
         
+        // walk only the matching subjects' posting lists instead of every grade
         int count = 0;
-        for (int i = 0; i < gradeManager.getGradeCount(); i++) {
-            Grade g = gradeManager.grades[i];
-            if (g != null && g.getSubject().getSubjectName().equalsIgnoreCase(subjectName)) {
+        SubjectAggregate stats = new SubjectAggregate();
+        for (Map.Entry<Subject, SubjectAggregate> entry : gradeManager.getSubjectStatistics().entrySet()) {
+            if (!entry.getKey().getSubjectName().equalsIgnoreCase(subjectName)) {
+                continue;
+            }
+            stats.merge(entry.getValue());
+            for (Grade g : gradeManager.getSubjectGrades(entry.getKey())) {
                 Student s = findStudentById(g.getStudentId());
                 String studentName = (s != null) ? s.getName() : "Unknown";
                 System.out.printf("%-8d %-12d %-20s %-12s %-10.2f\n",
@@ -173,6 +183,10 @@ public class QueryGradeHandler {
         }
         System.out.println("=".repeat(100));
         System.out.println("Total records: " + count);
+        if (stats.getCount() > 0) {
+            System.out.printf("Average: %.2f | Std Dev: %.2f | Min: %.2f | Max: %.2f\n",
+                    stats.getMean(), stats.getStdDev(), stats.getMin(), stats.getMax());
+        }
     }
 
     private void filterByGradeRange() {
@@ -190,20 +204,18 @@ public class QueryGradeHandler {
         System.out.println("=".repeat(100));
         
         int count = 0;
-        for (int i = 0; i < gradeManager.getGradeCount(); i++) {
-            Grade g = gradeManager.grades[i];
-            if (g != null && g.getGrade() >= minGrade && g.getGrade() <= maxGrade) {
-                Student s = findStudentById(g.getStudentId());
-                String studentName = (s != null) ? s.getName() : "Unknown";
-                System.out.printf("%-8d %-12d %-20s %-20s %-12s %-10.2f\n",
-                        g.getGradeId(),
-                        g.getStudentId(),
-                        studentName,
-                        g.getSubject().getSubjectName(),
-                        g.getSubject().getSubjectType(),
-                        g.getGrade());
-                count++;
-            }
+        // the value index enumerates only matching grades, lowest first
+        for (Grade g : gradeManager.getGradesInRange(minGrade, maxGrade)) {
+            Student s = findStudentById(g.getStudentId());
+            String studentName = (s != null) ? s.getName() : "Unknown";
+            System.out.printf("%-8d %-12d %-20s %-20s %-12s %-10.2f\n",
+                    g.getGradeId(),
+                    g.getStudentId(),
+                    studentName,
+                    g.getSubject().getSubjectName(),
+                    g.getSubject().getSubjectType(),
+                    g.getGrade());
+            count++;
         }
         System.out.println("=".repeat(100));
         System.out.println("Total records: " + count);
@@ -215,6 +227,16 @@ public class QueryGradeHandler {
         System.out.print("Enter end date (YYYY-MM-DD): ");
         String endDate = scanner.nextLine().trim();
         
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = LocalDate.parse(startDate);
+            to = LocalDate.parse(endDate);
+        } catch (DateTimeParseException e) {
+            System.out.println("Invalid date format. Use YYYY-MM-DD.");
+            return;
+        }
+        
         System.out.println("\n" + "=".repeat(100));
         System.out.println("GRADES BETWEEN " + startDate + " AND " + endDate);
         System.out.println("=".repeat(100));
@@ -222,25 +244,20 @@ public class QueryGradeHandler {
                 "GradeID", "Student ID", "Student Name", "Subject", "Type", "Date", "Grade");
         System.out.println("=".repeat(100));
         
+        // binary search on the date index instead of comparing every grade's date
         int count = 0;
-        for (int i = 0; i < gradeManager.getGradeCount(); i++) {
-            Grade g = gradeManager.grades[i];
-            if (g != null) {
-                String gradeDate = g.getDate().toString();
-                if (gradeDate.compareTo(startDate) >= 0 && gradeDate.compareTo(endDate) <= 0) {
-                    Student s = findStudentById(g.getStudentId());
-                    String studentName = (s != null) ? s.getName() : "Unknown";
-                    System.out.printf("%-8d %-12d %-20s %-20s %-12s %-12s %-10.2f\n",
-                            g.getGradeId(),
-                            g.getStudentId(),
-                            studentName,
-                            g.getSubject().getSubjectName(),
-                            g.getSubject().getSubjectType(),
-                            gradeDate,
-                            g.getGrade());
-                    count++;
-                }
-            }
+        for (Grade g : gradeManager.getGradesBetween(from, to)) {
+            Student s = findStudentById(g.getStudentId());
+            String studentName = (s != null) ? s.getName() : "Unknown";
+            System.out.printf("%-8d %-12d %-20s %-20s %-12s %-12s %-10.2f\n",
+                    g.getGradeId(),
+                    g.getStudentId(),
+                    studentName,
+                    g.getSubject().getSubjectName(),
+                    g.getSubject().getSubjectType(),
+                    g.getDate(),
+                    g.getGrade());
+            count++;
         }
         System.out.println("=".repeat(100));
         System.out.println("Total records: " + count);
@@ -264,8 +281,9 @@ public class QueryGradeHandler {
         System.out.println("=".repeat(100));
         
         int count = 0;
-        for (int i = 0; i < gradeManager.getGradeCount(); i++) {
-            Grade g = gradeManager.grades[i];
+        GradeSnapshot snapshot = gradeManager.snapshot();
+        for (int i = 0; i < snapshot.size(); i++) {
+            Grade g = snapshot.get(i);
             if (g != null && g.getSubject().getSubjectType().equalsIgnoreCase(subjectType)) {
                 Student s = findStudentById(g.getStudentId());
                 String studentName = (s != null) ? s.getName() : "Unknown";
@@ -333,8 +351,9 @@ public class QueryGradeHandler {
         System.out.println("=".repeat(100));
         
         int count = 0;
-        for (int i = 0; i < gradeManager.getGradeCount(); i++) {
-            Grade g = gradeManager.grades[i];
+        GradeSnapshot snapshot = gradeManager.snapshot();
+        for (int i = 0; i < snapshot.size(); i++) {
+            Grade g = snapshot.get(i);
             if (g != null) {
                 boolean matches = true;
                 
@@ -374,11 +393,6 @@ public class QueryGradeHandler {
     }
 
     private Student findStudentById(int studentId) {
-        for (Student s : students) {
-            if (s.getId() == studentId) {
-                return s;
-            }
-        }
-        return null;
+        return context.getStudentById(studentId);
     }
 }
@@ -1,5 +1,6 @@
 package ui;
 
+import context.StudentRegistry;
 import context.ApplicationContext;
 import core.Student;
 import manager.GradeManager;
@@ -16,11 +17,11 @@ import java.util.Scanner;
 public class SearchMenuHandler {
     private final ApplicationContext context;
     private final Scanner scanner;
-    private final ArrayList<Student> students;
+    private final StudentRegistry students;
     private final GradeManager gradeManager;
 
     public SearchMenuHandler(ApplicationContext context, Scanner scanner, 
-                            ArrayList<Student> students, GradeManager gradeManager) {
+                            StudentRegistry students, GradeManager gradeManager) {
         this.context = context;
         this.scanner = scanner;
         this.students = students;
@@ -236,11 +237,9 @@ public class SearchMenuHandler {
         int searchId = scanner.nextInt();
         scanner.nextLine();
 
-        for (Student s : students) {
-            if (s.id == searchId) {
-                results.add(s);
-                break;
-            }
+        Student found = context.getStudentById(searchId);
+        if (found != null) {
+            results.add(found);
         }
 
         return results;
@@ -317,13 +316,7 @@ public class SearchMenuHandler {
             return results;
         }
 
-        for (Student s : students) {
-            if (s.getType().equals(targetType)) {
-                results.add(s);
-            }
-        }
-
-        return results;
+        return context.getStudentService().getStudentsByType(targetType);
     }
 
     private void displaySearchResults(ArrayList<Student> results) {
@@ -1,15 +1,18 @@
 package ui;
 
+import context.StudentRegistry;
 import context.ApplicationContext;
 import core.Student;
 import core.Grade;
 import manager.GradeManager;
 import models.HonorsStudent;
+import storage.SubjectAggregate;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
@@ -25,11 +28,11 @@ import java.util.stream.Stream;
 public class StreamProcessingHandler {
     private final ApplicationContext context;
     private final Scanner scanner;
-    private final ArrayList<Student> students;
+    private final StudentRegistry students;
     private final GradeManager gradeManager;
 
     public StreamProcessingHandler(ApplicationContext context, Scanner scanner,
-                                   ArrayList<Student> students, GradeManager gradeManager) {
+                                   StudentRegistry students, GradeManager gradeManager) {
         this.context = context;
         this.scanner = scanner;
         this.students = students;
@@ -110,7 +113,7 @@ public class StreamProcessingHandler {
         System.out.println("Execution time: " + durationMs + " ms");
     }
 
-    // 2. Average grade by subject using groupingBy and averaging
+    // 2. Average grade by subject from the per-subject aggregates
     private void streamAverageGradeBySubject() {
         if (gradeManager.getGradeCount() == 0) {
             System.out.println("No grades recorded.");
@@ -118,18 +121,14 @@ public class StreamProcessingHandler {
         }
 
         long start = System.nanoTime();
-        List<Grade> gradesList = new ArrayList<>();
-        for (int i = 0; i < gradeManager.getGradeCount(); i++) {
-            if (gradeManager.grades[i] != null) {
-                gradesList.add(gradeManager.grades[i]);
-            }
-        }
-
-        Map<String, Double> result = gradesList.stream()
-                .collect(Collectors.groupingBy(
-                        g -> g.getSubject().getSubjectName(),
-                        Collectors.averagingDouble(Grade::getGrade)
-                ));
+        // per-subject aggregates are maintained on insert, so this is O(#subjects);
+        // a Core and an Elective subject sharing a name are reported together as before
+        Map<String, SubjectAggregate> bySubject = new LinkedHashMap<>();
+        gradeManager.getSubjectStatistics().forEach((subject, stats) ->
+                bySubject.computeIfAbsent(subject.getSubjectName(), k -> new SubjectAggregate()).merge(stats));
+        Map<String, Double> result = bySubject.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getMean(),
+                        (x, y) -> x, LinkedHashMap::new));
         long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
 
         System.out.println("\nAverage grade per subject:");
@@ -146,12 +145,7 @@ public class StreamProcessingHandler {
         }
 
         long start = System.nanoTime();
-        List<Grade> gradesList = new ArrayList<>();
-        for (int i = 0; i < gradeManager.getGradeCount(); i++) {
-            if (gradeManager.grades[i] != null) {
-                gradesList.add(gradeManager.grades[i]);
-            }
-        }
+        List<Grade> gradesList = gradeManager.snapshot().toList();
 
         Set<String> result = gradesList.stream()
                 .filter(g -> g.getSubject() != null)
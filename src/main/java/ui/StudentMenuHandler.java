@@ -1,5 +1,6 @@
 package ui;
 
+import context.StudentRegistry;
 import context.ApplicationContext;
 import core.Student;
 import models.HonorsStudent;
@@ -19,9 +20,9 @@ import java.util.Scanner;
 public class StudentMenuHandler {
     private final ApplicationContext context;
     private final Scanner scanner;
-    private final ArrayList<Student> students;
+    private final StudentRegistry students;
 
-    public StudentMenuHandler(ApplicationContext context, Scanner scanner, ArrayList<Student> students) {
+    public StudentMenuHandler(ApplicationContext context, Scanner scanner, StudentRegistry students) {
         this.context = context;
         this.scanner = scanner;
         this.students = students;
@@ -69,11 +70,11 @@ public class StudentMenuHandler {
                 int id = context.generateStudentId();
 
                 Student newStudent = StudentFactory.createStudent(type, id, name, age, email, phone);
-                students.add(newStudent); // O(1) append
-                context.getStudentIndex().put(String.valueOf(newStudent.getId()), newStudent); // O(1) average
+                context.addStudent(newStudent); // O(1) append + index
                 // cache newly added student
                 try {
-                    CacheManager.getInstance().put("student:" + newStudent.getId(), newStudent);
+                    CacheManager.getInstance().put("student:" + newStudent.getId(), newStudent,
+                            CacheManager.studentTag(newStudent.getId()));
                 } catch (Exception ex) {
                     // ignore cache errors
                 }
@@ -0,0 +1,104 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import storage.BPlusTree;
+import storage.BufferPool;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BPlusTree Class Tests")
+class BPlusTreeTest {
+
+    @TempDir
+    Path dir;
+
+    private BufferPool pool;
+    private BPlusTree tree;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // the smallest pool, so the tree is mostly on disk and pages are evicted all the time
+        pool = new BufferPool(dir.resolve("tree.pages"), BufferPool.MIN_CAPACITY);
+        tree = new BPlusTree(pool, BPlusTree.create(pool));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pool.close();
+    }
+
+    private static byte[] valueFor(long key, int length) {
+        byte[] value = new byte[length];
+        for (int i = 0; i < length; i++) {
+            value[i] = (byte) (key * 31 + i);
+        }
+        return value;
+    }
+
+    @Test
+    @DisplayName("Should match a sorted map through random inserts, updates and range scans")
+    void testMatchesTreeMap() throws Exception {
+        TreeMap<Long, byte[]> expected = new TreeMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 30_000; i++) {
+            long key = random.nextInt(20_000);
+            byte[] value = valueFor(key + i, 1 + random.nextInt(i % 50 == 0 ? 900 : 40));
+            boolean added = tree.put(key, value);
+            assertEquals(expected.put(key, value) == null, added);
+        }
+
+        for (Map.Entry<Long, byte[]> e : expected.entrySet()) {
+            assertArrayEquals(e.getValue(), tree.get(e.getKey()));
+        }
+        assertNull(tree.get(-1));
+        assertNull(tree.get(20_000));
+
+        List<Long> scanned = new ArrayList<>();
+        tree.scan(5_000, 5_999, (key, value) -> {
+            byte[] bytes = new byte[value.remaining()];
+            value.get(bytes);
+            assertArrayEquals(expected.get(key), bytes);
+            scanned.add(key);
+            return true;
+        });
+        assertEquals(new ArrayList<>(expected.subMap(5_000L, true, 5_999L, true).keySet()), scanned);
+        assertTrue(pool.getEvictions() > 0, "the tree should not fit in the pool");
+        assertTrue(pool.getResidentPages() <= BufferPool.MIN_CAPACITY);
+    }
+
+    @Test
+    @DisplayName("Should read back every entry after the page file is reopened")
+    void testReopen() throws Exception {
+        for (long key = 0; key < 10_000; key++) {
+            tree.put(key << 32, valueFor(key, 24));
+        }
+        int root = tree.getRoot();
+        pool.close();
+
+        pool = new BufferPool(dir.resolve("tree.pages"), 64);
+        tree = new BPlusTree(pool, root);
+
+        assertArrayEquals(valueFor(7_777, 24), tree.get(7_777L << 32));
+        int[] count = new int[1];
+        tree.scan(0, Long.MAX_VALUE, (key, value) -> {
+            count[0]++;
+            return true;
+        });
+        assertEquals(10_000, count[0]);
+    }
+
+    @Test
+    @DisplayName("Should reject values longer than MAX_VALUE_BYTES")
+    void testValueTooLarge() {
+        assertThrows(IllegalArgumentException.class,
+                () -> tree.put(1, new byte[BPlusTree.MAX_VALUE_BYTES + 1]));
+    }
+}
@@ -0,0 +1,87 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import models.RegularStudent;
+import core.CoreSubject;
+import core.ElectiveSubject;
+import core.Grade;
+import persistence.BackupChain;
+import persistence.SnapshotFile;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BackupChain Class Tests")
+class BackupChainTest extends ContextTestSupport {
+
+    @TempDir
+    Path dir;
+
+    // Base with 100 grades, then two increments of one student and a few grades each
+    private SnapshotFile.Info writeChain() throws Exception {
+        context.addStudent(johnDoe());
+        for (int i = 0; i < 100; i++) {
+            gradeManager.addGrade(new Grade(1001, new CoreSubject("Mathematics", "C-MATH"), 50 + i % 50));
+        }
+        SnapshotFile.Info base = SnapshotFile.write(SnapshotFile.newPath(dir, "20240301_010000"),
+                context.getStudents(), gradeManager, null);
+
+        context.addStudent(janeSmith());
+        gradeManager.addGrade(new Grade(1002, new CoreSubject("English", "C-ENG"), 90.0));
+        SnapshotFile.Info first = BackupChain.writeIncrement(base, context.getStudents(), gradeManager, null);
+
+        context.addStudent(new RegularStudent(1003, "Sam Lee", 20, "sam@email.com", "5555555555"));
+        gradeManager.addGrade(new Grade(1003, new ElectiveSubject("Ceramics", "E-CER"), 70.0));
+        gradeManager.addGrade(new Grade(1001, new ElectiveSubject("Ceramics", "E-CER"), 80.0));
+        SnapshotFile.Info second = BackupChain.writeIncrement(first, context.getStudents(), gradeManager, null);
+
+        assertEquals(1, first.getChainIndex());
+        assertEquals(2, second.getChainIndex());
+        assertTrue(first.getBytes() < base.getBytes(), "an increment only holds the new data");
+        return base;
+    }
+
+    @Test
+    @DisplayName("Should restore a base snapshot followed by its increments")
+    void testRestoreChain() throws Exception {
+        SnapshotFile.Info base = writeChain();
+        reset();
+
+        SnapshotFile.Info restored = BackupChain.restore(base.getPath(), context);
+
+        assertEquals(2, restored.getChainIndex());
+        assertEquals(3, restored.getStudents());
+        assertEquals(103, restored.getGrades());
+        assertEquals(103, gradeManager.getGradeCount());
+        assertEquals(90.0, gradeManager.calculateOverallAverage(1002), 0.001);
+        assertEquals("Honors", context.getStudentById(1002).getType());
+        assertEquals(70.0, gradeManager.calculateOverallAverage(1003), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should reject an increment with a corrupted block")
+    void testCorruptBlock() throws Exception {
+        SnapshotFile.Info base = writeChain();
+        reset();
+        Path increment = BackupChain.incrementPath(dir, base.getChainId(), 2);
+        try (FileChannel channel = FileChannel.open(increment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x11}), Files.size(increment) / 2);
+        }
+
+        assertThrows(IOException.class, () -> BackupChain.restore(base.getPath(), context));
+    }
+
+    @Test
+    @DisplayName("Should refuse an increment when the data no longer extends the last backup")
+    void testIncrementAfterClear() throws Exception {
+        SnapshotFile.Info base = writeChain();
+        reset();
+
+        assertThrows(IllegalStateException.class,
+                () -> BackupChain.writeIncrement(base, context.getStudents(), gradeManager, null));
+    }
+}
@@ -0,0 +1,285 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import manager.CacheManager;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CacheManager Class Tests")
+class CacheManagerTest {
+
+    @Test
+    @DisplayName("Should return, replace and invalidate entries")
+    void testGetPutInvalidate() {
+        CacheManager cache = new CacheManager(10, (k, v) -> 1);
+        cache.put("student:1", "first");
+        cache.put("student:1", "second");
+        cache.put("report:1", "report");
+
+        assertEquals("second", cache.get("student:1"));
+        assertEquals(2, cache.size());
+
+        cache.invalidate("student:1");
+        assertNull(cache.get("student:1"));
+        cache.invalidateByPrefix("report:");
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should keep frequently read entries through a one-off scan")
+    void testScanResistance() {
+        CacheManager cache = new CacheManager(100, (k, v) -> 1);
+        for (int i = 0; i < 50; i++) {
+            cache.put("student:" + i, i);
+        }
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                assertEquals(i, cache.get("student:" + i));
+            }
+        }
+        for (int i = 0; i < 1000; i++) {
+            cache.put("scan:" + i, i);
+            if (i % 100 == 99) {
+                for (int j = 0; j < 50; j++) {
+                    cache.get("student:" + j);
+                }
+            }
+        }
+        cache.cleanUp();
+
+        assertTrue(cache.size() <= 100, "size " + cache.size());
+        assertTrue(cache.getEvictionCount() >= 950);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(i, cache.get("student:" + i), "hot entry " + i + " was evicted");
+        }
+    }
+
+    @Test
+    @DisplayName("Should bound the cache by the total weight of its entries")
+    void testWeightBudget() {
+        CacheManager cache = new CacheManager(1000, (k, v) -> ((String) v).length());
+        for (int i = 0; i < 20; i++) {
+            cache.put("student:" + i, "x".repeat(40));
+        }
+        cache.cleanUp();
+        assertEquals(800, cache.getWeightedSize());
+
+        cache.put("report:1", "y".repeat(900));
+        cache.put("student:0", "x".repeat(10));
+        cache.cleanUp();
+        assertTrue(cache.getWeightedSize() <= 1000, "weight " + cache.getWeightedSize());
+        assertNotNull(cache.get("student:0"));
+        assertNotNull(cache.get("student:19"), "the large entry should not displace the small ones");
+
+        List<Integer> grades = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            grades.add(i % 100);
+        }
+        int large = CacheManager.estimateBytes("report:1", new CacheManager.CacheReport(1, grades, 50.0));
+        int small = CacheManager.estimateBytes("report:2", new CacheManager.CacheReport(2, List.of(90), 90.0));
+        assertTrue(large > 10 * small, large + " vs " + small);
+    }
+
+    @Test
+    @DisplayName("Should run one load for concurrent misses on the same key")
+    void testSingleFlightLoad() throws Exception {
+        CacheManager cache = new CacheManager(1000, (k, v) -> 1);
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<Object>> futures = new ArrayList<>();
+        futures.add(pool.submit(() -> cache.getOrLoad("report:7", k -> {
+            calls.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "loaded";
+        })));
+        started.await();
+        for (int t = 0; t < 3; t++) {
+            futures.add(pool.submit(() -> cache.getOrLoad("report:7", k -> {
+                calls.incrementAndGet();
+                return "duplicate";
+            })));
+        }
+        while (cache.getCoalescedLoadCount() < 3) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+        for (Future<Object> future : futures) {
+            assertEquals("loaded", future.get());
+        }
+        pool.shutdown();
+
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.getLoadCount());
+        assertEquals("loaded", cache.get("report:7"));
+    }
+
+    @Test
+    @DisplayName("Should remember missing keys briefly and drop loads invalidated midway")
+    void testNegativeCacheAndInvalidation() {
+        CacheManager cache = new CacheManager(1000, (k, v) -> 1);
+        AtomicInteger calls = new AtomicInteger();
+        assertNull(cache.getOrLoad("student:9999", k -> { calls.incrementAndGet(); return null; }));
+        assertNull(cache.getOrLoad("student:9999", k -> { calls.incrementAndGet(); return null; }));
+        assertEquals(1, calls.get());
+
+        cache.put("student:9999", "added");
+        assertEquals("added", cache.getOrLoad("student:9999", k -> null));
+
+        Object loaded = cache.getOrLoad("report:1", k -> {
+            cache.invalidate("report:1");
+            return "stale";
+        });
+        assertEquals("stale", loaded);
+        assertNull(cache.get("report:1"), "a load invalidated while running must not be stored");
+    }
+
+    @Test
+    @DisplayName("Should serve the current value while refreshing it in the background")
+    void testRefreshAhead() throws Exception {
+        CacheManager cache = new CacheManager(1000, (k, v) -> 1);
+        AtomicInteger version = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        cache.registerRefresher("report:", key -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "v" + version.incrementAndGet();
+        });
+        cache.setPolicy("report:", Duration.ofMinutes(10), Duration.ofMillis(20));
+        cache.put("report:1", "v0");
+        Thread.sleep(40);
+
+        // the refresher is blocked, yet reads return at once with the old value
+        assertEquals("v0", cache.get("report:1"));
+        assertEquals("v0", cache.get("report:1"));
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!"v1".equals(cache.get("report:1")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertEquals("v1", cache.get("report:1"));
+        assertEquals(1, cache.getRefreshCount(), "one refresh for many stale reads");
+    }
+
+    @Test
+    @DisplayName("Should expire entries by prefix and keep serving through refresh failures")
+    void testExpiryAndRefreshFailure() throws Exception {
+        CacheManager cache = new CacheManager(1000, (k, v) -> 1);
+        cache.setPolicy("report:", Duration.ofMillis(30), null);
+        cache.registerRefresher("student:", key -> { throw new IllegalStateException("registry offline"); });
+        cache.setPolicy("student:", null, Duration.ofMillis(10));
+        cache.put("report:1", "report");
+        cache.put("student:1", "student");
+        cache.put("other:1", "kept");
+        Thread.sleep(50);
+
+        assertNull(cache.get("report:1"));
+        assertEquals("kept", cache.get("other:1"));
+        assertEquals("student", cache.get("student:1"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.getRefreshFailureCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, cache.getRefreshFailureCount());
+        assertEquals("student", cache.get("student:1"));
+    }
+
+    @Test
+    @DisplayName("Should not keep an unused cache alive through its expiry sweep")
+    void testExpirySweepDoesNotPinCache() throws Exception {
+        CacheManager cache = new CacheManager(1000, (k, v) -> 1);
+        cache.setPolicy("report:", Duration.ofMinutes(10), null);
+        cache.put("report:1", "report");
+        WeakReference<CacheManager> ref = new WeakReference<>(cache);
+        cache = null;
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (ref.get() != null && System.currentTimeMillis() < deadline) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(ref.get());
+    }
+
+    @Test
+    @DisplayName("Should invalidate every entry under a tag and nothing else")
+    void testTagInvalidation() {
+        CacheManager cache = new CacheManager(1000, (k, v) -> 1);
+        for (int id = 1; id <= 3; id++) {
+            cache.put("student:" + id, "s" + id, CacheManager.studentTag(id));
+            cache.put("report:" + id, "r" + id, CacheManager.studentTag(id), "subject:MATH");
+        }
+
+        cache.invalidateTag(CacheManager.studentTag(2));
+        assertNull(cache.get("student:2"));
+        assertNull(cache.get("report:2"));
+        assertEquals("s1", cache.get("student:1"));
+        assertEquals("r3", cache.get("report:3"));
+
+        cache.invalidateTag("subject:MATH");
+        assertNull(cache.get("report:1"));
+        assertEquals(2, cache.size());
+
+        cache.invalidateByPrefix("student:");
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getTagCount(), "empty tags should leave the index");
+
+        // a load that overlaps an invalidation of its tag is returned but not stored
+        Object loaded = cache.getOrLoad("report:5", k -> {
+            cache.invalidateTag(CacheManager.studentTag(5));
+            return "stale";
+        }, CacheManager.studentTag(5));
+        assertEquals("stale", loaded);
+        assertNull(cache.get("report:5"));
+    }
+
+    @Test
+    @DisplayName("Should stay within capacity under concurrent reads and writes")
+    void testConcurrentAccess() throws Exception {
+        CacheManager cache = new CacheManager(64, (k, v) -> 1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            futures.add(pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < 20_000; i++) {
+                    String key = "student:" + random.nextInt(256);
+                    Object value = cache.get(key);
+                    if (value == null) {
+                        cache.put(key, key);
+                    } else {
+                        assertEquals(key, value);
+                    }
+                    if (i % 100 == 0) {
+                        cache.invalidate(key);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        cache.cleanUp();
+
+        assertTrue(cache.size() <= 64, "size " + cache.size());
+    }
+}
@@ -0,0 +1,54 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import context.ApplicationContext;
+import manager.GradeManager;
+import models.HonorsStudent;
+import models.RegularStudent;
+
+/**
+ * Shared fixture for tests that run against the global ApplicationContext:
+ * each test starts and ends with no students, no grades, no write-ahead log
+ * and no archive attached.
+ */
+abstract class ContextTestSupport {
+
+    protected ApplicationContext context;
+    protected GradeManager gradeManager;
+
+    @BeforeEach
+    void resetContext() {
+        context = ApplicationContext.getInstance();
+        reset();
+    }
+
+    @AfterEach
+    void releaseContext() throws Exception {
+        if (context.getArchive() != null) {
+            context.getArchive().close();
+            context.setArchive(null);
+        }
+        reset();
+    }
+
+    // Drop the log, students and grades, e.g. between writing a file and reading it back
+    protected void reset() {
+        context.setWriteAheadLog(null);
+        context.clearStudents();
+        gradeManager = context.getGradeManager();
+        gradeManager.clear();
+    }
+
+    protected static RegularStudent johnDoe() {
+        return new RegularStudent(1001, "John Doe", 18, "john@email.com", "1234567890");
+    }
+
+    protected static HonorsStudent janeSmith() {
+        return new HonorsStudent(1002, "Jane Smith", 19, "jane@email.com", "0987654321");
+    }
+
+    // John Doe (Regular, 1001) and Jane Smith (Honors, 1002)
+    protected void addStudents() {
+        context.addStudent(johnDoe());
+        context.addStudent(janeSmith());
+    }
+}
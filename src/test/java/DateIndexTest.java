@@ -0,0 +1,52 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import storage.DateIndex;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("DateIndex Class Tests")
+class DateIndexTest {
+
+    private DateIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new DateIndex();
+    }
+
+    @Test
+    @DisplayName("Should return slots in date order even when inserted out of order")
+    void testOutOfOrderInsert() {
+        index.add(20010, 0);
+        index.add(20000, 1);
+        index.add(20005, 2);
+        index.add(20000, 3);
+
+        assertArrayEquals(new int[]{1, 3, 2, 0}, index.slotsBetween(19000, 21000));
+        assertEquals(3, index.distinctDays());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    @DisplayName("Should treat both ends of the range as inclusive")
+    void testInclusiveRange() {
+        for (int day = 20000; day < 20010; day++) {
+            index.add(day, day - 20000);
+        }
+
+        assertArrayEquals(new int[]{3, 4, 5}, index.slotsBetween(20003, 20005));
+        assertEquals(3, index.countBetween(20003, 20005));
+        assertEquals(0, index.slotsBetween(20011, 20020).length);
+        assertEquals(0, index.slotsBetween(20005, 20003).length);
+    }
+
+    @Test
+    @DisplayName("Should index a contiguous run of slots from a batch")
+    void testAddAll() {
+        index.add(20001, 0);
+        index.addAll(new int[]{20000, 20000, 20002}, 1, 3);
+
+        assertArrayEquals(new int[]{1, 2, 0, 3}, index.slotsBetween(20000, 20002));
+        assertEquals(4, index.size());
+    }
+}
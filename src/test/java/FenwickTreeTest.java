@@ -0,0 +1,50 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import storage.FenwickTree;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FenwickTree Class Tests")
+class FenwickTreeTest {
+
+    @Test
+    @DisplayName("Should answer prefix and range counts")
+    void testCounts() {
+        FenwickTree tree = new FenwickTree(10001);
+        tree.add(0, 1);
+        tree.add(5000, 2);
+        tree.add(10000, 1);
+
+        assertEquals(4, tree.total());
+        assertEquals(1, tree.prefix(4999));
+        assertEquals(3, tree.prefix(5000));
+        assertEquals(2, tree.rangeCount(1, 9999));
+        assertEquals(0, tree.rangeCount(10, 5));
+    }
+
+    @Test
+    @DisplayName("Should find the bucket of the k-th smallest value")
+    void testKth() {
+        FenwickTree tree = new FenwickTree(10001);
+        tree.add(7000, 1);
+        tree.add(2500, 2);
+        tree.add(10000, 1);
+
+        assertEquals(2500, tree.kth(1));
+        assertEquals(2500, tree.kth(2));
+        assertEquals(7000, tree.kth(3));
+        assertEquals(10000, tree.kth(4));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.kth(5));
+    }
+
+    @Test
+    @DisplayName("Should reflect removals")
+    void testRemove() {
+        FenwickTree tree = new FenwickTree(100);
+        tree.add(10, 1);
+        tree.add(20, 1);
+        tree.add(10, -1);
+
+        assertEquals(1, tree.total());
+        assertEquals(20, tree.kth(1));
+    }
+}
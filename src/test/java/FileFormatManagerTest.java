@@ -0,0 +1,49 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import manager.FileFormatManager;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("FileFormatManager Class Tests")
+class FileFormatManagerTest extends ContextTestSupport {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should reject only the out-of-range rows of a binary import")
+    void testBinaryImportChecksRange() throws Exception {
+        addStudents();
+        Path file = dir.resolve("grades.bin");
+        try (ObjectOutputStream out = new ObjectOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(3);
+            out.writeObject(new FileFormatManager.GradeData(1001, "Mathematics", "Core", 80.0));
+            out.writeObject(new FileFormatManager.GradeData(1001, "Music", "Elective", 105.0));
+            out.writeObject(new FileFormatManager.GradeData(1002, "English", "Core", 60.0));
+        }
+
+        FileFormatManager.FileStats stats = new FileFormatManager().importFromBinary(file.toString());
+
+        assertEquals(3, stats.recordsProcessed);
+        assertEquals(2, stats.successCount);
+        assertEquals(1, stats.failureCount);
+        assertEquals(2, gradeManager.getGradeCount());
+    }
+
+    @Test
+    @DisplayName("Should reject grades that are not a number in a CSV import")
+    void testCsvImportRejectsNaN() throws Exception {
+        addStudents();
+        Path file = dir.resolve("grades.csv");
+        Files.writeString(file, "1001,Mathematics,Core,NaN\n1002,English,Core,Infinity\n1002,Art,Elective,75\n");
+
+        FileFormatManager.FileStats stats = new FileFormatManager().importFromCSV(file.toString());
+
+        assertEquals(1, stats.successCount);
+        assertEquals(2, stats.failureCount);
+        assertEquals(75.0, gradeManager.calculateOverallAverage(1002), 0.001);
+    }
+}
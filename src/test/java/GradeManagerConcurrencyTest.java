@@ -0,0 +1,112 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import manager.GradeManager;
+import manager.GradeSnapshot;
+import models.RegularStudent;
+import core.Student;
+import core.CoreSubject;
+import core.ElectiveSubject;
+import core.Grade;
+import context.ApplicationContext;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("GradeManager Concurrency Tests")
+class GradeManagerConcurrencyTest {
+
+    private static final int WRITERS = 32;
+    private static final int GRADES_PER_WRITER = 1_000;
+    private static final int STUDENTS = 8;
+
+    private GradeManager gradeManager;
+    private CoreSubject mathSubject;
+    private ElectiveSubject musicSubject;
+
+    @BeforeEach
+    void setUp() {
+        gradeManager = new GradeManager();
+        mathSubject = new CoreSubject("Mathematics", "C-MATH");
+        musicSubject = new ElectiveSubject("Music", "E-MUS");
+
+        ApplicationContext context = ApplicationContext.getInstance();
+        context.clearStudents();
+        for (int i = 0; i < STUDENTS; i++) {
+            context.addStudent(new RegularStudent(2000 + i, "Student " + i, 18, "s" + i + "@email.com", "1234567890"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should not lose grades with 32 concurrent writers")
+    void testConcurrentAddGrade_NoLostWrites() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS + 1);
+        CountDownLatch startGate = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            final int writer = w;
+            writers.add(pool.submit(() -> {
+                startGate.await();
+                for (int i = 0; i < GRADES_PER_WRITER; i++) {
+                    int gradeId = writer * GRADES_PER_WRITER + i;
+                    int studentId = 2000 + (gradeId % STUDENTS);
+                    gradeManager.addGrade(new Grade(gradeId, studentId, i % 2 == 0 ? mathSubject : musicSubject,
+                            gradeId % 101, LocalDate.of(2024, 1, 1)));
+                }
+                return null;
+            }));
+        }
+
+        // Reader checks that every snapshot is internally consistent while writes are in flight
+        Future<?> reader = pool.submit(() -> {
+            startGate.await();
+            int lastSize = 0;
+            while (writing.get()) {
+                GradeSnapshot snapshot = gradeManager.snapshot();
+                assertTrue(snapshot.size() >= lastSize, "snapshot size went backwards");
+                if (!snapshot.isEmpty()) {
+                    assertNotNull(snapshot.get(snapshot.size() - 1).getSubject());
+                }
+                lastSize = snapshot.size();
+            }
+            return null;
+        });
+
+        startGate.countDown();
+        for (Future<?> f : writers) {
+            f.get(60, TimeUnit.SECONDS);
+        }
+        writing.set(false);
+        reader.get(10, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        int total = WRITERS * GRADES_PER_WRITER;
+        GradeSnapshot snapshot = gradeManager.snapshot();
+        assertEquals(total, gradeManager.getGradeCount());
+        assertEquals(total, snapshot.size());
+
+        boolean[] seen = new boolean[total];
+        for (int i = 0; i < snapshot.size(); i++) {
+            Grade g = snapshot.get(i);
+            assertFalse(seen[g.getGradeId()], "duplicate grade id " + g.getGradeId());
+            seen[g.getGradeId()] = true;
+            assertEquals(g.getGradeId() % 101, g.getGrade());
+            assertEquals(2000 + (g.getGradeId() % STUDENTS), g.getStudentId());
+        }
+
+        for (int s = 0; s < STUDENTS; s++) {
+            int studentId = 2000 + s;
+            assertEquals(total / STUDENTS, gradeManager.getSubjectCountForStudent(studentId));
+            assertEquals(total / STUDENTS, gradeManager.getStudentGrades(studentId).size());
+        }
+    }
+}
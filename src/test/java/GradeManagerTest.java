@@ -11,7 +11,14 @@ import core.CoreSubject;
 import core.ElectiveSubject;
 import core.Grade;
 import context.ApplicationContext;
+import context.StudentRegistry;
+import storage.StudentGrades;
+import storage.SubjectAggregate;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DisplayName("GradeManager Class Tests")
@@ -33,10 +40,10 @@ class GradeManagerTest {
         musicSubject = new ElectiveSubject("Music", "E-MUS");
 
         // Initialize ApplicationContext with test data
-        ArrayList<Student> students = ApplicationContext.getInstance().getStudents();
-        students.clear();
-        students.add(student1);
-        students.add(student2);
+        ApplicationContext context = ApplicationContext.getInstance();
+        context.clearStudents();
+        context.addStudent(student1);
+        context.addStudent(student2);
     }
 
     @Test
@@ -219,4 +226,179 @@ class GradeManagerTest {
         assertEquals(80.0, coreAvg);
         assertEquals(90.0, electiveAvg);
     }
+
+    @Test
+    @DisplayName("Should store more grades than the old fixed capacity")
+    void testAddGrade_BeyondOldCapacity() throws Exception {
+        for (int i = 0; i < 500; i++) {
+            gradeManager.addGrade(new Grade(1001, mathSubject, 80.0));
+        }
+
+        assertEquals(500, gradeManager.getGradeCount());
+        assertEquals(80.0, gradeManager.calculateCoreAverage(1001));
+        assertEquals(80.0, gradeManager.snapshot().get(499).getGrade());
+    }
+
+    @Test
+    @DisplayName("Should return only the requested student's grades in insertion order")
+    void testGetStudentGrades() throws Exception {
+        gradeManager.addGrade(new Grade(1001, mathSubject, 70.0));
+        gradeManager.addGrade(new Grade(1002, mathSubject, 60.0));
+        gradeManager.addGrade(new Grade(1001, musicSubject, 90.0));
+
+        List<Grade> grades = gradeManager.getStudentGrades(1001);
+        assertEquals(2, grades.size());
+        assertEquals(70.0, grades.get(0).getGrade());
+        assertEquals("Music", grades.get(1).getSubject().getSubjectName());
+        assertTrue(gradeManager.getStudentGrades(1003).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should maintain running min, max and GPA per student")
+    void testStudentSummaryAggregates() throws Exception {
+        gradeManager.addGrade(new Grade(1001, mathSubject, 85.0));  // 4.0 GPA
+        gradeManager.addGrade(new Grade(1001, mathSubject, 65.0));  // 2.0 GPA
+        gradeManager.addGrade(new Grade(1001, musicSubject, 75.0)); // 3.0 GPA
+
+        StudentGrades summary = gradeManager.getStudentSummary(1001);
+        assertEquals(3, summary.getCount());
+        assertEquals(65.0, summary.getCore().getMin());
+        assertEquals(85.0, summary.getCore().getMax());
+        assertEquals(75.0, summary.getElective().getMean());
+        assertEquals(3.0, gradeManager.calculateGPA(1001));
+        assertEquals(0.0, gradeManager.calculateGPA(1002));
+    }
+
+    @Test
+    @DisplayName("Should add a batch of grades and update every student's aggregates")
+    void testAddGrades_Batch() throws Exception {
+        List<Grade> batch = new ArrayList<>();
+        batch.add(new Grade(1001, mathSubject, 80.0));
+        batch.add(new Grade(1002, musicSubject, 70.0));
+        batch.add(new Grade(1001, musicSubject, 60.0));
+
+        gradeManager.addGrades(batch);
+
+        assertEquals(3, gradeManager.getGradeCount());
+        assertEquals(2, gradeManager.getSubjectCountForStudent(1001));
+        assertEquals(70.0, gradeManager.calculateOverallAverage(1001));
+        assertEquals(70.0, gradeManager.calculateElectiveAverage(1002));
+        assertEquals(70.0, student1.getAverageGrade());
+    }
+
+    @Test
+    @DisplayName("Should reject the whole batch when one student does not exist")
+    void testAddGrades_UnknownStudentRejectsBatch() {
+        List<Grade> batch = new ArrayList<>();
+        batch.add(new Grade(1001, mathSubject, 80.0));
+        batch.add(new Grade(9999, mathSubject, 70.0));
+
+        assertThrows(StudentNotFoundException.class, () -> gradeManager.addGrades(batch));
+        assertEquals(0, gradeManager.getGradeCount());
+        assertEquals(0, gradeManager.getSubjectCountForStudent(1001));
+    }
+
+    @Test
+    @DisplayName("Should maintain per-subject count, spread and histogram on insert")
+    void testSubjectStatistics() throws Exception {
+        gradeManager.addGrade(new Grade(1001, mathSubject, 60.0));
+        gradeManager.addGrade(new Grade(1002, mathSubject, 80.0));
+        gradeManager.addGrade(new Grade(1001, musicSubject, 95.5));
+
+        SubjectAggregate math = gradeManager.getSubjectStats(mathSubject);
+        assertEquals(2, math.getCount());
+        assertEquals(70.0, math.getMean());
+        assertEquals(10.0, math.getStdDev(), 1e-9);
+        assertEquals(1, math.getHistogram()[60]);
+        assertEquals(1, math.countBetween(80, 90));
+
+        Map<Subject, SubjectAggregate> all = gradeManager.getSubjectStatistics();
+        assertEquals(2, all.size());
+        assertEquals(1, gradeManager.getSubjectStats(musicSubject).countBetween(90, 101));
+        assertEquals(2, gradeManager.getSubjectGrades(mathSubject).size());
+        assertEquals(1002, gradeManager.getSubjectGrades(mathSubject).get(1).getStudentId());
+    }
+
+    @Test
+    @DisplayName("Should return only grades inside the date range, oldest first")
+    void testGetGradesBetween() throws Exception {
+        LocalDate monday = LocalDate.of(2025, 3, 3);
+        gradeManager.addGrade(new Grade(1, 1001, mathSubject, 70.0, monday.plusDays(9)));
+        gradeManager.addGrade(new Grade(2, 1001, mathSubject, 80.0, monday.plusDays(2)));
+        gradeManager.addGrade(new Grade(3, 1002, musicSubject, 90.0, monday));
+        gradeManager.addGrade(new Grade(4, 1002, musicSubject, 60.0, monday.minusDays(1)));
+
+        List<Grade> week = gradeManager.getGradesBetween(monday, monday.plusDays(6));
+        assertEquals(2, week.size());
+        assertEquals(3, week.get(0).getGradeId());
+        assertEquals(2, week.get(1).getGradeId());
+        assertEquals(2, gradeManager.countGradesBetween(monday, monday.plusDays(6)));
+    }
+
+    @Test
+    @DisplayName("Should answer grade ranges, median and percentiles from the value index")
+    void testGradeOrderStatistics() throws Exception {
+        double[] values = {55.5, 90.0, 72.25, 72.25, 100.0, 40.0};
+        for (double v : values) {
+            gradeManager.addGrade(new Grade(1001, mathSubject, v));
+        }
+
+        List<Grade> range = gradeManager.getGradesInRange(70, 95);
+        assertEquals(3, range.size());
+        assertEquals(72.25, range.get(0).getGrade());
+        assertEquals(90.0, range.get(2).getGrade());
+        assertEquals(2, gradeManager.countGradesInRange(72.25, 72.25));
+        assertEquals(72.25, gradeManager.getMedianGrade());
+        assertEquals(100.0, gradeManager.getPercentile(100));
+        assertEquals(40.0, gradeManager.getPercentile(1));
+        assertEquals(72.25, gradeManager.getModeGrade());
+    }
+
+    @Test
+    @DisplayName("Should rank each student's average among all students")
+    void testPercentileRank() throws Exception {
+        gradeManager.addGrade(new Grade(1001, mathSubject, 60.0));
+        gradeManager.addGrade(new Grade(1002, mathSubject, 80.0));
+
+        assertEquals(25.0, gradeManager.getPercentileRank(1001));
+        assertEquals(75.0, gradeManager.getPercentileRank(1002));
+
+        // 1001 moves above 1002 once their average changes
+        gradeManager.addGrade(new Grade(1001, mathSubject, 100.0));
+        gradeManager.addGrade(new Grade(1001, mathSubject, 100.0));
+        assertEquals(75.0, gradeManager.getPercentileRank(1001));
+        assertEquals(-1, gradeManager.getPercentileRank(1003));
+    }
+
+    @Test
+    @DisplayName("Should notify registry listeners only when a student's status changes")
+    void testStatusChangeNotification() throws Exception {
+        AtomicInteger changes = new AtomicInteger();
+        ApplicationContext.getInstance().getStudents().addListener(new StudentRegistry.Listener() {
+            @Override
+            public void studentAdded(Student student) { }
+
+            @Override
+            public void studentChanged(Student student) {
+                if (student == student1) {
+                    changes.incrementAndGet();
+                }
+            }
+
+            @Override
+            public void cleared() { }
+        });
+
+        gradeManager.addGrade(new Grade(1001, mathSubject, 80.0));
+        gradeManager.addGrade(new Grade(1001, mathSubject, 70.0));
+        gradeManager.addGrade(new Grade(1001, musicSubject, 60.0));
+        assertEquals(1, changes.get(), "Failing -> Passing once");
+
+        gradeManager.addGrade(new Grade(1001, musicSubject, 0.0));
+        gradeManager.addGrade(new Grade(1001, musicSubject, 0.0));
+        assertEquals("Failing", student1.getStatus());
+        assertEquals(2, changes.get());
+        assertTrue(ApplicationContext.getInstance().getStudentService().getStudentsByStatus("Failing")
+                .contains(student1), "the status bucket still follows the student");
+    }
 }
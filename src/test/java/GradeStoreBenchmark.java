@@ -0,0 +1,80 @@
+import storage.GradeStore;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Compares heap and off-heap GradeStore backings: fills a store with N grades,
+ * scans it once, and reports heap growth and garbage collection cost for each.
+ *
+ * Usage: java -cp target/classes:target/test-classes GradeStoreBenchmark [grades] [heap|offheap|both]
+ * (after mvn test-compile). Not a test: surefire does not pick it up.
+ * Run with a fixed heap (e.g. -Xms2g -Xmx2g) so the numbers are comparable.
+ */
+public class GradeStoreBenchmark {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        String which = args.length > 1 ? args[1] : "both";
+
+        System.out.println("GradeStore benchmark, " + count + " grades");
+        System.out.printf("%-9s %10s %10s %12s %8s %10s%n",
+                "Backing", "Fill ms", "Scan ms", "Heap +MB", "GCs", "GC ms");
+
+        if (!which.equalsIgnoreCase("offheap")) {
+            run(GradeStore.Backing.HEAP, count);
+        }
+        if (!which.equalsIgnoreCase("heap")) {
+            run(GradeStore.Backing.OFF_HEAP, count);
+        }
+    }
+
+    private static void run(GradeStore.Backing backing, int count) {
+        long heapBefore = usedHeap();
+        long[] gcBefore = gcTotals();
+
+        GradeStore store = new GradeStore(backing);
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            store.append(i, 1000 + (i % 5000), i % 6, i % 101, 19000 + (i % 365));
+        }
+        long fillNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        double sum = 0;
+        for (int slot = 0; slot < store.size(); slot++) {
+            sum += store.grade(slot);
+        }
+        long scanNanos = System.nanoTime() - start;
+
+        long heapAfter = usedHeap();
+        long[] gcAfter = gcTotals();
+
+        System.out.printf("%-9s %10d %10d %12.1f %8d %10d%n",
+                backing,
+                fillNanos / 1_000_000,
+                scanNanos / 1_000_000,
+                (heapAfter - heapBefore) / (1024.0 * 1024.0),
+                gcAfter[0] - gcBefore[0],
+                gcAfter[1] - gcBefore[1]);
+        System.out.printf("          mean grade %.2f, %.1f MB of record data%n",
+                sum / store.size(), store.allocatedBytes() / (1024.0 * 1024.0));
+    }
+
+    // Used heap after asking for a collection, so the figure reflects live data
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    // { collection count, collection time ms } summed over all collectors
+    private static long[] gcTotals() {
+        long collections = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collections += Math.max(0, gc.getCollectionCount());
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[]{collections, millis};
+    }
+}
@@ -0,0 +1,190 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import storage.GradeStore;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("GradeStore Class Tests")
+class GradeStoreTest {
+
+    private GradeStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new GradeStore();
+    }
+
+    @Test
+    @DisplayName("Should read back every column of an appended record")
+    void testAppendAndRead() {
+        int slot = store.append(5001, 1001, 3, 87.25, 20000);
+
+        assertEquals(0, slot);
+        assertEquals(1, store.size());
+        assertEquals(5001, store.gradeId(slot));
+        assertEquals(1001, store.studentId(slot));
+        assertEquals(3, store.subjectId(slot));
+        assertEquals(87.25, store.grade(slot));
+        assertEquals(20000, store.epochDay(slot));
+    }
+
+    @Test
+    @DisplayName("Should grow past several chunks without losing records")
+    void testGrowthAcrossChunks() {
+        int total = 50_000;
+        for (int i = 0; i < total; i++) {
+            store.append(i, 1000 + (i % 97), i % 7, (i % 101), 19000 + (i % 30));
+        }
+
+        assertEquals(total, store.size());
+        for (int i = 0; i < total; i += 997) {
+            assertEquals(i, store.gradeId(i));
+            assertEquals(1000 + (i % 97), store.studentId(i));
+            assertEquals(i % 101, store.grade(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject grades outside 0-100")
+    void testRejectOutOfRangeGrade() {
+        assertThrows(IllegalArgumentException.class, () -> store.append(1, 1001, 0, 100.5, 0));
+        assertThrows(IllegalArgumentException.class, () -> store.append(1, 1001, 0, -1, 0));
+        assertThrows(IllegalArgumentException.class, () -> store.append(1, 1001, 0, Double.NaN, 0));
+        assertThrows(IllegalArgumentException.class, () -> GradeStore.toHundredths(Double.POSITIVE_INFINITY));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    @DisplayName("Should throw when reading a slot that was never written")
+    void testReadOutOfRange() {
+        store.append(1, 1001, 0, 50, 0);
+        assertThrows(IndexOutOfBoundsException.class, () -> store.grade(1));
+    }
+
+    @Test
+    @DisplayName("Clear should empty the store")
+    void testClear() {
+        store.append(1, 1001, 0, 50, 0);
+        store.clear();
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    @DisplayName("Should give every concurrent writer its own slot")
+    void testConcurrentAppend() throws Exception {
+        int writers = 16;
+        int perWriter = 5_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            final int writer = w;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < perWriter; i++) {
+                    store.append(writer * perWriter + i, writer, 0, 50, 0);
+                }
+            }));
+        }
+        for (Thread t : threads) t.start();
+        for (Thread t : threads) t.join();
+
+        int total = writers * perWriter;
+        assertEquals(total, store.size());
+        boolean[] seen = new boolean[total];
+        for (int slot = 0; slot < total; slot++) {
+            int id = store.gradeId(slot);
+            assertFalse(seen[id]);
+            seen[id] = true;
+            assertEquals(id / perWriter, store.studentId(slot));
+        }
+    }
+
+    @Test
+    @DisplayName("Should append a batch as one contiguous range across a chunk boundary")
+    void testAppendAll() {
+        int n = 20_000;
+        int[] ids = new int[n];
+        int[] students = new int[n];
+        int[] subjects = new int[n];
+        double[] grades = new double[n];
+        int[] days = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i;
+            students[i] = 1000 + (i % 5);
+            subjects[i] = i % 3;
+            grades[i] = i % 101;
+            days[i] = 19000 + i;
+        }
+        store.append(-1, 999, 0, 10, 0);
+
+        int first = store.appendAll(ids, students, subjects, grades, days, n);
+
+        assertEquals(1, first);
+        assertEquals(n + 1, store.size());
+        for (int i = 0; i < n; i += 499) {
+            assertEquals(i, store.gradeId(first + i));
+            assertEquals(1000 + (i % 5), store.studentId(first + i));
+            assertEquals(i % 3, store.subjectId(first + i));
+            assertEquals(i % 101, store.grade(first + i));
+            assertEquals(19000 + i, store.epochDay(first + i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should store nothing from a batch containing an invalid grade")
+    void testAppendAllRejectsInvalidGrade() {
+        assertThrows(IllegalArgumentException.class, () -> store.appendAll(
+                new int[]{1, 2}, new int[]{1001, 1001}, new int[]{0, 0}, new double[]{50, 150}, new int[]{0, 0}, 2));
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    @DisplayName("Off-heap backing should read back the same records across chunks")
+    void testOffHeapBacking() {
+        GradeStore offHeap = new GradeStore(GradeStore.Backing.OFF_HEAP);
+        int n = 20_000;
+        int[] ids = new int[n];
+        int[] students = new int[n];
+        int[] subjects = new int[n];
+        double[] grades = new double[n];
+        int[] days = new int[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i;
+            students[i] = 1000 + (i % 5);
+            subjects[i] = i % 3;
+            grades[i] = (i % 10001) / 100.0;
+            days[i] = 19000 + i;
+        }
+        offHeap.append(-1, 999, 7, 99.99, -5);
+        offHeap.appendAll(ids, students, subjects, grades, days, n);
+
+        assertEquals(GradeStore.Backing.OFF_HEAP, offHeap.getBacking());
+        assertEquals(n + 1, offHeap.size());
+        assertEquals(-1, offHeap.gradeId(0));
+        assertEquals(7, offHeap.subjectId(0));
+        assertEquals(99.99, offHeap.grade(0));
+        assertEquals(-5, offHeap.epochDay(0));
+        for (int i = 0; i < n; i += 499) {
+            assertEquals(i, offHeap.gradeId(i + 1));
+            assertEquals(1000 + (i % 5), offHeap.studentId(i + 1));
+            assertEquals(i % 3, offHeap.subjectId(i + 1));
+            assertEquals(grades[i], offHeap.grade(i + 1));
+            assertEquals(19000 + i, offHeap.epochDay(i + 1));
+        }
+    }
+
+    @Test
+    @DisplayName("Backing should default to heap and follow the grades.storage property")
+    void testConfiguredBacking() {
+        String previous = System.getProperty(GradeStore.Backing.PROPERTY);
+        try {
+            System.clearProperty(GradeStore.Backing.PROPERTY);
+            assertEquals(GradeStore.Backing.HEAP, new GradeStore().getBacking());
+            System.setProperty(GradeStore.Backing.PROPERTY, "offheap");
+            assertEquals(GradeStore.Backing.OFF_HEAP, new GradeStore().getBacking());
+        } finally {
+            if (previous == null) System.clearProperty(GradeStore.Backing.PROPERTY);
+            else System.setProperty(GradeStore.Backing.PROPERTY, previous);
+        }
+    }
+}
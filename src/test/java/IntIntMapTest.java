@@ -0,0 +1,49 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import storage.IntIntMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("IntIntMap Class Tests")
+class IntIntMapTest {
+
+    @Test
+    @DisplayName("Should put, replace and get values by int key")
+    void testPutAndGet() {
+        IntIntMap map = new IntIntMap();
+
+        assertTrue(map.put(1001, 0));
+        assertTrue(map.put(-7, -1));
+        assertFalse(map.put(1001, 5));
+
+        assertEquals(5, map.get(1001, -1));
+        assertEquals(-1, map.get(-7, 99));
+        assertEquals(99, map.get(1002, 99));
+        assertTrue(map.containsKey(-7));
+        assertFalse(map.containsKey(1002));
+        assertEquals(2, map.size());
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(-1, map.get(1001, -1));
+    }
+
+    @Test
+    @DisplayName("Should keep every entry reachable through growth")
+    void testMatchesHashMap() {
+        IntIntMap map = new IntIntMap(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(50_000) - 10_000;
+            assertEquals(!expected.containsKey(key), map.put(key, i));
+            expected.put(key, i);
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Integer, Integer> e : expected.entrySet()) {
+            assertEquals(e.getValue(), map.get(e.getKey(), Integer.MIN_VALUE));
+        }
+    }
+}
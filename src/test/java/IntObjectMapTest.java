@@ -0,0 +1,59 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import storage.IntObjectMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("IntObjectMap Class Tests")
+class IntObjectMapTest {
+
+    @Test
+    @DisplayName("Should put, replace and get values by int key")
+    void testPutAndGet() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+
+        assertNull(map.put(1001, "John"));
+        assertNull(map.put(-7, "negative"));
+        assertEquals("John", map.put(1001, "Johnny"));
+
+        assertEquals("Johnny", map.get(1001));
+        assertEquals("negative", map.get(-7));
+        assertNull(map.get(1002));
+        assertEquals(2, map.size());
+    }
+
+    @Test
+    @DisplayName("Should keep every entry reachable through growth and removals")
+    void testMatchesHashMap() {
+        IntObjectMap<Integer> map = new IntObjectMap<>(4);
+        Map<Integer, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, i), map.put(key, i));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (int key = 0; key < 5_000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+    }
+
+    @Test
+    @DisplayName("Clear should empty the map")
+    void testClear() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(1, "a");
+        map.clear();
+
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1));
+        assertThrows(IllegalArgumentException.class, () -> map.put(2, null));
+    }
+}
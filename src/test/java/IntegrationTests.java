@@ -27,10 +27,10 @@ class IntegrationTests {
         honorsStudent = new HonorsStudent(1002, "Jane Smith", 19, "jane@email.com", "0987654321");
 
         // Initialize ApplicationContext with test data
-        ArrayList<Student> students = ApplicationContext.getInstance().getStudents();
-        students.clear();
-        students.add(regularStudent);
-        students.add(honorsStudent);
+        ApplicationContext context = ApplicationContext.getInstance();
+        context.clearStudents();
+        context.addStudent(regularStudent);
+        context.addStudent(honorsStudent);
     }
 
     @Test
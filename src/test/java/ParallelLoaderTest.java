@@ -0,0 +1,102 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import manager.SubjectRegistry;
+import models.HonorsStudent;
+import models.RegularStudent;
+import core.CoreSubject;
+import core.ElectiveSubject;
+import core.Grade;
+import persistence.BackupChain;
+import persistence.ParallelLoader;
+import persistence.SnapshotFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ParallelLoader Class Tests")
+class ParallelLoaderTest extends ContextTestSupport {
+
+    private static final int STUDENTS = 5000;
+    private static final int GRADES = 200_000;
+
+    @TempDir
+    Path dir;
+
+    // Enough students and grades that every phase is split into several ranges
+    private void addData() throws Exception {
+        for (int i = 0; i < STUDENTS; i++) {
+            context.addStudent(i % 2 == 0
+                    ? new RegularStudent(10_000 + i, "Student " + i, 18, "s" + i + "@email.com", "1234567890")
+                    : new HonorsStudent(10_000 + i, "Student " + i, 19, "s" + i + "@email.com", "0987654321"));
+        }
+        SubjectRegistry subjects = SubjectRegistry.getInstance();
+        int math = subjects.idOf(new CoreSubject("Mathematics", "C-MATH"));
+        int art = subjects.idOf(new ElectiveSubject("Art", "E-ART"));
+        int[] gradeIds = new int[GRADES];
+        int[] studentIds = new int[GRADES];
+        int[] subjectIds = new int[GRADES];
+        double[] values = new double[GRADES];
+        int[] epochDays = new int[GRADES];
+        for (int k = 0; k < GRADES; k++) {
+            gradeIds[k] = 100_000 + k;
+            studentIds[k] = 10_000 + k % STUDENTS;
+            subjectIds[k] = k % 3 == 0 ? art : math;
+            values[k] = 50 + k % 51;
+            epochDays[k] = 19_800 + k % 30;
+        }
+        gradeManager.addGrades(gradeIds, studentIds, subjectIds, values, epochDays, GRADES);
+    }
+
+    @Test
+    @DisplayName("Should rebuild the same students, aggregates and indexes on several threads")
+    void testParallelChainMatchesSequential() throws Exception {
+        addData();
+        double average = gradeManager.calculateOverallAverage(10_007);
+        String status = context.getStudentById(10_007).getStatus();
+        int inRange = gradeManager.countGradesBetween(LocalDate.ofEpochDay(19_800),
+                LocalDate.ofEpochDay(19_809));
+        SnapshotFile.Info base = SnapshotFile.write(SnapshotFile.newPath(dir, "20240301_010000"),
+                context.getStudents(), gradeManager, null);
+        context.addStudent(new RegularStudent(9_999, "Late Joiner", 20, "late@email.com", "5555555555"));
+        gradeManager.addGrade(new Grade(9_999, new CoreSubject("English", "C-ENG"), 77.0));
+        BackupChain.writeIncrement(base, context.getStudents(), gradeManager, null);
+        reset();
+
+        ParallelLoader.Report report = new ParallelLoader(4).loadChain(base.getPath(), context);
+
+        assertEquals(4, report.getThreads());
+        assertEquals(STUDENTS + 1, report.getStudents());
+        assertEquals(GRADES + 1, report.getGrades());
+        assertEquals(1, report.getBackup().getChainIndex());
+        assertTrue(report.getTimeToReadyNanos() > 0);
+        assertEquals(GRADES + 1, gradeManager.getGradeCount());
+        assertEquals(average, gradeManager.calculateOverallAverage(10_007), 1e-9);
+        assertEquals(status, context.getStudentById(10_007).getStatus());
+        assertEquals(inRange, gradeManager.countGradesBetween(LocalDate.ofEpochDay(19_800),
+                LocalDate.ofEpochDay(19_809)));
+        assertEquals("Honors", context.getStudentById(10_001).getType());
+        assertEquals(77.0, gradeManager.calculateOverallAverage(9_999), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should import grade CSV files in parallel and count bad rows")
+    void testImportGrades() throws Exception {
+        context.addStudent(johnDoe());
+        context.addStudent(new RegularStudent(1002, "Jane Smith", 19, "jane@email.com", "0987654321"));
+        Path first = dir.resolve("grades_a.csv");
+        Path second = dir.resolve("grades_b.csv");
+        Files.writeString(first, "StudentID,SubjectName,SubjectType,Grade\n"
+                + "1001,Mathematics,Core,80\n1001,Art,Elective,90\n9999,Mathematics,Core,70\n");
+        Files.writeString(second, "1002,English,Core,60.5\n1002,English,Core,abc\n1002,English,Core,101\n1002,English,Core,NaN\n");
+
+        ParallelLoader.Report report = new ParallelLoader(2).importGrades(List.of(first, second), context);
+
+        assertEquals(3, report.getGrades());
+        assertEquals(4, report.getFailed());
+        assertEquals(85.0, gradeManager.calculateOverallAverage(1001), 0.001);
+        assertEquals(60.5, gradeManager.calculateOverallAverage(1002), 0.001);
+    }
+}
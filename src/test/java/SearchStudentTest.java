@@ -32,8 +32,8 @@ class SearchStudentTest {
         gradeManager = new GradeManager();
         
         // Initialize ApplicationContext with test data
-        ArrayList<Student> students = ApplicationContext.getInstance().getStudents();
-        students.clear();
+        ApplicationContext context = ApplicationContext.getInstance();
+        context.clearStudents();
 
         // Create test students
         student1 = new RegularStudent(1001, "John Doe", 18, "john@email.com", "1234567890");
@@ -41,10 +41,10 @@ class SearchStudentTest {
         student3 = new HonorsStudent(1003, "Alice Johnson", 20, "alice@email.com", "1112223333");
         student4 = new HonorsStudent(1004, "Bob Williams", 18, "bob@email.com", "4445556666");
 
-        students.add(student1);
-        students.add(student2);
-        students.add(student3);
-        students.add(student4);
+        context.addStudent(student1);
+        context.addStudent(student2);
+        context.addStudent(student3);
+        context.addStudent(student4);
 
         // Add some grades
         CoreSubject math = new CoreSubject("Mathematics", "C-MATH");
@@ -260,7 +260,7 @@ class SearchStudentTest {
     @DisplayName("Should exclude students with no grades")
     void testSearchByGradeRange_ExcludeNoGrades() {
         RegularStudent studentNoGrades = new RegularStudent(1005, "Test Student", 18, "test@email.com", "1234567890");
-        ApplicationContext.getInstance().getStudents().add(studentNoGrades);
+        ApplicationContext.getInstance().addStudent(studentNoGrades);
 
         double minGrade = 0.0;
         double maxGrade = 100.0;
@@ -431,7 +431,7 @@ class SearchStudentTest {
     @Test
     @DisplayName("Should handle empty student list")
     void testSearchWithEmptyList() {
-        ApplicationContext.getInstance().getStudents().clear();
+        ApplicationContext.getInstance().clearStudents();
 
         ArrayList<Student> results = new ArrayList<>();
         for (Student s : ApplicationContext.getInstance().getStudents()) {
@@ -447,7 +447,7 @@ class SearchStudentTest {
     @DisplayName("Should handle search with special characters in name")
     void testSearchByName_SpecialCharacters() {
         RegularStudent specialStudent = new RegularStudent(1005, "O'Brien-Smith", 18, "test@email.com", "1234567890");
-        ApplicationContext.getInstance().getStudents().add(specialStudent);
+        ApplicationContext.getInstance().addStudent(specialStudent);
 
         String searchName = "o'brien";
         ArrayList<Student> results = new ArrayList<>();
@@ -466,7 +466,7 @@ class SearchStudentTest {
     @DisplayName("Should handle students with identical names")
     void testSearchByName_DuplicateNames() {
         RegularStudent duplicate = new RegularStudent(1005, "John Doe", 20, "john2@email.com", "9998887777");
-        ApplicationContext.getInstance().getStudents().add(duplicate);
+        ApplicationContext.getInstance().addStudent(duplicate);
 
         String searchName = "john doe";
         ArrayList<Student> results = new ArrayList<>();
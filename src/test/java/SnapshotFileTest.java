@@ -0,0 +1,92 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import core.CoreSubject;
+import core.ElectiveSubject;
+import core.Grade;
+import persistence.SnapshotFile;
+import persistence.WalReplayer;
+import persistence.WriteAheadLog;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SnapshotFile Class Tests")
+class SnapshotFileTest extends ContextTestSupport {
+
+    @TempDir
+    Path dir;
+
+    private void addData() throws Exception {
+        addStudents();
+        gradeManager.addGrades(List.of(
+                new Grade(9001, 1001, new CoreSubject("Mathematics", "C-MATH"), 80.25, LocalDate.of(2024, 3, 1)),
+                new Grade(9002, 1001, new ElectiveSubject("Pottery", "E-POT"), 90.0, LocalDate.of(2024, 3, 2)),
+                new Grade(9003, 1002, new CoreSubject("English", "C-ENG"), 60.5, LocalDate.of(2024, 3, 3))));
+    }
+
+    @Test
+    @DisplayName("Should restore every student and grade with indexes rebuilt")
+    void testRoundTrip() throws Exception {
+        addData();
+        Path file = SnapshotFile.newPath(dir, "20240301_010000");
+        SnapshotFile.Info written = SnapshotFile.write(file, context.getStudents(), gradeManager, null);
+        assertEquals(3, written.getGrades());
+        reset();
+
+        SnapshotFile.Info restored = SnapshotFile.restore(file, context);
+
+        assertEquals(2, restored.getStudents());
+        assertEquals(3, restored.getGrades());
+        assertEquals("Honors", context.getStudentById(1002).getType());
+        assertEquals(85.125, gradeManager.calculateOverallAverage(1001), 0.001);
+        Grade first = gradeManager.getStudentGrades(1001).get(0);
+        assertEquals(9001, first.getGradeId());
+        assertEquals(LocalDate.of(2024, 3, 1), first.getDate());
+        assertEquals(1, gradeManager.countGradesBetween(LocalDate.of(2024, 3, 3), LocalDate.of(2024, 3, 3)));
+        assertEquals(file, SnapshotFile.latest(dir));
+    }
+
+    @Test
+    @DisplayName("Should replay only the log records written after the snapshot")
+    void testSnapshotWithLog() throws Exception {
+        Path walPath = dir.resolve("grades.wal");
+        WriteAheadLog wal = WriteAheadLog.open(walPath, WriteAheadLog.FsyncPolicy.ALWAYS, 0);
+        context.setWriteAheadLog(wal);
+        addData();
+        Path file = SnapshotFile.newPath(dir, "20240301_010000");
+        SnapshotFile.Info written = SnapshotFile.write(file, context.getStudents(), gradeManager, wal);
+        assertEquals(5, written.getWalSequence()); // 2 students + 3 grades
+        gradeManager.addGrade(new Grade(1002, new ElectiveSubject("Pottery", "E-POT"), 70.0));
+        wal.close();
+        reset();
+
+        SnapshotFile.Info restored = SnapshotFile.restore(file, context);
+        WalReplayer.ReplayStats replayed = WalReplayer.replay(walPath, context, restored.getWalSequence());
+
+        assertEquals(0, replayed.getStudents());
+        assertEquals(1, replayed.getGrades());
+        assertEquals(6, replayed.getNextSequence());
+        assertEquals(4, gradeManager.getGradeCount());
+    }
+
+    @Test
+    @DisplayName("Should reject a snapshot whose checksum does not match")
+    void testCorruptSnapshot() throws Exception {
+        addData();
+        Path file = SnapshotFile.newPath(dir, "20240301_010000");
+        SnapshotFile.write(file, context.getStudents(), gradeManager, null);
+        reset();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x55}), Files.size(file) - 10);
+        }
+
+        assertThrows(IOException.class, () -> SnapshotFile.restore(file, context));
+    }
+}
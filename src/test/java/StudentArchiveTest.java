@@ -0,0 +1,127 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import models.RegularStudent;
+import core.CoreSubject;
+import core.ElectiveSubject;
+import core.Grade;
+import persistence.ArchiveMigration;
+import persistence.StudentArchive;
+import exception.StudentNotFoundException;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StudentArchive Class Tests")
+class StudentArchiveTest extends ContextTestSupport {
+
+    @TempDir
+    Path dir;
+
+    // Two students with grades in memory
+    private void addData() throws Exception {
+        addStudents();
+        gradeManager.addGrades(List.of(
+                new Grade(9001, 1001, new CoreSubject("Mathematics", "C-MATH"), 80.0, LocalDate.of(2024, 3, 1)),
+                new Grade(9002, 1001, new ElectiveSubject("Pottery", "E-POT"), 90.0, LocalDate.of(2024, 3, 2)),
+                new Grade(9003, 1002, new CoreSubject("English", "C-ENG"), 60.5, LocalDate.of(2024, 3, 3))));
+    }
+
+    // The same students copied into a new archive, reopened read-only and dropped from memory
+    private StudentArchive archiveData() throws Exception {
+        addData();
+        Path file = dir.resolve("students.archive");
+        try (StudentArchive created = StudentArchive.create(file, 32)) {
+            assertEquals(3, created.copyFrom(context.getStudents(), gradeManager));
+        }
+        reset();
+        return StudentArchive.open(file, 32);
+    }
+
+    @Test
+    @DisplayName("Should answer student and grade queries for students only in the archive")
+    void testQueriesFallBackToArchive() throws Exception {
+        context.setArchive(archiveData());
+
+        assertNull(context.getStudentById(1001));
+        assertEquals("John Doe", context.getStudentService().findStudentById(1001).getName());
+        assertEquals("Honors", context.getStudentService().findStudentById(1002).getType());
+        assertEquals(85.0, gradeManager.calculateOverallAverage(1001), 0.001);
+        assertEquals(80.0, gradeManager.calculateCoreAverage(1001), 0.001);
+        assertEquals(2, gradeManager.getSubjectCountForStudent(1001));
+        Grade first = gradeManager.getStudentGrades(1001).get(0);
+        assertEquals(9001, first.getGradeId());
+        assertEquals("Mathematics", first.getSubject().getSubjectName());
+        assertEquals(LocalDate.of(2024, 3, 1), first.getDate());
+        assertThrows(StudentNotFoundException.class, () -> gradeManager.calculateOverallAverage(4242));
+    }
+
+    @Test
+    @DisplayName("Should keep an opened archive read-only and new ids above its ids")
+    void testArchiveIsReadOnly() throws Exception {
+        StudentArchive archive = archiveData();
+        context.setArchive(archive);
+
+        assertThrows(StudentNotFoundException.class,
+                () -> gradeManager.addGrade(new Grade(1002, new CoreSubject("English", "C-ENG"), 79.5)));
+        assertThrows(IllegalStateException.class,
+                () -> archive.putStudent(new RegularStudent(1003, "New", 18, "new@email.com", "1234567890")));
+        assertEquals(60.5, gradeManager.calculateOverallAverage(1002), 0.001);
+        assertEquals(3, archive.getGradeCount());
+        assertEquals(1002, archive.getMaxStudentId());
+        assertEquals(9003, archive.getMaxGradeId());
+        assertTrue(context.getStudentIdCounter() > 1002);
+        assertTrue(new Grade(1001, new CoreSubject("Mathematics", "C-MATH"), 50.0).getGradeId() > 9003);
+    }
+
+    @Test
+    @DisplayName("Should move in-memory students into the archive and checkpoint them with a snapshot")
+    void testMigration() throws Exception {
+        Path file = dir.resolve("students.archive");
+        Path backups = dir.resolve("backups");
+        addData();
+        context.setArchive(StudentArchive.open(file, 32));
+
+        ArchiveMigration.Report first = ArchiveMigration.run(context, file, backups);
+
+        assertEquals(2, first.getStudents());
+        assertEquals(3, first.getGrades());
+        assertEquals(0, context.getStudents().size());
+        assertEquals(0, gradeManager.getGradeCount());
+        assertEquals(0, first.getBackup().getStudents(), "the snapshot no longer holds archived students");
+        assertEquals(85.0, gradeManager.calculateOverallAverage(1001), 0.001);
+
+        context.addStudent(new RegularStudent(1003, "Sam Lee", 20, "sam@email.com", "5551234567"));
+        gradeManager.addGrade(new Grade(9004, 1003, new CoreSubject("Mathematics", "C-MATH"), 70.0,
+                LocalDate.of(2024, 4, 1)));
+        ArchiveMigration.Report second = ArchiveMigration.run(context, file, backups);
+
+        StudentArchive archive = second.getArchive();
+        assertSame(archive, context.getArchive());
+        assertEquals(3, archive.getStudentCount(), "earlier archived students are carried over");
+        assertEquals(4, archive.getGradeCount());
+        assertEquals(70.0, gradeManager.calculateOverallAverage(1003), 0.001);
+        assertEquals(60.5, gradeManager.calculateOverallAverage(1002), 0.001);
+    }
+
+    @Test
+    @DisplayName("Should report an archive that was changed and not flushed as needing a rebuild")
+    void testUncleanArchive() throws Exception {
+        Path file = dir.resolve("students.archive");
+        StudentArchive archive = StudentArchive.create(file, 32);
+        archive.putStudent(johnDoe());
+        archive.getBufferPool().close(); // simulate a crash: pages written, header still marked open
+
+        assertTrue(StudentArchive.needsRebuild(file));
+        assertThrows(IOException.class, () -> StudentArchive.open(file, 32));
+
+        Path aside = StudentArchive.setAside(file);
+        assertTrue(StudentArchive.needsRebuild(aside));
+        assertFalse(StudentArchive.needsRebuild(file));
+        try (StudentArchive rebuilt = StudentArchive.open(file, 32)) {
+            assertEquals(0, rebuilt.getStudentCount());
+        }
+    }
+}
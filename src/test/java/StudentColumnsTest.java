@@ -0,0 +1,70 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import context.ApplicationContext;
+import context.StudentColumns;
+import context.StudentRegistry;
+import models.HonorsStudent;
+import models.RegularStudent;
+import core.Student;
+import search.RegexSearchEngine;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StudentColumns Class Tests")
+class StudentColumnsTest {
+
+    private StudentRegistry registry;
+    private StudentColumns columns;
+
+    @BeforeEach
+    void setUp() {
+        registry = new StudentRegistry();
+        columns = new StudentColumns();
+        registry.add(new RegularStudent(1001, "John Doe", 18, "john@gmail.com", "(555) 123-4567"));
+        registry.addListener(columns);
+        registry.add(new HonorsStudent(1002, "Jane Smith", 19, "jane@school.edu", "0987654321"));
+    }
+
+    @Test
+    @DisplayName("Should extract each attribute into its column")
+    void testColumns() {
+        StudentColumns.Snapshot snapshot = columns.snapshot();
+
+        assertEquals(2, snapshot.size());
+        assertEquals(1001, snapshot.id(0));
+        assertEquals("Jane Smith", snapshot.name(1));
+        assertEquals("gmail.com", snapshot.emailDomain(0));
+        assertEquals("555", snapshot.areaCode(0));
+        assertEquals("098", snapshot.areaCode(1));
+        assertEquals(StudentColumns.TYPE_HONORS, snapshot.typeCode(1));
+        assertEquals(2, snapshot.countStatus(StudentColumns.STATUS_FAILING));
+    }
+
+    @Test
+    @DisplayName("Should update the status code when a student's average changes")
+    void testStatusChange() {
+        Student jane = registry.findById(1002);
+        jane.setAverageGrade(90);
+        registry.notifyChanged(jane);
+
+        StudentColumns.Snapshot snapshot = columns.snapshot();
+        assertEquals(StudentColumns.STATUS_PASSING, snapshot.statusCode(1));
+        assertEquals(1, snapshot.countStatus(StudentColumns.STATUS_PASSING));
+    }
+
+    @Test
+    @DisplayName("Regex search should scan the shared columns")
+    void testRegexSearchUsesColumns() {
+        ApplicationContext context = ApplicationContext.getInstance();
+        context.clearStudents();
+        context.addStudent(new RegularStudent(1001, "John Doe", 18, "john@gmail.com", "(555) 123-4567"));
+        context.addStudent(new HonorsStudent(1002, "Jane Smith", 19, "jane@school.edu", "0987654321"));
+
+        List<Student> found = new RegexSearchEngine().searchByEmailDomain("\\.edu$", false);
+
+        assertEquals(1, found.size());
+        assertEquals(1002, found.get(0).getId());
+        assertEquals(2, context.getStudentColumns().snapshot().size());
+    }
+}
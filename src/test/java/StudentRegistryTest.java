@@ -0,0 +1,107 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import context.StudentRegistry;
+import context.StudentSnapshot;
+import models.RegularStudent;
+import core.Student;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StudentRegistry Class Tests")
+class StudentRegistryTest {
+
+    private static Student student(int id) {
+        return new RegularStudent(id, "Student " + id, 18, "s" + id + "@email.com", "1234567890");
+    }
+
+    @Test
+    @DisplayName("Should find registered students by id and keep insertion order")
+    void testAddAndFind() {
+        StudentRegistry registry = new StudentRegistry();
+        Student first = student(1001);
+        Student second = student(1002);
+        registry.add(first);
+        registry.add(second);
+
+        assertSame(second, registry.findById(1002));
+        assertNull(registry.findById(1003));
+        assertEquals(List.of(first, second), new ArrayList<>(registry));
+        assertThrows(IllegalArgumentException.class, () -> registry.add(student(1001)));
+        assertThrows(UnsupportedOperationException.class, () -> registry.remove(0));
+    }
+
+    @Test
+    @DisplayName("A snapshot should not change when students are added later")
+    void testSnapshotIsStable() {
+        StudentRegistry registry = new StudentRegistry();
+        for (int i = 0; i < 100; i++) {
+            registry.add(student(1000 + i));
+        }
+        StudentSnapshot snapshot = registry.snapshot();
+
+        for (int i = 100; i < 300; i++) {
+            registry.add(student(1000 + i));
+        }
+
+        assertEquals(100, snapshot.size());
+        assertEquals(1099, snapshot.get(99).getId());
+        assertEquals(300, registry.size());
+        assertTrue(registry.getVersion() > snapshot.getVersion());
+    }
+
+    @Test
+    @DisplayName("Readers should iterate consistent snapshots while writers insert")
+    void testConcurrentWritersAndReaders() throws Exception {
+        StudentRegistry registry = new StudentRegistry();
+        int writers = 8;
+        int perWriter = 2_000;
+        ExecutorService pool = Executors.newFixedThreadPool(writers + 1);
+        CountDownLatch startGate = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> tasks = new ArrayList<>();
+
+        for (int w = 0; w < writers; w++) {
+            final int writer = w;
+            tasks.add(pool.submit(() -> {
+                startGate.await();
+                for (int i = 0; i < perWriter; i++) {
+                    registry.add(student(writer * perWriter + i));
+                }
+                return null;
+            }));
+        }
+        Future<?> reader = pool.submit(() -> {
+            startGate.await();
+            while (writing.get()) {
+                StudentSnapshot snapshot = registry.snapshot();
+                int seen = 0;
+                for (Student s : snapshot) {
+                    assertSame(s, registry.findById(s.getId()));
+                    seen++;
+                }
+                assertEquals(snapshot.size(), seen);
+            }
+            return null;
+        });
+
+        startGate.countDown();
+        for (Future<?> f : tasks) {
+            f.get(30, TimeUnit.SECONDS);
+        }
+        writing.set(false);
+        reader.get(10, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(writers * perWriter, registry.size());
+        for (int id = 0; id < writers * perWriter; id++) {
+            assertEquals(id, registry.findById(id).getId());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import context.ApplicationContext;
+import context.StudentRegistry;
+import manager.GradeManager;
+import models.HonorsStudent;
+import models.RegularStudent;
+import models.StudentService;
+import core.CoreSubject;
+import core.Grade;
+import core.Student;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StudentService Class Tests")
+class StudentServiceTest {
+
+    private StudentRegistry registry;
+    private StudentService service;
+
+    @BeforeEach
+    void setUp() {
+        registry = new StudentRegistry();
+        registry.add(new RegularStudent(1001, "John Doe", 18, "john@email.com", "1234567890"));
+        AtomicInteger ids = new AtomicInteger(1000);
+        service = new StudentService(registry, ids::getAndIncrement);
+        registry.addListener(service);
+        registry.add(new HonorsStudent(1002, "Jane Smith", 19, "jane@email.com", "0987654321"));
+        registry.add(new RegularStudent(1003, "No Phone", 18, "nophone@email.com", "123"));
+    }
+
+    @Test
+    @DisplayName("Should bucket students by type, including ones registered before the service")
+    void testTypeBuckets() {
+        assertEquals(2, service.countStudentsByType("Regular"));
+        assertEquals(1, service.countStudentsByType("Honors"));
+        assertEquals(0, service.countStudentsByType("Exchange"));
+        assertEquals(1002, service.getStudentsByType("Honors").get(0).getId());
+        assertEquals(1003, service.findStudentById(1003).getId());
+    }
+
+    @Test
+    @DisplayName("Should cache validity when a student is registered")
+    void testValidStudents() {
+        assertEquals(2, service.getValidStudents().size());
+        assertTrue(service.isValidStudent(1001));
+        assertFalse(service.isValidStudent(1003));
+    }
+
+    @Test
+    @DisplayName("Should empty all buckets when the registry is cleared")
+    void testClear() {
+        registry.clear();
+
+        assertEquals(0, service.countStudentsByType("Regular"));
+        assertTrue(service.getValidStudents().isEmpty());
+        assertEquals(0, service.countStudentsByStatus("Failing"));
+    }
+
+    @Test
+    @DisplayName("Should move a student between status buckets as grades come in")
+    void testStatusBuckets() throws Exception {
+        ApplicationContext context = ApplicationContext.getInstance();
+        context.clearStudents();
+        context.addStudent(new RegularStudent(1001, "John Doe", 18, "john@email.com", "1234567890"));
+        StudentService shared = context.getStudentService();
+        assertEquals(1, shared.countStudentsByStatus("Failing"));
+
+        GradeManager gradeManager = new GradeManager();
+        gradeManager.addGrade(new Grade(1001, new CoreSubject("Mathematics", "C-MATH"), 75.0));
+
+        assertEquals(0, shared.countStudentsByStatus("Failing"));
+        assertEquals(1001, shared.getStudentsByStatus("Passing").get(0).getId());
+    }
+
+    @Test
+    @DisplayName("Should take new ids from the application's counter")
+    void testAddStudentSharesIdCounter() {
+        ApplicationContext context = ApplicationContext.getInstance();
+        context.clearStudents();
+        int menuId = context.generateStudentId();
+        context.addStudent(new RegularStudent(menuId, "Menu Student", 18, "menu@email.com", "1234567890"));
+
+        Student added = context.getStudentService().addStudent("Service Student", 19, "svc@email.com", "0987654321");
+
+        assertNotEquals(menuId, added.getId());
+        assertSame(added, context.getStudentById(added.getId()));
+        context.clearStudents();
+    }
+}
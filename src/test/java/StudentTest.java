@@ -3,6 +3,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import models.RegularStudent;
 import models.HonorsStudent;
+import context.ApplicationContext;
+import core.CoreSubject;
+import core.Grade;
 import static org.junit.jupiter.api.Assertions.*;
 
 @DisplayName("Student Class Tests")
@@ -124,4 +127,20 @@ class StudentTest {
     void testComputeGPA_NoGrades() {
         assertEquals(0.0, regularStudent.computeGPA());
     }
+
+    @Test
+    @DisplayName("Should recompute cached GPA only after the student's grades change")
+    void testComputeGPA_CachedUntilGradeAdded() throws Exception {
+        ApplicationContext context = ApplicationContext.getInstance();
+        RegularStudent student = new RegularStudent(7001, "Cache Test", 18, "cache@email.com", "1234567890");
+        context.addStudent(student);
+        long version = student.getGradeVersion();
+        assertEquals(0.0, student.computeGPA());
+
+        context.getGradeManager().addGrade(new Grade(7001, new CoreSubject("Mathematics", "C-MATH"), 85.0));
+
+        assertTrue(student.getGradeVersion() > version);
+        assertEquals(4.0, student.computeGPA());
+        assertEquals(1, student.getEnrolledSubjects());
+    }
 }
@@ -0,0 +1,50 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import manager.SubjectRegistry;
+import core.CoreSubject;
+import core.Subject;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SubjectRegistry Class Tests")
+class SubjectRegistryTest {
+
+    private final SubjectRegistry registry = SubjectRegistry.getInstance();
+
+    @Test
+    @DisplayName("Should return the same instance for the same name and type")
+    void testInternReturnsCanonicalInstance() {
+        Subject first = registry.intern("Geography", "Core");
+        Subject second = registry.intern("Geography", "core");
+
+        assertSame(first, second);
+        assertEquals("C-GEO", first.getSubjectCode());
+        assertEquals("Core", first.getSubjectType());
+    }
+
+    @Test
+    @DisplayName("Should keep Core and Elective subjects with the same name apart")
+    void testSameNameDifferentType() {
+        Subject core = registry.intern("Drama", "Core");
+        Subject elective = registry.intern("Drama", "Elective");
+
+        assertNotSame(core, elective);
+        assertNotEquals(registry.idOf(core), registry.idOf(elective));
+    }
+
+    @Test
+    @DisplayName("Should pre-register the built-in subjects with their menu codes")
+    void testBuiltInSubjects() {
+        assertEquals("C-MATH", registry.intern("Mathematics", "Core").getSubjectCode());
+        assertEquals("E-PE", registry.intern("Physical Education", "Elective").getSubjectCode());
+    }
+
+    @Test
+    @DisplayName("Should map an outside instance to the canonical id and back")
+    void testIdRoundTrip() {
+        Subject canonical = registry.intern("Mathematics", "Core");
+        int id = registry.idOf(new CoreSubject("Mathematics", "C-OTHER"));
+
+        assertSame(canonical, registry.get(id));
+        assertTrue(id >= 0 && id < registry.size());
+    }
+}
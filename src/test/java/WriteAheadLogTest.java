@@ -0,0 +1,124 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import core.CoreSubject;
+import core.ElectiveSubject;
+import core.Grade;
+import persistence.WalReplayer;
+import persistence.WriteAheadLog;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("WriteAheadLog Class Tests")
+class WriteAheadLogTest extends ContextTestSupport {
+
+    @TempDir
+    Path dir;
+
+    // Two students and five grades, logged through the normal add paths
+    private Path writeLog(WriteAheadLog.FsyncPolicy policy) throws Exception {
+        Path path = dir.resolve("grades.wal");
+        WriteAheadLog wal = WriteAheadLog.open(path, policy, 0);
+        context.setWriteAheadLog(wal);
+        addStudents();
+        gradeManager.addGrade(new Grade(1001, new CoreSubject("Mathematics", "C-MATH"), 80.0));
+        gradeManager.addGrades(List.of(
+                new Grade(1001, new ElectiveSubject("Music", "E-MUS"), 90.0),
+                new Grade(1002, new CoreSubject("Mathematics", "C-MATH"), 70.5),
+                new Grade(1002, new CoreSubject("English", "C-ENG"), 60.0)));
+        gradeManager.addGrade(new Grade(1002, new CoreSubject("Science", "C-SCI"), 99.0));
+        wal.close();
+        reset();
+        return path;
+    }
+
+    @Test
+    @DisplayName("Should replay every logged student and grade")
+    void testReplay() throws Exception {
+        Path path = writeLog(WriteAheadLog.FsyncPolicy.ALWAYS);
+
+        WalReplayer.ReplayStats stats = WalReplayer.replay(path, context);
+
+        assertEquals(2, stats.getStudents());
+        assertEquals(5, stats.getGrades());
+        assertEquals(0, stats.getTruncatedBytes());
+        assertEquals("Honors", context.getStudentById(1002).getType());
+        assertEquals(5, gradeManager.getGradeCount());
+        assertEquals(85.0, gradeManager.calculateOverallAverage(1001), 0.001);
+        assertTrue(context.getStudentIdCounter() > 1002);
+    }
+
+    @Test
+    @DisplayName("Should stop at a record torn by a crash and cut it off")
+    void testTornTail() throws Exception {
+        Path path = writeLog(WriteAheadLog.FsyncPolicy.INTERVAL);
+        long size = Files.size(path);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 5); // mid-way through the last grade record
+        }
+
+        WalReplayer.ReplayStats stats = WalReplayer.replay(path, context);
+
+        assertEquals(2, stats.getStudents());
+        assertEquals(4, stats.getGrades());
+        assertTrue(stats.getTruncatedBytes() > 0);
+        assertEquals(stats.getValidBytes(), Files.size(path));
+        assertEquals(4, gradeManager.getGradeCount());
+
+        // new records go after the last intact one and replay cleanly
+        WriteAheadLog wal = WriteAheadLog.open(path, WriteAheadLog.FsyncPolicy.NEVER, stats.getNextSequence());
+        context.setWriteAheadLog(wal);
+        gradeManager.addGrade(new Grade(1001, new CoreSubject("Science", "C-SCI"), 50.0));
+        wal.close();
+        reset();
+
+        stats = WalReplayer.replay(path, context);
+        assertEquals(5, stats.getGrades());
+        assertEquals(0, stats.getTruncatedBytes());
+    }
+
+    @Test
+    @DisplayName("Should stop at a record whose checksum does not match")
+    void testCorruptRecord() throws Exception {
+        Path path = writeLog(WriteAheadLog.FsyncPolicy.ALWAYS);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            // flip a byte inside the last grade's value
+            channel.write(ByteBuffer.wrap(new byte[] {0x7F}), Files.size(path) - 8);
+        }
+
+        WalReplayer.ReplayStats stats = WalReplayer.replay(path, context);
+
+        assertEquals(4, stats.getGrades());
+        assertTrue(stats.getTruncatedBytes() > 0);
+    }
+
+    @Test
+    @DisplayName("Should not log grades that the store rejects")
+    void testRejectedGradesNotReplayed() throws Exception {
+        Path path = dir.resolve("grades.wal");
+        WriteAheadLog wal = WriteAheadLog.open(path, WriteAheadLog.FsyncPolicy.ALWAYS, 0);
+        context.setWriteAheadLog(wal);
+        context.addStudent(johnDoe());
+        gradeManager.addGrade(new Grade(1001, new CoreSubject("Mathematics", "C-MATH"), 80.0));
+        assertThrows(IllegalArgumentException.class, () -> gradeManager.addGrades(List.of(
+                new Grade(1001, new CoreSubject("English", "C-ENG"), 90.0),
+                new Grade(1001, new CoreSubject("Science", "C-SCI"), 150.0))));
+        assertThrows(IllegalArgumentException.class,
+                () -> gradeManager.addGrade(new Grade(1001, new CoreSubject("Science", "C-SCI"), -5.0)));
+        assertEquals(1, gradeManager.getGradeCount());
+        wal.close();
+        reset();
+
+        WalReplayer.ReplayStats stats = WalReplayer.replay(path, context);
+
+        assertEquals(1, stats.getGrades());
+        assertEquals(0, stats.getSkipped());
+        assertEquals(1, gradeManager.getGradeCount());
+        assertEquals(80.0, gradeManager.calculateOverallAverage(1001), 0.001);
+    }
+}